@@ -0,0 +1,91 @@
+package nars.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import nars.entity.BudgetValue;
+import nars.entity.Item;
+import nars.storage.Bag;
+import nars.storage.BagType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bag.putIn / takeNext on a full bag, for each BagType
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BagBenchmark {
+
+    @Param({"Level", "Array"})
+    public BagType type;
+
+    @Param({"100", "1000"})
+    public int capacity;
+
+    @Param({"100"})
+    public int levels;
+
+    Bag<BenchItem,CharSequence> bag;
+    
+    /** several times more items than capacity, so putIn() keeps overflowing the full bag */
+    BenchItem[] items;
+    int next;
+
+    /** Item with a fixed key and priority */
+    public static class BenchItem extends Item.StringKeyItem {
+        final String key;
+
+        public BenchItem(final int id, final float priority) {
+            super(new BudgetValue(priority, priority, priority));
+            this.key = String.valueOf(id);
+        }
+
+        @Override
+        public CharSequence name() {
+            return key;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        bag = type.newBag(levels, capacity);
+        
+        //fixed seed: the same priorities for every BagType
+        final Random rng = new Random(1);
+        items = new BenchItem[Integer.highestOneBit(capacity) << 3];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = new BenchItem(i, rng.nextFloat() * 0.99f);
+        }
+        for (int i = 0; i < capacity; i++) {
+            bag.putIn(items[i]);
+        }
+        next = capacity;
+    }
+
+    /** steady state of a concept bag: select an item and put it back */
+    @Benchmark
+    public BenchItem takeNextPutIn() {
+        final BenchItem x = bag.takeNext();
+        bag.putIn(x);
+        return x;
+    }
+
+    /** insertion into a full bag, evicting the lowest priority item */
+    @Benchmark
+    public BenchItem putInOverflow() {
+        return bag.putIn(items[next++ & (items.length - 1)]);
+    }
+}
@@ -0,0 +1,68 @@
+package nars.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import nars.NAR;
+import nars.config.Plugins;
+import nars.io.TextInput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * NAR.run(n) on the nal/test scripts, from a fresh NAR each time, like NALTest
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CycleBenchmark {
+
+    /** relative to the project directory, which the bench target runs in */
+    @Param({
+        "nal/test/nal1.0.nal",
+        "nal/test/nal2.0.nal",
+        "nal/test/nal5.18.nal",
+        "nal/test/nal6.0.nal",
+        "nal/test/nal7.0.nal",
+        "nal/test/nal8.1.0.nal"
+    })
+    public String script;
+
+    @Param({"100", "500"})
+    public int cycles;
+
+    String example;
+    NAR nar;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        example = new String(Files.readAllBytes(Paths.get(script)), StandardCharsets.UTF_8);
+    }
+
+    @Setup(Level.Invocation)
+    public void setup() {
+        nar = new NAR(new Plugins());
+        nar.addInput(new TextInput(example));
+    }
+
+    @Benchmark
+    public long run() {
+        nar.run(cycles);
+        return nar.time();
+    }
+}
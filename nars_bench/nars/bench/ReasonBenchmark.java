@@ -0,0 +1,100 @@
+package nars.bench;
+
+import java.util.concurrent.TimeUnit;
+import nars.NAR;
+import nars.config.Plugins;
+import nars.control.DerivationContext;
+import nars.entity.Concept;
+import nars.entity.Task;
+import nars.entity.TaskLink;
+import nars.entity.TermLink;
+import nars.inference.RuleTables;
+import nars.io.Narsese;
+import nars.language.Term;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * RuleTables.reason on a fixed task / belief pair, fired from the concept of
+ * their shared term.  Derived tasks are dropped after each call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReasonBenchmark {
+
+    /** task;belief;shared term */
+    @Param({
+        "<a --> b>.;<b --> c>.;b",
+        "<a --> b>.;<a --> c>.;a",
+        "<(*,a,c) --> d>.;<(*,a,e) --> d>.;d",
+        "<<$1 --> b> ==> <$1 --> c>>.;<a --> b>.;b",
+        "<a --> b>.;<<a --> b> ==> <c --> d>>.;<a --> b>"
+    })
+    public String premises;
+
+    NAR nar;
+    Concept concept;
+    TaskLink taskLink;
+    TermLink termLink;
+
+    @Setup
+    public void setup() throws Narsese.InvalidInputException {
+        final String[] p = premises.split(";");
+        nar = new NAR(new Plugins());
+        final Narsese narsese = new Narsese(nar);
+        final Term taskTerm = narsese.parseTask(p[0]).getTerm();
+        final Term beliefTerm = narsese.parseTask(p[1]).getTerm();
+
+        nar.addInput(p[0]);
+        nar.addInput(p[1]);
+        nar.run(4);
+
+        concept = nar.memory.concept(narsese.parseTerm(p[2]));
+        if (concept == null) {
+            throw new IllegalStateException("no concept for " + p[2]);
+        }
+        for (final TaskLink t : concept.taskLinks) {
+            if (t.getTerm().equals(taskTerm) && (t.type != TermLink.TRANSFORM)) {
+                taskLink = t;
+            }
+        }
+        for (final TermLink t : concept.termLinks) {
+            if (t.getTarget().equals(beliefTerm)) {
+                termLink = t;
+            }
+        }
+        if ((taskLink == null) || (termLink == null)) {
+            throw new IllegalStateException("premises not linked from " + concept);
+        }
+    }
+
+    @Benchmark
+    public int reason() {
+        final Task task = taskLink.getTarget();
+        final DerivationContext nal = new DerivationContext(nar.memory);
+        nal.setCurrentConcept(concept);
+        nal.setCurrentTerm(concept.term);
+        nal.setCurrentTaskLink(taskLink);
+        nal.setCurrentBeliefLink(termLink);
+        nal.setCurrentTask(task);
+
+        RuleTables.reason(taskLink, termLink, nal);
+
+        final int derived = nar.memory.newTasks.size();
+        nar.memory.newTasks.clear();
+        return derived;
+    }
+}
@@ -0,0 +1,75 @@
+package nars.bench;
+
+import java.util.concurrent.TimeUnit;
+import nars.entity.Stamp;
+import nars.language.Tense;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Stamp merging and the evidential base checks done for every double-premise derivation
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StampBenchmark {
+
+    /** length of each evidential base */
+    @Param({"1", "4", "10"})
+    public int length;
+
+    Stamp first, second;
+    
+    /** a stamp sharing one evidence serial with first */
+    Stamp overlapping;
+
+    long serial = 0;
+
+    @Setup
+    public void setup() {
+        first = stamp(length);
+        second = stamp(length);
+        overlapping = new Stamp(stamp(length - 1), new Stamp(0, Tense.Eternal, first.evidentialBase[0], 5), 0);
+    }
+
+    /** merges new stamps until the evidential base has the given length */
+    Stamp stamp(final int length) {
+        Stamp s = new Stamp(0, Tense.Eternal, serial++, 5);
+        while (s.evidentialBase.length < length) {
+            s = new Stamp(s, new Stamp(0, Tense.Eternal, serial++, 5), 0);
+        }
+        return s;
+    }
+
+    @Benchmark
+    public Stamp merge() {
+        return new Stamp(first, second, 0);
+    }
+
+    @Benchmark
+    public boolean overlapNone() {
+        return Stamp.baseOverlap(first.evidentialBase, second.evidentialBase);
+    }
+
+    @Benchmark
+    public boolean overlapOne() {
+        return Stamp.baseOverlap(first.evidentialBase, overlapping.evidentialBase);
+    }
+
+    @Benchmark
+    public boolean evidenceIsCyclic() {
+        return first.evidenceIsCyclic();
+    }
+}
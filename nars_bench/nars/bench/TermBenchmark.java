@@ -0,0 +1,81 @@
+package nars.bench;
+
+import java.util.concurrent.TimeUnit;
+import nars.NAR;
+import nars.config.Parameters;
+import nars.config.Plugins;
+import nars.io.Narsese;
+import nars.io.Symbols;
+import nars.language.Conjunction;
+import nars.language.Inheritance;
+import nars.language.Product;
+import nars.language.Term;
+import nars.language.Variables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CompoundTerm construction, equality and Variables.unify
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TermBenchmark {
+
+    @Param({"true", "false"})
+    public boolean interning;
+
+    Term a, b, c, d;
+    Term x, y;
+    Term rule, fact;
+
+    @Setup
+    public void setup() throws Narsese.InvalidInputException {
+        Parameters.COMPOUND_TERM_INTERNING = interning;
+
+        final Narsese p = new Narsese(new NAR(new Plugins()));
+        a = Term.get("a");
+        b = Term.get("b");
+        c = Term.get("c");
+        d = Term.get("d");
+        x = p.parseTerm("<(*,a,b) --> (&,c,d)>");
+        y = p.parseTerm("<(*,a,b) --> (&,c,d)>");
+        rule = p.parseTerm("<(&&,<$1 --> c>,<$1 --> d>) ==> <$1 --> e>>");
+        fact = p.parseTerm("<(&&,<a --> c>,<a --> d>) ==> <a --> e>>");
+    }
+
+    /** nested statement, as built by the syllogistic rules */
+    @Benchmark
+    public Term makeStatement() {
+        return Inheritance.make(Product.make(a, b), Inheritance.make(c, d));
+    }
+
+    /** commutative compound, which sorts its terms */
+    @Benchmark
+    public Term makeConjunction() {
+        return Conjunction.make(new Term[] { Inheritance.make(d, c), Inheritance.make(b, a), Inheritance.make(a, b) });
+    }
+
+    @Benchmark
+    public boolean equalsHash() {
+        return (x.hashCode() == y.hashCode()) && x.equals(y);
+    }
+
+    @Benchmark
+    public boolean unify() {
+        //unify() applies the substitution to the array, so it needs a fresh one
+        return Variables.unify(Symbols.VAR_INDEPENDENT, rule, fact, new Term[] { rule, fact });
+    }
+}
@@ -3,19 +3,17 @@ package nars;
 import nars.config.Parameters;
 import nars.config.RuntimeParameters;
 import nars.util.Plugin;
+import nars.storage.BulkLoader;
 import nars.storage.Memory;
+import nars.storage.MemorySnapshot;
 import nars.util.Events;
 import nars.util.EventEmitter;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterators;
 import static com.google.common.collect.Iterators.singletonIterator;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.nio.file.Paths;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -47,7 +45,6 @@ import nars.io.Narsese.InvalidInputException;
 import nars.language.Tense;
 import nars.operator.Operator;
 import nars.io.Echo;
-import nars.storage.LevelBag;
 
 
 /**
@@ -77,25 +74,45 @@ public class NAR implements Serializable,Runnable {
                     "    IRC:  http://webchat.freenode.net/?channels=nars \n";    ;
 
 
-    public void SaveToFile(String name) throws FileNotFoundException, IOException {
-        FileOutputStream outStream = new FileOutputStream(name);
-        ObjectOutputStream stream = new ObjectOutputStream(outStream);
-        stream.writeObject(this);
-        outStream.close();
+    /** writes a binary snapshot of the memory, see MemorySnapshot */
+    public void SaveToFile(String name) throws IOException {
+        MemorySnapshot.write(memory, Paths.get(name));
     }
     
-    public static NAR LoadFromFile(String name) throws FileNotFoundException, IOException, ClassNotFoundException {
-        FileInputStream inStream = new FileInputStream(name);
-        ObjectInputStream stream = new ObjectInputStream(inStream);
-        NAR ret = (NAR) stream.readObject();
-        ret.memory.event = new EventEmitter();
-        ret.plugins = new ArrayList<>(); 
-        ret.inputChannels = new ArrayList();
-        ret.newInputChannels = new ArrayList(); //was CopyOnWriteArrayList
-        new Plugins().init(ret);
+    /** creates a NAR with the default plugins and the memory stored in a snapshot file */
+    public static NAR LoadFromFile(String name) throws IOException {
+        NAR ret = new NAR(new Plugins());
+        MemorySnapshot.read(ret, Paths.get(name));
         return ret;
     }
 
+    /**
+     * Starts loading a snapshot file into this NAR's memory, adding conceptsPerCycle
+     * concepts at the end of each cycle until all are loaded
+     */
+    public MemorySnapshot.Reader LoadFromFile(String name, int conceptsPerCycle) throws IOException {
+        MemorySnapshot.Reader r = new MemorySnapshot.Reader(this, Paths.get(name));
+        r.loadDuringCycles(conceptsPerCycle);
+        return r;
+    }
+
+    /**
+     * Loads a large file of Narsese lines directly into the memory, parsing it
+     * on all processors, see BulkLoader.  Invalid lines are reported as ERR.
+     * The reasoner has to be stopped.
+     *
+     * @return the number of tasks loaded
+     */
+    public long loadKnowledge(String name) throws IOException {
+        return new BulkLoader(this, new Narsese.TaskHandler() {
+            @Override public void task(Task t) {
+            }
+            @Override public void invalid(long line, InvalidInputException e) {
+                memory.emit(ERR.class, "line " + line + ": " + e.getMessage());
+            }
+        }).load(Paths.get(name), Runtime.getRuntime().availableProcessors());
+    }
+
     private Thread thread = null;
     long minCyclePeriodMS;
 
@@ -163,10 +180,10 @@ public class NAR implements Serializable,Runnable {
 
     public Memory NewMemory(RuntimeParameters p) {
         return new Memory(p,
-                new LevelBag(Parameters.CONCEPT_BAG_LEVELS, Parameters.CONCEPT_BAG_SIZE),
-                new LevelBag<>(Parameters.NOVEL_TASK_BAG_LEVELS, Parameters.NOVEL_TASK_BAG_SIZE),
-                new LevelBag<>(Parameters.SEQUENCE_BAG_LEVELS, Parameters.SEQUENCE_BAG_SIZE),
-                new LevelBag<>(Parameters.OPERATION_BAG_LEVELS, Parameters.OPERATION_BAG_SIZE));
+                Parameters.CONCEPT_BAG_TYPE.newBag(Parameters.CONCEPT_BAG_LEVELS, Parameters.CONCEPT_BAG_SIZE),
+                Parameters.NOVEL_TASK_BAG_TYPE.newBag(Parameters.NOVEL_TASK_BAG_LEVELS, Parameters.NOVEL_TASK_BAG_SIZE),
+                Parameters.SEQUENCE_BAG_TYPE.newBag(p.sequenceBagLevels.get(), p.sequenceBagSize.get()),
+                Parameters.OPERATION_BAG_TYPE.newBag(Parameters.OPERATION_BAG_LEVELS, p.operationBagSize.get()));
     }
 
     public NAR() {
@@ -367,7 +384,7 @@ public class NAR implements Serializable,Runnable {
                     return at;
                 else {
                     //Process tasks with overrides                    
-                    final int duration = Parameters.DURATION;
+                    final int duration = param.duration.get();
 
                     return Iterators.filter(at, new Predicate<Item>() {
                         @Override public boolean apply(Item at) {
@@ -461,11 +478,12 @@ public class NAR implements Serializable,Runnable {
     @Deprecated public void start(final long minCyclePeriodMS, int cyclesPerFrame) {
         this.minCyclePeriodMS = minCyclePeriodMS;
         this.cyclesPerFrame = cyclesPerFrame;
+        //set before the thread starts, which stops at once otherwise
+        running = true;
         if (thread == null) {
             thread = new Thread(this, "Inference");
             thread.start();
         }
-        running = true;
     }
 
     /**
@@ -21,11 +21,15 @@
 package nars.config;
 
 import nars.language.Interval.PortableDouble;
+import nars.storage.BagType;
 
 
 /**
  * NAR operating parameters.
  * All static values will be removed so that this is an entirely dynamic class.
+ * Those with a field in RuntimeParameters (DURATION, the sequence bag sizes,
+ * derivation leaks, curiosity and emotion thresholds) are only its defaults,
+ * read when a NAR is built; change a running NAR through its RuntimeParameters.
  */
 public class Parameters {
     
@@ -145,6 +149,14 @@ public class Parameters {
     public static final int OPERATION_BAG_LEVELS = 10;
     public static int OPERATION_SAMPLES = 6; //should be at least 2 to not only consider last decision
     
+    /** Bag implementation of each kind of bag, see BagType */
+    public static BagType CONCEPT_BAG_TYPE = BagType.Level;
+    public static BagType TASK_LINK_BAG_TYPE = BagType.Level;
+    public static BagType TERM_LINK_BAG_TYPE = BagType.Level;
+    public static BagType NOVEL_TASK_BAG_TYPE = BagType.Level;
+    public static BagType SEQUENCE_BAG_TYPE = BagType.Level;
+    public static BagType OPERATION_BAG_TYPE = BagType.Level;
+    
     /** How fast events decay in confidence **/
     public static final PortableDouble projectionDecay = new PortableDouble(0.1);
     
@@ -228,6 +240,9 @@ public class Parameters {
     
     /** equivalency based on Term contents; experimental mode - not ready yet, leave FALSE */
     public static boolean TERM_ELEMENT_EQUIVALENCY = false;
+
+    /** share structurally equal ground compound terms, see CompoundTerm.intern() */
+    public static boolean COMPOUND_TERM_INTERNING = true;
     
     //temporary parameter for setting #threads to use, globally
     public static boolean IMMEDIATE_ETERNALIZATION=true;
@@ -5,6 +5,8 @@ import java.io.Serializable;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import nars.control.DerivationContext.DerivationFilter;
 import nars.language.Interval.PortableDouble;
 import nars.language.Interval.PortableInteger;
@@ -51,6 +53,60 @@ public class RuntimeParameters implements Serializable {
      *  the range of "now" is [-DURATION, DURATION]; */
     public final PortableDouble decisionThreshold = new PortableDouble(0.51);
     
+    /** Number of concepts fired in parallel per cycle, each by its own worker thread.
+     *  1 fires a single concept on the reasoner thread. */
+    public final PortableInteger inferenceThreads = new PortableInteger(1);
+    
+    /** Maximum number of input items accepted per cycle, taken round-robin from the input channels */
+    public final PortableInteger inputsPerCycle = new PortableInteger(1);
+    
+    /** Number of recent (task, belief, rule) applications remembered to skip repeating them; 0 disables */
+    public final PortableInteger derivationCacheSize = new PortableInteger(0);
+    
+    /** Cycles during which a remembered rule application is not repeated */
+    public final PortableInteger derivationCacheHorizon = new PortableInteger(100);
+    
+    /** Running test scripts: echoed comments are not output, where the expectations written in them would match.  Always on in JUnit tests */
+    public final AtomicBoolean testMode = new AtomicBoolean(false);
+    
+    /** Record cycle phase and rule timings in Memory.metrics */
+    public final AtomicBoolean metrics = new AtomicBoolean(false);
+    
+    /** Seed of the Memory's random number generator, applied when it is created and reset */
+    public final AtomicLong randomSeed = new AtomicLong(1);
+    
+    /* Settings with a default in Parameters, per NAR so that several NARs in
+       one JVM do not interfere; see Parameters for their meaning.  Set them
+       before the NAR is built for those read at construction (bag sizes). */
+    
+    public final AtomicBoolean immediateEternalization = new AtomicBoolean(Parameters.IMMEDIATE_ETERNALIZATION);
+    public final PortableDouble derivationPriorityLeak = new PortableDouble(Parameters.DERIVATION_PRIORITY_LEAK);
+    public final PortableDouble derivationDurabilityLeak = new PortableDouble(Parameters.DERIVATION_DURABILITY_LEAK);
+    
+    public final PortableInteger sequenceBagSize = new PortableInteger(Parameters.SEQUENCE_BAG_SIZE);
+    public final PortableInteger sequenceBagLevels = new PortableInteger(Parameters.SEQUENCE_BAG_LEVELS);
+    public final PortableInteger sequenceBagAttempts = new PortableInteger(Parameters.SEQUENCE_BAG_ATTEMPTS);
+    public final PortableInteger operationBagSize = new PortableInteger(Parameters.OPERATION_BAG_SIZE);
+    
+    public final AtomicBoolean curiosityForOperatorOnly = new AtomicBoolean(Parameters.CURIOSITY_FOR_OPERATOR_ONLY);
+    public final AtomicBoolean curiosityAlsoOnLowConfidentHighPriorityBelief = new AtomicBoolean(Parameters.CURIOSITY_ALSO_ON_LOW_CONFIDENT_HIGH_PRIORITY_BELIEF);
+    public final PortableDouble curiosityBusinessThreshold = new PortableDouble(Parameters.CURIOSITY_BUSINESS_THRESHOLD);
+    public final PortableDouble curiosityPriorityThreshold = new PortableDouble(Parameters.CURIOSITY_PRIORITY_THRESHOLD);
+    public final PortableDouble curiosityConfidenceThreshold = new PortableDouble(Parameters.CURIOSITY_CONFIDENCE_THRESHOLD);
+    public final PortableDouble curiosityDesireConfidenceMul = new PortableDouble(Parameters.CURIOSITY_DESIRE_CONFIDENCE_MUL);
+    public final PortableDouble curiosityDesirePriorityMul = new PortableDouble(Parameters.CURIOSITY_DESIRE_PRIORITY_MUL);
+    public final PortableDouble curiosityDesireDurabilityMul = new PortableDouble(Parameters.CURIOSITY_DESIRE_DURABILITY_MUL);
+    
+    public final PortableDouble happyEventHigherThreshold = new PortableDouble(Parameters.HAPPY_EVENT_HIGHER_THRESHOLD);
+    public final PortableDouble happyEventLowerThreshold = new PortableDouble(Parameters.HAPPY_EVENT_LOWER_THRESHOLD);
+    public final PortableDouble busyEventHigherThreshold = new PortableDouble(Parameters.BUSY_EVENT_HIGHER_THRESHOLD);
+    public final PortableDouble busyEventLowerThreshold = new PortableDouble(Parameters.BUSY_EVENT_LOWER_THRESHOLD);
+    public final AtomicBoolean reflectMetaHappyGoal = new AtomicBoolean(Parameters.REFLECT_META_HAPPY_GOAL);
+    public final AtomicBoolean considerRemind = new AtomicBoolean(Parameters.CONSIDER_REMIND);
+    
+    public final AtomicBoolean questionGenerationOnDecisionMaking = new AtomicBoolean(Parameters.QUESTION_GENERATION_ON_DECISION_MAKING);
+    public final AtomicBoolean howQuestionGenerationOnDecisionMaking = new AtomicBoolean(Parameters.HOW_QUESTION_GENERATION_ON_DECISION_MAKING);
+    
     
 //    //let NARS use NARS+ ideas (counting etc.)
 //    public final AtomicBoolean experimentalNarsPlus = new AtomicBoolean();
@@ -3,6 +3,7 @@ package nars.control;
 import java.util.ArrayList;
 import java.util.List;
 import nars.config.Parameters;
+import nars.config.RuntimeParameters;
 import nars.entity.*;
 import nars.inference.TemporalRules;
 import nars.inference.TruthFunctions;
@@ -158,14 +159,8 @@ public class ConceptProcessing {
 
                             //we do not add the target, instead the strongest belief in the target concept
                             if(concept.beliefs.size() > 0) {
-                                Task strongest_target = null; //beliefs.get(0);
                                 //get the first eternal:
-                                for(Task t : concept.beliefs) {
-                                    if(t.sentence.isEternal()) {
-                                        strongest_target = t;
-                                        break;
-                                    }
-                                }
+                                Task strongest_target = concept.beliefs.topEternal();
 
                                 int a = pred_conc.executable_preconditions.size();
 
@@ -305,10 +300,13 @@ public class ConceptProcessing {
     }
     
     public static void questionFromGoal(final Task task, final DerivationContext nal) {
-        if(Parameters.QUESTION_GENERATION_ON_DECISION_MAKING || Parameters.HOW_QUESTION_GENERATION_ON_DECISION_MAKING) {
+        final RuntimeParameters param = nal.memory.param;
+        final boolean whetherQuestions = param.questionGenerationOnDecisionMaking.get();
+        final boolean howQuestions = param.howQuestionGenerationOnDecisionMaking.get();
+        if(whetherQuestions || howQuestions) {
             //ok, how can we achieve it? add a question of whether it is fullfilled
             ArrayList<Term> qu=new ArrayList<Term>();
-            if(Parameters.HOW_QUESTION_GENERATION_ON_DECISION_MAKING) {
+            if(howQuestions) {
                 if(!(task.sentence.term instanceof Equivalence) && !(task.sentence.term instanceof Implication)) {
                     Variable how=new Variable("?how");
                     //Implication imp=Implication.make(how, task.sentence.term, TemporalRules.ORDER_CONCURRENT);
@@ -319,7 +317,7 @@ public class ConceptProcessing {
                     }
                 }
             }
-            if(Parameters.QUESTION_GENERATION_ON_DECISION_MAKING) {
+            if(whetherQuestions) {
                 qu.add(task.sentence.term);
             }
             for(Term q : qu) {
@@ -333,7 +331,7 @@ public class ConceptProcessing {
                         st);
 
                     if(s!=null) {
-                        BudgetValue budget=new BudgetValue(task.getPriority()*Parameters.CURIOSITY_DESIRE_PRIORITY_MUL,task.getDurability()*Parameters.CURIOSITY_DESIRE_DURABILITY_MUL,1);
+                        BudgetValue budget=new BudgetValue(task.getPriority()*param.curiosityDesirePriorityMul.floatValue(),task.getDurability()*param.curiosityDesireDurabilityMul.floatValue(),1);
                         nal.singlePremiseTask(s, budget);
                     }
                 }
@@ -438,13 +436,13 @@ public class ConceptProcessing {
                     //and the truth of the hypothesis:
                     TruthValue Hyp = t.sentence.truth;
                     //overlap will almost never happen, but to make sure
-                    if(Stamp.baseOverlap(projectedGoal.stamp.evidentialBase, t.sentence.stamp.evidentialBase)) {
+                    if(Stamp.baseOverlap(projectedGoal.stamp, t.sentence.stamp)) {
                         continue; //base overlap
                     }
-                    if(Stamp.baseOverlap(bestsofar.sentence.stamp.evidentialBase, t.sentence.stamp.evidentialBase)) {
+                    if(Stamp.baseOverlap(bestsofar.sentence.stamp, t.sentence.stamp)) {
                         continue; //base overlap
                     }
-                    if(Stamp.baseOverlap(projectedGoal.stamp.evidentialBase, bestsofar.sentence.stamp.evidentialBase)) {
+                    if(Stamp.baseOverlap(projectedGoal.stamp, bestsofar.sentence.stamp)) {
                         continue; //base overlap
                     }
                     //and the truth of the precondition:
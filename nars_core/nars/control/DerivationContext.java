@@ -6,7 +6,6 @@ package nars.control;
 
 import java.util.ArrayList;
 import java.util.List;
-import nars.util.Events;
 import nars.storage.Memory;
 import nars.NAR;
 import nars.config.Parameters;
@@ -45,6 +44,8 @@ public class DerivationContext {
     }
     
     public boolean evidentalOverlap = false;
+    /** number of tasks derived in this context so far */
+    public int derivations = 0;
     public final Memory memory;
     protected Term currentTerm;
     protected Concept currentConcept;
@@ -120,17 +121,10 @@ public class DerivationContext {
         
         //its revision, of course its cyclic, apply evidental base policy
         if(!overlapAllowed) { //todo reconsider
-            final int stampLength = stamp.baseLength;
-            for (int i = 0; i < stampLength; i++) {
-                final long baseI = stamp.evidentialBase[i];
-                for (int j = 0; j < stampLength; j++) {
-                    //!single since the derivation shouldn't depend on whether there is a current belief or not!!
-                    if ((!single && this.evidentalOverlap) || ((i != j) && (baseI == stamp.evidentialBase[j]))) {
-                        memory.removeTask(task, "Overlapping Evidenctal Base");
-                        //"(i=" + i + ",j=" + j +')' /* + " in " + stamp.toString()*/
-                        return false;
-                    }
-                }
+            //!single since the derivation shouldn't depend on whether there is a current belief or not!!
+            if ((!single && this.evidentalOverlap) || stamp.evidenceIsCyclic()) {
+                memory.removeTask(task, "Overlapping Evidenctal Base");
+                return false;
             }
         }
         
@@ -144,10 +138,11 @@ public class DerivationContext {
         
         task.setElemOfSequenceBuffer(false);
         if(!revised) {
-            task.getBudget().setDurability(task.getBudget().getDurability()*Parameters.DERIVATION_DURABILITY_LEAK);
-            task.getBudget().setPriority(task.getBudget().getPriority()*Parameters.DERIVATION_PRIORITY_LEAK);
+            task.getBudget().setDurability(task.getBudget().getDurability()*memory.param.derivationDurabilityLeak.floatValue());
+            task.getBudget().setPriority(task.getBudget().getPriority()*memory.param.derivationPriorityLeak.floatValue());
         }
-        memory.event.emit(Events.TaskDerive.class, task, revised, single);
+        derivations++;
+        memory.taskDerive.emit(task, revised, single);
         //memory.logic.TASK_DERIVED.commit(task.budget.getPriority());
         
         if(addToMemory) {
@@ -229,7 +224,7 @@ public class DerivationContext {
             
             
             //"Since in principle it is always valid to eternalize a tensed belief"
-            if(temporalInduction && Parameters.IMMEDIATE_ETERNALIZATION) { //temporal induction generated ones get eternalized directly
+            if(temporalInduction && memory.param.immediateEternalization.get()) { //temporal induction generated ones get eternalized directly
                 
                 try {
 
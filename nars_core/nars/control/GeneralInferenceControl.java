@@ -6,7 +6,6 @@ package nars.control;
 
 import nars.config.Parameters;
 import nars.entity.Concept;
-import nars.util.Events;
 import nars.entity.Task;
 import nars.entity.TermLink;
 import nars.inference.BudgetFunctions;
@@ -18,35 +17,52 @@ import nars.storage.Memory;
 public class GeneralInferenceControl {
     
     public static void selectConceptForInference(Memory mem) {
-        Concept currentConcept = mem.concepts.takeNext();
+        Concept currentConcept = takeConceptForInference(mem);
         if (currentConcept==null)
             return;
         
+        DerivationContext cont = new DerivationContext(mem);
+        cont.setCurrentConcept(currentConcept);
+        fireConcept(cont, 1);
+    }
+    
+    /** takes the next concept out of the concept bag, forgetting it instead if it has no links
+     *  @return the concept to fire, or null if there is none this time */
+    public static Concept takeConceptForInference(Memory mem) {
+        Concept currentConcept = mem.concepts.takeNext();
+        if (currentConcept==null)
+            return null;
+        
         if(currentConcept.taskLinks.size() == 0) { //remove concepts without tasklinks and without termlinks
             mem.concepts.take(currentConcept.getTerm());
             mem.conceptRemoved(currentConcept);
-            return;
+            return null;
         }
         if(currentConcept.termLinks.size() == 0) {  //remove concepts without tasklinks and without termlinks
             mem.concepts.take(currentConcept.getTerm());
             mem.conceptRemoved(currentConcept);
-            return;
+            return null;
         }
-        
-        DerivationContext cont = new DerivationContext(mem);
-        cont.setCurrentConcept(currentConcept);
-        fireConcept(cont, 1);
+        return currentConcept;
     }
     
     public static void fireConcept(DerivationContext nal, int numTaskLinks) {     
+        if (fireTaskLinks(nal, numTaskLinks)) {
+            returnConcept(nal);
+        }
+    }
+    
+    /** fires the task links of the current concept, touching only that concept's own bags
+     *  @return false if the concept ran out of task links and should not be put back */
+    public static boolean fireTaskLinks(DerivationContext nal, int numTaskLinks) {
         for (int i = 0; i < numTaskLinks; i++) {
 
             if (nal.currentConcept.taskLinks.size() == 0) 
-                return;
+                return false;
 
             nal.currentTaskLink = nal.currentConcept.taskLinks.takeNext();                    
             if (nal.currentTaskLink == null)
-                return;
+                return false;
 
             if (nal.currentTaskLink.budget.aboveThreshold()) {
                 fireTaskLink(nal, Parameters.TERMLINK_MAX_REASONED);                    
@@ -54,6 +70,11 @@ public class GeneralInferenceControl {
 
             nal.currentConcept.taskLinks.putBack(nal.currentTaskLink, nal.memory.cycles(nal.memory.param.taskLinkForgetDurations), nal.memory);
         }
+        return true;
+    }
+    
+    /** puts the fired concept back into the concept bag */
+    public static void returnConcept(DerivationContext nal) {
         float forgetCycles = nal.memory.cycles(nal.memory.param.conceptForgetDurations);
         nal.currentConcept.setQuality(BudgetFunctions.or(nal.currentConcept.getQuality(),nal.memory.emotion.happy()));
         nal.memory.concepts.putBack(nal.currentConcept, forgetCycles, nal.memory);
@@ -72,7 +93,14 @@ public class GeneralInferenceControl {
             nal.setCurrentBelief(null);
             //TermLink tasklink_as_termlink = new TermLink(nal.currentTaskLink.getTerm(), TermLink.TRANSFORM, nal.getCurrentTaskLink().index);
             //if(nal.currentTaskLink.novel(tasklink_as_termlink, nal.memory.time(), true)) { //then record yourself, but also here novelty counts
-                RuleTables.transformTask(nal.currentTaskLink, nal); // to turn this into structural inference as below?
+                if (nal.memory.param.metrics.get()) {
+                    final long start = System.nanoTime();
+                    final int derivations = nal.derivations;
+                    RuleTables.transformTask(nal.currentTaskLink, nal);
+                    nal.memory.metrics.rule(TermLink.TRANSFORM, TermLink.TRANSFORM, System.nanoTime() - start, nal.derivations - derivations);
+                } else {
+                    RuleTables.transformTask(nal.currentTaskLink, nal); // to turn this into structural inference as below?
+                }
             //}
             
         } else {            
@@ -87,12 +115,15 @@ public class GeneralInferenceControl {
             }
         }
                 
-        nal.memory.emit(Events.ConceptFire.class, nal);
+        nal.memory.conceptFire.emit(nal);
         //memory.logic.TASKLINK_FIRE.commit(currentTaskLink.budget.getPriority());
     }
 
     public static boolean fireTermlink(final TermLink termLink, DerivationContext nal) {
         nal.setCurrentBeliefLink(termLink);
+        final boolean measure = nal.memory.param.metrics.get();
+        final long start = measure ? System.nanoTime() : 0;
+        final int derivations = nal.derivations;
         try {
             RuleTables.reason(nal.currentTaskLink, termLink, nal);
         } catch(Exception ex) {
@@ -100,7 +131,10 @@ public class GeneralInferenceControl {
                 System.out.println("issue in inference");
             }
         }
-        nal.memory.emit(Events.TermLinkSelect.class, termLink, nal.currentConcept, nal);
+        if (measure) {
+            nal.memory.metrics.rule(nal.currentTaskLink.type, termLink.type, System.nanoTime() - start, nal.derivations - derivations);
+        }
+        nal.memory.termLinkSelect.emit(termLink, nal.currentConcept, nal);
         //memory.logic.REASON.commit(termLink.getPriority());                    
         return true;
     }
@@ -0,0 +1,173 @@
+package nars.control;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import nars.entity.Concept;
+import nars.entity.Task;
+import nars.language.Term;
+import nars.language.Unifier;
+import nars.storage.Memory;
+
+/**
+ * Fires several concepts per cycle on a pool of worker threads.
+ * <p>
+ * Enabled by RuntimeParameters.inferenceThreads &gt; 1.  Each cycle the reasoner
+ * thread takes one concept per worker out of the concept bag; a concept that is
+ * out of the bag belongs to the worker firing it, so no two workers touch the
+ * same taskLinks / termLinks.  Workers reason with their own DerivationContext
+ * and collect derived tasks in their own buffer, which are added to
+ * Memory.newTasks in worker order once all of them are done.  Putting the
+ * concepts back, like every other change to the concept bag, happens on the
+ * reasoner thread afterwards.
+ * <p>
+ * Beliefs of other concepts are only read while firing; shared task budgets
+ * and the emotion meter may see racing updates, so runs are not repeatable.
+ */
+public class ParallelInferenceControl {
+
+    public final Memory memory;
+    public final int threads;
+
+    private final ExecutorService exe;
+    private final List<Worker> workers;
+
+    /** concepts being fired, still visible to Memory.concept() while out of the bag */
+    private final Concept[] firing;
+    private volatile int numFiring = 0;
+
+    public ParallelInferenceControl(final Memory memory, final int threads) {
+        this.memory = memory;
+        this.threads = threads;
+        this.firing = new Concept[threads];
+        this.workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            workers.add(new Worker());
+        }
+        this.exe = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            int count = 0;
+            @Override public Thread newThread(final Runnable r) {
+                Thread t = new Thread(r, "Inference-" + (count++));
+                t.setDaemon(true);
+                return t;
+            }
+        });
+    }
+
+    /** one inference step: select up to 'threads' concepts and fire them in parallel */
+    public void selectConceptsForInference() {
+        int n = 0;
+        for (int i = 0; i < threads; i++) {
+            final Concept c = GeneralInferenceControl.takeConceptForInference(memory);
+            if (c != null) {
+                firing[n++] = c;
+            }
+        }
+        if (n == 0) {
+            return;
+        }
+
+        final List<Worker> active = workers.subList(0, n);
+        for (int i = 0; i < n; i++) {
+            active.get(i).start(firing[i]);
+        }
+        numFiring = n;
+        memory.event.setConcurrent(true);
+
+        try {
+            for (Future<Boolean> f : exe.invokeAll(active)) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(cause);
+        } finally {
+            memory.event.setConcurrent(false);
+            numFiring = 0;
+            for (int i = 0; i < n; i++) {
+                active.get(i).finish();
+                firing[i] = null;
+            }
+        }
+    }
+
+    /** @return the concept of a term which is currently being fired, or null */
+    public Concept firing(final Term t) {
+        final int n = numFiring;
+        for (int i = 0; i < n; i++) {
+            final Concept c = firing[i];
+            if ((c != null) && c.term.equals(t)) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    public void stop() {
+        exe.shutdownNow();
+    }
+
+    /** collects the tasks derived by one worker */
+    static class BufferedDerivationContext extends DerivationContext {
+
+        final List<Task> tasks = new ArrayList<>();
+        final List<String> reasons = new ArrayList<>();
+
+        public BufferedDerivationContext(final Memory mem) {
+            super(mem);
+        }
+
+        @Override
+        public void addTask(final Task t, final String reason) {
+            if (t.sentence.term == null) {
+                return;
+            }
+            tasks.add(t);
+            reasons.add(reason);
+        }
+    }
+
+    class Worker implements Callable<Boolean> {
+
+        BufferedDerivationContext nal;
+        /** stays true if firing failed, so the concept still goes back */
+        boolean fired;
+
+        void start(final Concept c) {
+            nal = new BufferedDerivationContext(memory);
+            nal.setCurrentConcept(c);
+            fired = true;
+        }
+
+        @Override
+        public Boolean call() {
+            Unifier.use(memory.randomNumber);
+            fired = GeneralInferenceControl.fireTaskLinks(nal, 1);
+            return fired;
+        }
+
+        /** back on the reasoner thread: merge the buffer and return the concept */
+        void finish() {
+            for (int i = 0; i < nal.tasks.size(); i++) {
+                memory.addNewTask(nal.tasks.get(i), nal.reasons.get(i));
+            }
+            if (fired) {
+                GeneralInferenceControl.returnConcept(nal);
+            }
+            nal = null;
+        }
+    }
+}
@@ -19,9 +19,7 @@ import nars.io.Symbols;
 import nars.language.CompoundTerm;
 import nars.language.Conjunction;
 import nars.operator.Operation;
-import nars.storage.LevelBag;
 import nars.storage.Memory;
-import nars.util.Events;
 
 /**
  *
@@ -61,7 +59,7 @@ public class TemporalInferenceControl {
             return false;
        }
 
-        nal.emit(Events.InduceSucceedingEvent.class, newEvent, nal);
+        nal.memory.induceSucceedingEvent.emit(newEvent, nal);
 
         if (!newEvent.sentence.isJudgment() || newEvent.sentence.isEternal() || !newEvent.isInput()) {
             return false;
@@ -70,15 +68,15 @@ public class TemporalInferenceControl {
         HashSet<Task> already_attempted = new HashSet<Task>();
         HashSet<Task> already_attempted_ops = new HashSet<Task>();
         //Sequence formation:
-        for(int i =0; i<Parameters.SEQUENCE_BAG_ATTEMPTS; i++) {
+        final int attempts = nal.memory.param.sequenceBagAttempts.get();
+        for(int i =0; i<attempts; i++) {
             Task takeout = nal.memory.seq_current.takeNext();
             if(takeout == null) {
                 break; //there were no elements in the bag to try
             }
 
             if(already_attempted.contains(takeout) || 
-                    Stamp.baseOverlap(newEvent.sentence.stamp.evidentialBase,
-                            takeout.sentence.stamp.evidentialBase)) {
+                    Stamp.baseOverlap(newEvent.sentence.stamp, takeout.sentence.stamp)) {
                 nal.memory.seq_current.putBack(takeout, nal.memory.cycles(nal.memory.param.eventForgetDurations), nal.memory);
                 continue;
             }
@@ -112,7 +110,7 @@ public class TemporalInferenceControl {
                 Concept opc = nal.memory.concept(Toperation.getTerm());
                 if(opc != null) {
                     if(opc.seq_before == null) {
-                        opc.seq_before = new LevelBag<>(Parameters.SEQUENCE_BAG_LEVELS, Parameters.SEQUENCE_BAG_SIZE);
+                        opc.seq_before = Parameters.SEQUENCE_BAG_TYPE.newBag(nal.memory.param.sequenceBagLevels.get(), nal.memory.param.sequenceBagSize.get());
                     }
                     for(int i = 0; i<Parameters.CONDITION_BAG_ATTEMPTS; i++) {
                         Task takeout = opc.seq_before.takeNext();
@@ -160,7 +158,14 @@ public class TemporalInferenceControl {
         return true;
     }
     
+    /** locks the sequence bag of the memory, since its parallel inference workers may derive sequences at the same time */
     public static void addToSequenceTasks(DerivationContext nal, final Task newEvent) {
+        synchronized (nal.memory.seq_current) {
+            addToSequenceBag(nal, newEvent);
+        }
+    }
+
+    private static void addToSequenceBag(DerivationContext nal, final Task newEvent) {
         //multiple versions are necessary, but we do not allow duplicates
         List<Task> removals = new LinkedList<Task>();
         for(Task s : nal.memory.seq_current) {
@@ -220,7 +225,7 @@ public class TemporalInferenceControl {
         Concept c = (Concept) mem.concept(task.getTerm());
         if(c != null) {
             if(c.seq_before == null) {
-                c.seq_before = new LevelBag<>(Parameters.SEQUENCE_BAG_LEVELS, Parameters.SEQUENCE_BAG_SIZE);
+                c.seq_before = Parameters.SEQUENCE_BAG_TYPE.newBag(mem.param.sequenceBagLevels.get(), mem.param.sequenceBagSize.get());
             }
             for(Task t : mem.seq_current) {
                 if(task.sentence.getOccurenceTime() > t.sentence.getOccurenceTime()) {
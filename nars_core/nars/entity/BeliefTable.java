@@ -0,0 +1,311 @@
+package nars.entity;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import static nars.inference.BudgetFunctions.rankBelief;
+
+/**
+ * Table of beliefs, desires or preconditions of a Concept, ranked from best
+ * to worst by BudgetFunctions.rankBelief.
+ * <p>
+ * As a List it is the ranked table itself; insert() finds the place of a new
+ * task by binary search over the cached ranks.  Eternal tasks by rank and
+ * temporal ones by occurrence time are indexed separately, rebuilt on the
+ * first lookup after a change.  Projections of the tasks to a target time are
+ * cached until the current time moves on; the cache may be read by parallel
+ * inference workers, each slot holds one immutable entry.
+ * <p>
+ * add(int, Task) and set only accept tasks which keep the ranking.
+ */
+public class BeliefTable extends AbstractList<Task> implements RandomAccess, Serializable {
+
+    /** rank by truth expectation instead of confidence */
+    public final boolean rankTruthExpectation;
+
+    private Task[] tasks = new Task[4];
+    private float[] ranks = new float[4];
+    private int size = 0;
+
+    /* secondary indexes, valid while indexed is true */
+    private boolean indexed = false;
+    private Task[] eternal = new Task[0];
+    private int eternalSize = 0;
+    private Task[] temporal = new Task[0];
+    private long[] occurrences = new long[0];
+    private int temporalSize = 0;
+
+    /* direct-mapped projection cache */
+    private static final int PROJECTIONS = 4;
+    private final AtomicReferenceArray<Projection> projections = new AtomicReferenceArray<>(PROJECTIONS);
+
+    private static final class Projection implements Serializable {
+        final Task task;
+        final long target, now;
+        final Sentence projected;
+
+        Projection(final Task task, final long target, final long now, final Sentence projected) {
+            this.task = task;
+            this.target = target;
+            this.now = now;
+            this.projected = projected;
+        }
+    }
+
+    public BeliefTable(final boolean rankTruthExpectation) {
+        this.rankTruthExpectation = rankTruthExpectation;
+    }
+
+    @Override
+    public Task get(final int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException(Integer.toString(i));
+        }
+        return tasks[i];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Ranked insert, same policy as Concept.addToTable: the new task goes before
+     * the first task of lower or equal rank, unless that one is equivalent; when
+     * the table grows beyond capacity its last task is removed
+     *
+     * @return the removed task, or null
+     */
+    public Task insert(final Task newTask, final int capacity) {
+        final Sentence newSentence = newTask.sentence;
+        final float rank = rankBelief(newSentence, rankTruthExpectation);
+
+        //first index whose rank is not above the new one
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (ranks[mid] <= rank) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+
+        if (lo < size) {
+            final Sentence judgment2 = tasks[lo].sentence;
+            if (newSentence.truth.equals(judgment2.truth) && newSentence.stamp.equals(judgment2.stamp, false, true, true)) {
+                return null;
+            }
+            insert(lo, newTask, rank);
+        }
+
+        if (size == capacity) {
+            // nothing
+        } else if (size > capacity) {
+            return remove(size - 1);
+        } else if (lo == size) {
+            insert(size, newTask, rank);
+        }
+        return null;
+    }
+
+    private void insert(final int i, final Task t, final float rank) {
+        if (size == tasks.length) {
+            tasks = Arrays.copyOf(tasks, size * 2);
+            ranks = Arrays.copyOf(ranks, size * 2);
+        }
+        System.arraycopy(tasks, i, tasks, i + 1, size - i);
+        System.arraycopy(ranks, i, ranks, i + 1, size - i);
+        tasks[i] = t;
+        ranks[i] = rank;
+        size++;
+        changed();
+    }
+
+    /**
+     * inserts at a given position, which has to keep the ranking; prefer insert(Task, int)
+     *
+     * @throws IllegalArgumentException if the task is ranked above the one before or below the one after it
+     */
+    @Override
+    public void add(final int i, final Task t) {
+        if ((i < 0) || (i > size)) {
+            throw new IndexOutOfBoundsException(Integer.toString(i));
+        }
+        final float rank = rank(t);
+        checkRank(t, rank, i - 1, i);
+        insert(i, t, rank);
+    }
+
+    @Override
+    public Task remove(final int i) {
+        final Task t = get(i);
+        System.arraycopy(tasks, i + 1, tasks, i, size - i - 1);
+        System.arraycopy(ranks, i + 1, ranks, i, size - i - 1);
+        tasks[--size] = null;
+        changed();
+        return t;
+    }
+
+    /**
+     * replaces the task at a position, the new one has to keep the ranking
+     *
+     * @throws IllegalArgumentException if the task is ranked above the one before or below the one after it
+     */
+    @Override
+    public Task set(final int i, final Task t) {
+        final Task previous = get(i);
+        final float rank = rank(t);
+        checkRank(t, rank, i - 1, i + 1);
+        tasks[i] = t;
+        ranks[i] = rank;
+        changed();
+        return previous;
+    }
+
+    private void checkRank(final Task t, final float rank, final int before, final int after) {
+        if (((before >= 0) && (ranks[before] < rank)) || ((after < size) && (ranks[after] > rank))) {
+            throw new IllegalArgumentException(t + " is out of rank order, use insert");
+        }
+    }
+
+    /** @return the rank of the i-th task */
+    public float getRank(final int i) {
+        if (i >= size) {
+            throw new IndexOutOfBoundsException(Integer.toString(i));
+        }
+        return ranks[i];
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(tasks, 0, size, null);
+        size = 0;
+        changed();
+    }
+
+    private void changed() {
+        modCount++;
+        indexed = false;
+        for (int i = 0; i < PROJECTIONS; i++) {
+            projections.set(i, null);
+        }
+    }
+
+    private void index() {
+        if (indexed) {
+            return;
+        }
+        if (eternal.length < size) {
+            eternal = new Task[tasks.length];
+            temporal = new Task[tasks.length];
+            occurrences = new long[tasks.length];
+        } else {
+            Arrays.fill(eternal, null);
+            Arrays.fill(temporal, null);
+        }
+        eternalSize = temporalSize = 0;
+        for (int i = 0; i < size; i++) {
+            final Task t = tasks[i];
+            if (t.sentence.isEternal()) {
+                eternal[eternalSize++] = t;
+            } else {
+                //insertion by occurrence time, keeping rank order among equal times
+                final long time = t.sentence.getOccurenceTime();
+                int j = temporalSize++;
+                while ((j > 0) && (occurrences[j - 1] > time)) {
+                    temporal[j] = temporal[j - 1];
+                    occurrences[j] = occurrences[j - 1];
+                    j--;
+                }
+                temporal[j] = t;
+                occurrences[j] = time;
+            }
+        }
+        indexed = true;
+    }
+
+    /** @return number of eternal tasks */
+    public int eternalSize() {
+        index();
+        return eternalSize;
+    }
+
+    /** @return the i-th best eternal task */
+    public Task eternal(final int i) {
+        index();
+        if (i >= eternalSize) {
+            throw new IndexOutOfBoundsException(Integer.toString(i));
+        }
+        return eternal[i];
+    }
+
+    /** @return the best eternal task, or null if there is none */
+    public Task topEternal() {
+        return (eternalSize() > 0) ? eternal[0] : null;
+    }
+
+    /** @return number of temporal tasks */
+    public int temporalSize() {
+        index();
+        return temporalSize;
+    }
+
+    /**
+     * @return the temporal task occurring closest to a time, the best ranked
+     * one of these if several are equally close; null if there is none
+     */
+    public Task nearest(final long time) {
+        index();
+        if (temporalSize == 0) {
+            return null;
+        }
+        //first occurrence not before time
+        int lo = 0, hi = temporalSize;
+        while (lo < hi) {
+            final int mid = (lo + hi) >>> 1;
+            if (occurrences[mid] < time) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        long best = Long.MAX_VALUE;
+        if (lo < temporalSize) {
+            best = occurrences[lo] - time;
+        }
+        if ((lo > 0) && (time - occurrences[lo - 1] <= best)) {
+            //the first of the equally distant earlier ones is the best ranked
+            final long earlier = occurrences[lo - 1];
+            int j = lo - 1;
+            while ((j > 0) && (occurrences[j - 1] == earlier)) {
+                j--;
+            }
+            if ((time - earlier < best) || (rank(temporal[j]) >= rank(temporal[lo]))) {
+                return temporal[j];
+            }
+        }
+        return temporal[lo];
+    }
+
+    private float rank(final Task t) {
+        return rankBelief(t.sentence, rankTruthExpectation);
+    }
+
+    /**
+     * Projection of a task of this table, as Sentence.projection, reused while
+     * the target and current times stay the same
+     */
+    public Sentence projection(final Task t, final long targetTime, final long currentTime) {
+        final int slot = (int) (targetTime ^ (targetTime >>> 32) ^ t.hashCode()) & (PROJECTIONS - 1);
+        final Projection e = projections.get(slot);
+        if ((e != null) && (e.task == t) && (e.target == targetTime) && (e.now == currentTime)) {
+            return e.projected;
+        }
+        final Sentence p = t.sentence.projection(targetTime, currentTime);
+        projections.set(slot, new Projection(t, targetTime, currentTime, p));
+        return p;
+    }
+}
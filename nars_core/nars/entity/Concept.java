@@ -26,11 +26,6 @@ import java.util.Collections;
 import java.util.List;
 
 import nars.control.ConceptProcessing;
-import nars.util.Events.BeliefSelect;
-import nars.util.Events.TaskLinkAdd;
-import nars.util.Events.TaskLinkRemove;
-import nars.util.Events.TermLinkAdd;
-import nars.util.Events.TermLinkRemove;
 import nars.storage.Memory;
 import nars.io.NARConsole;
 import nars.config.Parameters;
@@ -42,7 +37,6 @@ import nars.io.Symbols.NativeOperator;
 import nars.language.CompoundTerm;
 import nars.language.Term;
 import nars.storage.Bag;
-import nars.storage.LevelBag;
 import static nars.inference.UtilityFunctions.or;
 
 public class Concept extends Item<Term> implements Serializable {
@@ -88,16 +82,16 @@ public class Concept extends Item<Term> implements Serializable {
     public final List<Task> quests;
 
     /**
-     * Judgments directly made about the term Use ArrayList because of access
-     * and insertion in the middle
+     * Judgments directly made about the term, ranked by confidence
      */
-    public final ArrayList<Task> beliefs;
-    public final ArrayList<Task> executable_preconditions;
+    public final BeliefTable beliefs;
+    /* Enactable preconditions of the term, ranked by truth expectation */
+    public final BeliefTable executable_preconditions;
 
     /**
      * Desire values on the term, similar to the above one
      */
-    public final ArrayList<Task> desires;
+    public final BeliefTable desires;
 
     /**
      * Reference to the memory to which the Concept belongs
@@ -125,13 +119,13 @@ public class Concept extends Item<Term> implements Serializable {
         this.memory = memory;
 
         this.questions = new ArrayList<>();
-        this.beliefs = new ArrayList<>();
-        this.executable_preconditions = new ArrayList<>();
+        this.beliefs = new BeliefTable(false);
+        this.executable_preconditions = new BeliefTable(true);
         this.quests = new ArrayList<>();
-        this.desires = new ArrayList<>();
+        this.desires = new BeliefTable(false);
 
-        this.taskLinks = new LevelBag<>(Parameters.TASK_LINK_BAG_LEVELS, Parameters.TASK_LINK_BAG_SIZE);
-        this.termLinks = new LevelBag<>(Parameters.TERM_LINK_BAG_LEVELS, Parameters.TERM_LINK_BAG_SIZE);
+        this.taskLinks = Parameters.TASK_LINK_BAG_TYPE.newBag(Parameters.TASK_LINK_BAG_LEVELS, Parameters.TASK_LINK_BAG_SIZE);
+        this.termLinks = Parameters.TERM_LINK_BAG_TYPE.newBag(Parameters.TERM_LINK_BAG_LEVELS, Parameters.TERM_LINK_BAG_SIZE);
                 
         if (tm instanceof CompoundTerm) {
             this.termLinkTemplates = ((CompoundTerm) tm).prepareComponentLinks();
@@ -157,7 +151,7 @@ public class Concept extends Item<Term> implements Serializable {
 
 
 
-    public void addToTable(final Task task, final boolean rankTruthExpectation, final ArrayList<Task> table, final int max, final Class eventAdd, final Class eventRemove, final Object... extraEventArguments) {
+    public void addToTable(final Task task, final boolean rankTruthExpectation, final List<Task> table, final int max, final Class eventAdd, final Class eventRemove, final Object... extraEventArguments) {
         
         int preSize = table.size();
         Task removedT;
@@ -185,16 +179,48 @@ public class Concept extends Item<Term> implements Serializable {
      * @param content The content of the task
      */
     public void linkToTask(final Task task, DerivationContext cont) {
+        if (linkComponentsToTask(task, cont)) {
+            buildTermLinks(task.budget);  // recursively insert TermLink
+        }
+    }
+
+    /**
+     * Link to a batch of tasks of this concept, as linkToTask does for each
+     * of them, but build the TermLinks only once, with the budget of the
+     * strongest task.
+     * <p>
+     * called from BulkLoader only
+     *
+     * @param tasks The tasks to be linked
+     * @param cont The derivation context
+     */
+    public void linkToTasks(final List<Task> tasks, DerivationContext cont) {
+        Task strongest = null;
+        for (final Task task : tasks) {
+            if (!task.aboveThreshold()) {
+                continue;
+            }
+            if (linkComponentsToTask(task, cont) && ((strongest == null) || (task.getPriority() > strongest.getPriority()))) {
+                strongest = task;
+            }
+        }
+        if (strongest != null) {
+            buildTermLinks(strongest.budget);
+        }
+    }
+
+    /** inserts the TaskLinks of linkToTask, returns whether the TermLinks should be built */
+    private boolean linkComponentsToTask(final Task task, DerivationContext cont) {
         final BudgetValue taskBudget = task.budget;
 
         insertTaskLink(new TaskLink(task, null, taskBudget,
                 Parameters.TERM_LINK_RECORD_LENGTH), cont);  // link type: SELF
 
         if (!(term instanceof CompoundTerm)) {
-            return;
+            return false;
         }
         if (termLinkTemplates.isEmpty()) {
-            return;
+            return false;
         }
                 
         final BudgetValue subBudget = distributeAmongLinks(taskBudget, termLinkTemplates.size());
@@ -215,9 +241,9 @@ public class Concept extends Item<Term> implements Serializable {
                     );
                 }
             }
-
-            buildTermLinks(taskBudget);  // recursively insert TermLink
+            return true;
         }
+        return false;
     }
 
     /**
@@ -230,6 +256,9 @@ public class Concept extends Item<Term> implements Serializable {
      * @return whether table was modified
      */
     public static Task addToTable(final Task newTask, final List<Task> table, final int capacity, boolean rankTruthExpectation) {
+        if ((table instanceof BeliefTable) && (((BeliefTable) table).rankTruthExpectation == rankTruthExpectation)) {
+            return ((BeliefTable) table).insert(newTask, capacity);
+        }
         Sentence newSentence = newTask.sentence;
         final float rank1 = rankBelief(newSentence, rankTruthExpectation);    // for the new isBelief
         float rank2;        
@@ -269,6 +298,9 @@ public class Concept extends Item<Term> implements Serializable {
      * @return The best candidate selected
      */
     public Task selectCandidate(final Task query, final List<Task> list) {
+        if ((list instanceof BeliefTable) && !((BeliefTable) list).rankTruthExpectation) {
+            return selectCandidate(query, (BeliefTable) list);
+        }
  //        if (list == null) {
         //            return null;
         //        }
@@ -290,6 +322,45 @@ public class Concept extends Item<Term> implements Serializable {
         return candidate;
     }
 
+    /**
+     * selectCandidate on a table ranked by confidence, which bounds the
+     * quality of a task as a solution.  The best eternal task and the task
+     * occurring nearest to the query give a first bound, below which the
+     * ranked scan stops, as it does at the first task ranked no higher than
+     * the best candidate so far; the candidate is the one of the full scan.
+     */
+    private Task selectCandidate(final Task query, final BeliefTable table) {
+        synchronized (table) {
+            float bound = 0;
+            final Task top = table.topEternal();
+            if (top != null) {
+                bound = LocalRules.solutionQuality(true, query, top.sentence, memory);
+            }
+            if (!query.sentence.isEternal()) {
+                final Task nearest = table.nearest(query.sentence.getOccurenceTime());
+                if (nearest != null) {
+                    bound = Math.max(bound, LocalRules.solutionQuality(true, query, nearest.sentence, memory));
+                }
+            }
+
+            float currentBest = 0;
+            Task candidate = null;
+            for (int i = 0; i < table.size(); i++) {
+                final float rank = table.getRank(i);
+                if ((rank < bound) || (rank <= currentBest)) {
+                    break;
+                }
+                final Task judgT = table.get(i);
+                final float beliefQuality = LocalRules.solutionQuality(true, query, judgT.sentence, memory);
+                if (beliefQuality > currentBest) {
+                    currentBest = beliefQuality;
+                    candidate = judgT;
+                }
+            }
+            return candidate;
+        }
+    }
+
     public float negConfirmationPriority = 0.0f;
     public Task negConfirmation = null;
     public long negConfirm_abort_mintime = 0;
@@ -330,7 +401,7 @@ public class Concept extends Item<Term> implements Serializable {
                 }
                 if(nSameContent > Parameters.TASKLINK_PER_CONTENT) { //ok we reached the maximum so lets delete the lowest
                     taskLinks.take(lowest);
-                    memory.emit(TaskLinkRemove.class, lowest, this);
+                    memory.taskLinkRemove.emit(lowest, this);
                     break;
                 }
             }
@@ -342,16 +413,16 @@ public class Concept extends Item<Term> implements Serializable {
         
         if (removed!=null) {
             if (removed == taskLink) {
-                memory.emit(TaskLinkRemove.class, taskLink, this);
+                memory.taskLinkRemove.emit(taskLink, this);
                 return false;
             }
             else {
-                memory.emit(TaskLinkRemove.class, removed, this);
+                memory.taskLinkRemove.emit(removed, this);
             }
             
             removed.end();
         }
-        memory.emit(TaskLinkAdd.class, taskLink, this);
+        memory.taskLinkAdd.emit(taskLink, this);
         return true;
     }
 
@@ -407,14 +478,14 @@ public class Concept extends Item<Term> implements Serializable {
         TermLink removed = termLinks.putIn(termLink);
         if (removed!=null) {
             if (removed == termLink) {
-                memory.emit(TermLinkRemove.class, termLink, this);
+                memory.termLinkRemove.emit(termLink, this);
                 return false;
             }
             else {
-                memory.emit(TermLinkRemove.class, removed, this);
+                memory.termLinkRemove.emit(removed, this);
             }
         }
-        memory.emit(TermLinkAdd.class, termLink, this);
+        memory.termLinkAdd.emit(termLink, this);
         return true;        
     }
 
@@ -506,10 +577,10 @@ public class Concept extends Item<Term> implements Serializable {
 
         for (final Task beliefT : beliefs) {  
             Sentence belief = beliefT.sentence;
-            nal.emit(BeliefSelect.class, belief);
+            nal.memory.beliefSelect.emit(belief);
             nal.setTheNewStamp(taskStamp, belief.stamp, currentTime);
             
-            Sentence projectedBelief = belief.projection(taskStamp.getOccurrenceTime(), memory.time());
+            Sentence projectedBelief = beliefs.projection(beliefT, taskStamp.getOccurrenceTime(), memory.time());
             /*if (projectedBelief.getOccurenceTime() != belief.getOccurenceTime()) {
                nal.singlePremiseTask(projectedBelief, task.budget);
             }*/
@@ -22,7 +22,7 @@ package nars.entity;
 
 import java.io.Serializable;
 import java.util.Comparator;
-import nars.storage.Memory;
+import java.util.Random;
 
 /**
  * An item is an object that can be put into a Bag,
@@ -254,12 +254,12 @@ public abstract class Item<K> implements Serializable {
     }
     
     /** randomly selects an item from a collection, weighted by priority */
-    public static <E extends Item> E selectRandomByPriority(Iterable<E> c) {
+    public static <E extends Item> E selectRandomByPriority(Iterable<E> c, Random random) {
         float totalPriority = getPrioritySum(c);
         
         if (totalPriority == 0) return null;
         
-        float r = Memory.randomNumber.nextFloat() * totalPriority;
+        float r = random.nextFloat() * totalPriority;
                 
         E s = null;
         for (E i : c) {
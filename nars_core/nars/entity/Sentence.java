@@ -25,7 +25,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import nars.NAR;
 import nars.config.Parameters;
 import nars.inference.TemporalRules;
@@ -80,7 +79,7 @@ public class Sentence<T extends Term> implements Cloneable, Serializable {
      */
     private boolean revisible;
 
-    /** caches the 'getKey()' result */
+    /** caches the 'getKey()' result, for display only */
     private CharSequence key;
 
     private final int hash;
@@ -239,10 +238,24 @@ public class Sentence<T extends Term> implements Cloneable, Serializable {
             this.term = _content;
         }
     
-        if (isNotTermlinkNormalizer())
-            this.hash = Objects.hash(term, punctuation, truth, stamp.getOccurrenceTime());
-        else 
-            this.hash = Objects.hash(term, punctuation, truth );
+        this.hash = makeHash();
+    }
+
+    /**
+     * The hash of the identity of the sentence, as used by bags: term,
+     * punctuation, truth and occurrence time.  Same value as
+     * Objects.hash(term, punctuation, truth[, occurrence time]), without
+     * boxing them into an array.
+     */
+    private int makeHash() {
+        int h = 31 + ((term != null) ? term.hashCode() : 0);
+        h = 31 * h + punctuation;
+        h = 31 * h + ((truth != null) ? truth.hashCode() : 0);
+        if (isNotTermlinkNormalizer()) {
+            final long occurrence = stamp.getOccurrenceTime();
+            h = 31 * h + (int) (occurrence ^ (occurrence >>> 32));
+        }
+        return h;
     }
 
     protected boolean isNotTermlinkNormalizer() {
@@ -427,7 +440,9 @@ public class Sentence<T extends Term> implements Cloneable, Serializable {
 
  
     /**
-     * Get a String representation of the sentence for key of Task and TaskLink
+     * Get a String representation of the sentence, built on first use for
+     * display; bags use the Sentence itself as the key of a Task, by
+     * equals() and the precomputed hash
      *
      * @return The String
      */
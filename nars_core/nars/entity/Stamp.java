@@ -24,7 +24,6 @@ import com.google.common.collect.Iterators;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.LinkedHashSet;
 import nars.storage.Memory;
 import nars.config.Parameters;
@@ -41,18 +40,20 @@ import static nars.inference.TemporalRules.order;
 
 public class Stamp implements Cloneable, Serializable {
 
-    /*serial numbers. not to be modified after Stamp constructor has initialized it*/
+    /*serial numbers, sorted and without duplicates. not to be modified after Stamp constructor has initialized it*/
     public long[] evidentialBase;
     /* evidentialBase baseLength*/
     public int baseLength;
+    /* one bit per serial of the evidentialBase, to rule out overlaps without looking at the bases*/
+    private long evidentialBloom;
+    /* whether some evidence was used more than once, which the deduplicated evidentialBase no longer shows*/
+    private boolean cyclic;
     /*creation time of the stamp*/
     private long creationTime;
     /* estimated occurrence time of the event*/
     private long occurrenceTime;
     /*default for atemporal events means "always" in Judgment/Question, but "current" in Goal/Quest*/
     public static final long ETERNAL = Integer.MIN_VALUE;
-    /** caches evidentialBase as a set for comparisons and hashcode, stores the unique Long's in-order for efficiency*/    
-    private long[] evidentialSet = null;
     /*Tense of the item*/
     private Tense tense;
     /*True when its a neg confirmation task that was already checked:*/
@@ -68,7 +69,7 @@ public class Stamp implements Cloneable, Serializable {
      * TODO use thread-safety for this
      */
     
-    /** cache of hashcode of evidential base */
+    /** cache of hashcode of evidential base, 0 until computed */
     private int evidentialHash;
 
     
@@ -96,6 +97,7 @@ public class Stamp implements Cloneable, Serializable {
         this.baseLength = 1;
         this.evidentialBase = new long[baseLength];
         this.evidentialBase[0] = serial;
+        this.evidentialBloom = bloom(serial);
         this.tense = tense;
         this.creationTime = -1;
     }
@@ -110,6 +112,20 @@ public class Stamp implements Cloneable, Serializable {
         setCreationTime(time, duration);        
     }
 
+    /**
+     * Restore a stored stamp
+     *
+     * @param evidentialBase The evidential base, in any order
+     * @param cyclic Whether the stored stamp had used some evidence more than once
+     */
+    public Stamp(final long[] evidentialBase, final boolean cyclic, final long creationTime, final long occurrenceTime) {
+        setEvidentialBase(evidentialBase);
+        this.cyclic |= cyclic;
+        this.creationTime = creationTime;
+        this.occurrenceTime = occurrenceTime;
+        this.tense = (occurrenceTime == ETERNAL) ? Tense.Eternal : Tense.Present;
+    }
+
     /**
      * Generate a new stamp identical with a given one
      *
@@ -135,6 +151,8 @@ public class Stamp implements Cloneable, Serializable {
     public Stamp(final Stamp old, final long creationTime, final Stamp useEvidentialBase) {        
         this.evidentialBase = useEvidentialBase.evidentialBase;
         this.baseLength = useEvidentialBase.baseLength;
+        this.evidentialBloom = useEvidentialBase.evidentialBloom;
+        this.cyclic = useEvidentialBase.cyclic;
         this.creationTime = creationTime;
 
         this.occurrenceTime = old.getOccurrenceTime();
@@ -148,30 +166,52 @@ public class Stamp implements Cloneable, Serializable {
      * @param second The second Stamp
      */
     public Stamp(final Stamp first, final Stamp second, final long time) {
-        //TODO use iterators instead of repeated first and second .get's?
-        
-        int i1, i2, j;
-        i1 = i2 = j = 0;
-        this.baseLength = Math.min(first.baseLength + second.baseLength, Parameters.MAXIMUM_EVIDENTAL_BASE_LENGTH);
-        this.evidentialBase = new long[baseLength];
-
         final long[] firstBase = first.evidentialBase;
         final long[] secondBase = second.evidentialBase;     
-        int firstLength = firstBase.length;
-        int secondLength = secondBase.length;
+        final int firstLength = firstBase.length;
+        final int secondLength = secondBase.length;
 
-        creationTime = time;
-        occurrenceTime = first.getOccurrenceTime();    // use the occurrence of task
-        
-        //https://code.google.com/p/open-nars/source/browse/trunk/nars_core_java/nars/entity/Stamp.java#143        
+        //1. count the union of the two sorted bases, noting shared serials
+        int union = 0;
+        boolean overlap = false;
+        int i1 = 0, i2 = 0;
+        while (i1 < firstLength && i2 < secondLength) {
+            final long a = firstBase[i1], b = secondBase[i2];
+            if (a <= b) i1++;
+            if (b <= a) i2++;
+            if (a == b) overlap = true;
+            union++;
+        }
+        union += (firstLength - i1) + (secondLength - i2);
+
+        //2. merge, keeping the most recent serials if the union is too long
+        this.baseLength = Math.min(union, Parameters.MAXIMUM_EVIDENTAL_BASE_LENGTH);
+        this.evidentialBase = new long[baseLength];
+        int skip = union - baseLength;
+        long bloom = 0;
+        int j = 0;
+        i1 = i2 = 0;
         while (j < baseLength) {
-            if(i2 < secondLength) {
-                evidentialBase[j++] = secondBase[i2++];
+            final long v;
+            if (i2 >= secondLength || (i1 < firstLength && firstBase[i1] < secondBase[i2])) {
+                v = firstBase[i1++];
+            } else {
+                v = secondBase[i2];
+                if (i1 < firstLength && firstBase[i1] == v) i1++;
+                i2++;
             }
-            if(i1 < firstLength) {
-                evidentialBase[j++] = firstBase[i1++];
+            if (skip > 0) {
+                skip--;
+                continue;
             }
+            evidentialBase[j++] = v;
+            bloom |= bloom(v);
         }
+        this.evidentialBloom = bloom;
+        this.cyclic = overlap || first.cyclic || second.cyclic;
+
+        creationTime = time;
+        occurrenceTime = first.getOccurrenceTime();    // use the occurrence of task
     }
 
     public Stamp(final Memory memory, final Tense tense) {
@@ -183,34 +223,61 @@ public class Stamp implements Cloneable, Serializable {
         this(memory, Tense.Present);
     }
     
-    /** Detects evidental base overlaps **/
-    public static boolean baseOverlap(long[] base1, long[] base2) {
-        HashSet<Long> task_base = new HashSet<>(base1.length + base2.length);
-        for(int i=0; i < base1.length; i++) {
-            if(task_base.contains(base1[i])) { //can have an overlap in itself already
-                return true;
-            }
-            task_base.add(base1[i]);
+    /** bloom bit of a serial */
+    private static long bloom(final long serial) {
+        return 1L << ((serial * 0x9E3779B97F4A7C15L) >>> 58);
+    }
+    
+    /** Detects evidental base overlaps between the premises of a derivation,
+     *  including evidence which either of them already uses twice */
+    public static boolean baseOverlap(final Stamp a, final Stamp b) {
+        if (a.cyclic || b.cyclic)
+            return true;
+        if ((a.evidentialBloom & b.evidentialBloom) == 0)
+            return false;
+        return sortedOverlap(a.evidentialBase, b.evidentialBase);
+    }
+    
+    /** Detects evidental base overlaps of bases in any order, including repeats within one of them **/
+    public static boolean baseOverlap(final long[] base1, final long[] base2) {
+        final long[] set1 = toSetArray(base1);
+        final long[] set2 = toSetArray(base2);
+        if ((set1.length < base1.length) || (set2.length < base2.length)) { //can have an overlap in itself already
+            return true;
         }
-        for(int i=0; i < base2.length; i++) {
-            if(task_base.contains(base2[i])) {
-                return true;
-            }
-            task_base.add(base2[i]); //also add to detect collision with itself
+        return sortedOverlap(set1, set2);
+    }
+    
+    /** merge-style test for a common element of two sorted arrays, without allocation */
+    static boolean sortedOverlap(final long[] a, final long[] b) {
+        int i = 0, j = 0;
+        while (i < a.length && j < b.length) {
+            final long x = a[i], y = b[j];
+            if (x == y) return true;
+            if (x < y) i++;
+            else j++;
         }
         return false;
-     }
+    }
     
+    /** whether some evidence was used more than once in deriving this stamp */
     public boolean evidenceIsCyclic() {
-        HashSet<Long> task_base = new HashSet<Long>(this.evidentialBase.length);
-        boolean cyclic = false;
-        for(int i=0; i < this.evidentialBase.length; i++) {
-            if(task_base.contains(Long.valueOf(this.evidentialBase[i]))) { //can have an overlap in itself already
-                return true;
-            }
-            task_base.add(this.evidentialBase[i]);
+        return cyclic;
+    }
+
+    /** replaces the evidential base, which may be in any order and contain repeats */
+    public void setEvidentialBase(final long[] base) {
+        final long[] set = toSetArray(base);
+        this.evidentialBase = set;
+        this.baseLength = set.length;
+        this.cyclic = set.length < base.length;
+        long bloom = 0;
+        for (final long v : set) {
+            bloom |= bloom(v);
         }
-        return false;
+        this.evidentialBloom = bloom;
+        this.evidentialHash = 0;
+        this.name = null;
     }
 
     public boolean isEternal() {
@@ -294,21 +361,6 @@ public class Stamp implements Cloneable, Serializable {
         return sorted;
     }
 
-    /**
-     * Convert the evidentialBase into a set
-     *
-     * @return The TreeSet representation of the evidential base
-     */
-    private long[] toSet() {        
-        if (evidentialSet == null) {        
-            evidentialSet = toSetArray(evidentialBase);
-            evidentialHash = Arrays.hashCode(evidentialSet);
-        }
-        
-        return evidentialSet;
-    }
-
-    
     @Override public boolean equals(final Object that) {
         throw new RuntimeException("Use other equals() method");
     }
@@ -328,7 +380,7 @@ public class Stamp implements Cloneable, Serializable {
             if (getOccurrenceTime()!=s.getOccurrenceTime()) return false;       
         if (evidentialBase) {
             if (evidentialHash() != s.evidentialHash()) return false;
-            if (!Arrays.equals(toSet(), s.toSet())) return false;
+            if (!Arrays.equals(this.evidentialBase, s.evidentialBase)) return false;
         }
         
         return true;        
@@ -351,8 +403,8 @@ public class Stamp implements Cloneable, Serializable {
      * @return The hash code
      */
     public final int evidentialHash() {
-        if (evidentialSet==null)
-            toSet();       
+        if (evidentialHash == 0)
+            evidentialHash = Arrays.hashCode(evidentialBase);
         return evidentialHash;
     }
     
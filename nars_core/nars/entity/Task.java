@@ -75,6 +75,14 @@ public class Task<T extends Term> extends Item<Sentence<T>> implements Serializa
         this.parentBelief = parentBelief;
         this.bestSolution = solution;   
     }
+
+    /**
+     * Constructor for restoring a stored task
+     */
+    public Task(final Sentence<T> s, final BudgetValue b, final Sentence parentBelief, Sentence solution, boolean isInput) {
+        this(s, b, parentBelief, solution);
+        this.isInput = isInput;
+    }
     
     /**
      * Constructor for an activated task
@@ -21,9 +21,7 @@
 package nars.entity;
 
 import java.io.Serializable;
-import java.util.ArrayDeque;
-import java.util.Deque;
-import java.util.Iterator;
+import java.util.Arrays;
 import nars.config.Parameters;
 import nars.language.Term;
 
@@ -44,29 +42,15 @@ public class TaskLink extends Item<Task> implements TLink<Task>, Serializable {
     private final int recordLength;
     
     
-    /* Remember the TermLinks, and when they has been used recently with this TaskLink */
-    public final static class Recording implements Serializable {
-    
-        public final TermLink link;
-        long time;
-
-        public Recording(TermLink link, long time) {
-            this.link = link;
-            this.time = time;
-        }
-
-        public long getTime() {
-            return time;
-        }
-
-        
-        public void setTime(long t) {
-            this.time = t;
-        }
-        
-    }
-    
-    public final Deque<Recording> records;
+    /* Remember the TermLinks, and when they has been used recently with this TaskLink.
+     * Parallel arrays of up to recordLength-1 entries, allocated on first use; the entry
+     * used least recently (lowest recordedOrder) is replaced when they are full */
+    private TermLink[] recordedLinks;
+    private int[] recordedHashes;
+    private long[] recordedTimes;
+    private long[] recordedOrder;
+    private int recorded = 0;
+    private long recordCounter = 0;
     
 
     
@@ -87,22 +71,27 @@ public class TaskLink extends Item<Task> implements TLink<Task>, Serializable {
      * @param v The budget
      */
     public TaskLink(final Task t, final TermLink template, final BudgetValue v, int recordLength) {
-        super(v);
-        this.type =
+        this(t,
                 template == null ? 
                         TermLink.SELF : 
-                        template.type;
-        this.index =
-                
+                        template.type,
                 template == null ?
                         null : 
-                        template.index
-        ;
+                        template.index,
+                v, recordLength);
+    }
+
+    /**
+     * Constructor with explicit link type and index, for restoring a stored link
+     */
+    public TaskLink(final Task t, final short type, final short[] index, final BudgetValue v, int recordLength) {
+        super(v);
+        this.type = type;
+        this.index = index;
         
         this.targetTask = t;
         
         this.recordLength = recordLength;
-        this.records = new ArrayDeque(recordLength);
         
     }
 
@@ -160,33 +149,49 @@ public class TaskLink extends Item<Task> implements TLink<Task>, Serializable {
         if (!transformTask && bTerm.equals(targetTask.sentence.term)) {            
             return false;
         }
-        TermLink linkKey = termLink.name();
-        int next, i;
+        final TermLink linkKey = termLink.name();
+        final int hash = linkKey.hashCode();
+        
+        if (recordedLinks == null) {
+            final int capacity = Math.max(1, recordLength - 1);
+            recordedLinks = new TermLink[capacity];
+            recordedHashes = new int[capacity];
+            recordedTimes = new long[capacity];
+            recordedOrder = new long[capacity];
+        }
                 
-        //iterating the FIFO deque from oldest (first) to newest (last)
-        Iterator<Recording> ir = records.iterator();
-        while (ir.hasNext()) {
-            Recording r = ir.next();
-            if (linkKey.equals(r.link)) {
-                if (currentTime < r.getTime() + Parameters.NOVELTY_HORIZON) {
+        for (int i = 0; i < recorded; i++) {
+            if ((recordedHashes[i] == hash) && linkKey.equals(recordedLinks[i])) {
+                if (currentTime < recordedTimes[i] + Parameters.NOVELTY_HORIZON) {
                     //too recent, not novel
                     return false;
                 } else {
                     //happened long enough ago that we have forgotten it somewhat, making it seem more novel
-                    r.setTime(currentTime);
-                    ir.remove();
-                    records.addLast(r);
+                    recordedTimes[i] = currentTime;
+                    recordedOrder[i] = ++recordCounter;
                     return true;
                 }
             }
         }
         
+        //keep the records at a maximum finite size, replacing the least recently used
+        int slot;
+        if (recorded < recordedLinks.length) {
+            slot = recorded++;
+        } else {
+            slot = 0;
+            for (int i = 1; i < recorded; i++) {
+                if (recordedOrder[i] < recordedOrder[slot]) {
+                    slot = i;
+                }
+            }
+        }
         
-        //keep recordedLinks queue a maximum finite size
-        while (records.size() + 1 >= recordLength) records.removeFirst();
-        
-        // add knowledge reference to recordedLinks
-        records.addLast(new Recording(linkKey, currentTime));
+        // add knowledge reference to the records
+        recordedLinks[slot] = linkKey;
+        recordedHashes[slot] = hash;
+        recordedTimes[slot] = currentTime;
+        recordedOrder[slot] = ++recordCounter;
         
         return true;
     }
@@ -211,7 +216,10 @@ public class TaskLink extends Item<Task> implements TLink<Task>, Serializable {
 
     @Override
     public void end() {
-        records.clear();
+        if (recordedLinks != null) {
+            Arrays.fill(recordedLinks, null);
+        }
+        recorded = 0;
     }
     
     public Term getTerm() {
@@ -121,6 +121,17 @@ public class TermLink extends Item<TermLink> implements TLink<Term>, Serializabl
         hash = init();
     }
 
+    /**
+     * Constructor with explicit link type and index, for restoring a stored link
+     */
+    public TermLink(final Term t, final short type, final short[] index, final BudgetValue v) {
+        super(v);
+        this.target = t;
+        this.type = type;
+        this.index = index;
+        hash = init();
+    }
+
     @Override public TermLink name() { return this; }
     
 //    @Override
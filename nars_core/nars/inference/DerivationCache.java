@@ -0,0 +1,103 @@
+package nars.inference;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import nars.entity.Sentence;
+import nars.inference.RuleTables.Rule;
+
+/**
+ * Recently applied (task, belief, rule) premises, so RuleTables.reason can
+ * skip a rule it applied to an equal pair of sentences shortly before: its
+ * conclusions would be the same tasks again, to be merged or rejected later.
+ * <p>
+ * A fixed number of slots, direct-mapped by the hash of the key; a new entry
+ * replaces whatever occupied its slot.  Entries older than the horizon do not
+ * count.  Lookups and updates are lock-free, for parallel inference.
+ */
+public class DerivationCache {
+
+    private static final class Entry {
+        final Sentence task, belief;
+        final Rule rule;
+        final long time;
+        final int derivations;
+
+        Entry(final Sentence task, final Sentence belief, final Rule rule, final long time, final int derivations) {
+            this.task = task;
+            this.belief = belief;
+            this.rule = rule;
+            this.time = time;
+            this.derivations = derivations;
+        }
+    }
+
+    public final int capacity;
+    /** cycles during which an entry is valid */
+    public final long horizon;
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+
+    /** rule applications skipped, and performed */
+    public final LongAdder hits = new LongAdder(), misses = new LongAdder();
+    /** derivations that the skipped applications produced the previous time */
+    public final LongAdder skippedDerivations = new LongAdder();
+
+    /** @param capacity number of entries, rounded up to a power of two */
+    public DerivationCache(final int capacity, final long horizon) {
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.horizon = horizon;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    private int slot(final Sentence task, final Sentence belief, final Rule rule) {
+        int h = task.hashCode() * 31 + belief.hashCode();
+        h = h * 31 + System.identityHashCode(rule);
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * @return whether the rule was applied to equal premises within the
+     * horizon, counting a hit or a miss
+     */
+    public boolean contains(final Sentence task, final Sentence belief, final Rule rule, final long now) {
+        final Entry e = slots.get(slot(task, belief, rule));
+        if ((e != null) && (e.rule == rule) && (now - e.time < horizon) && (now >= e.time)
+                && ((e.task == task) || e.task.equals(task))
+                && ((e.belief == belief) || e.belief.equals(belief))) {
+            hits.increment();
+            skippedDerivations.add(e.derivations);
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    /** records that a rule was applied, and how many tasks it derived */
+    public void put(final Sentence task, final Sentence belief, final Rule rule, final long now, final int derivations) {
+        slots.set(slot(task, belief, rule), new Entry(task, belief, rule, now, derivations));
+    }
+
+    /** @return fraction of the lookups which were hits */
+    public double hitRate() {
+        final long h = hits.sum();
+        final long total = h + misses.sum();
+        return (total == 0) ? 0 : ((double) h) / total;
+    }
+
+    public void clear() {
+        for (int i = 0; i <= mask; i++) {
+            slots.set(i, null);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DerivationCache[" + capacity + " slots, hit rate " + hitRate() + ", " + skippedDerivations.sum() + " derivations skipped]";
+    }
+}
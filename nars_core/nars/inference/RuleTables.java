@@ -20,9 +20,13 @@
  */
 package nars.inference;
 
-import nars.util.Events;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 import nars.storage.Memory;
 import nars.config.Parameters;
+import nars.config.RuntimeParameters;
 import nars.control.DerivationContext;
 import nars.entity.BudgetValue;
 import nars.entity.Concept;
@@ -53,11 +57,15 @@ import static nars.language.Terms.equalSubTermsInRespectToImageAndProduct;
 import nars.language.Variable;
 import nars.language.Variables;
 import nars.operator.Operation;
+import nars.util.Metrics;
 
 /**
  * Table of inference rules, indexed by the TermLinks for the task and the
  * belief. Used in indirective processing of a task, to dispatch inference cases
  * to the relevant inference rules.
+ * <p>
+ * The rules for each pair of TaskLink and TermLink types are listed once, in
+ * DISPATCH; each counts how often it was applied and can be disabled.
  */
 public class RuleTables {
     
@@ -93,7 +101,7 @@ public class RuleTables {
           /*Sentence belief_event = beliefConcept.getBeliefForTemporalInference(task);
             if(belief_event != null) {
                 boolean found_overlap = false;
-                if(Stamp.baseOverlap(task.sentence.stamp.evidentialBase, belief_event.stamp.evidentialBase)) {
+                if(Stamp.baseOverlap(task.sentence.stamp, belief_event.stamp)) {
                     found_overlap = true;
                 }
                 if(!found_overlap) { //temporal rules are inductive so no chance to succeed if there is an overlap
@@ -108,7 +116,7 @@ public class RuleTables {
             }*/
             
             //too restrictive, its checked for non-deductive inference rules in derivedTask (also for single prem)
-            if(Stamp.baseOverlap(task.sentence.stamp.evidentialBase, belief.stamp.evidentialBase)) {
+            if(Stamp.baseOverlap(task.sentence.stamp, belief.stamp)) {
                 nal.evidentalOverlap = true;
                 if(!task.sentence.isEternal() || !belief.isEternal()) {
                     return; //only allow for eternal reasoning for now to prevent derived event floods
@@ -117,7 +125,7 @@ public class RuleTables {
             }
             //comment out for recursive examples, this is for the future, it generates a lot of potentially useless tasks
             
-            nal.emit(Events.BeliefReason.class, belief, beliefTerm, taskTerm, nal);
+            nal.memory.beliefReason.emit(belief, beliefTerm, taskTerm, nal);
             
             if (LocalRules.match(task, belief, nal)) { //new tasks resulted from the match, so return
                 return;
@@ -133,133 +141,217 @@ public class RuleTables {
         }*/
         
         final short tIndex = tLink.getIndex(0);
-        short bIndex = bLink.getIndex(0);
-        switch (tLink.type) {          // dispatch first by TaskLink type
-            case TermLink.SELF:
-                switch (bLink.type) {
-                    case TermLink.COMPONENT:
-                        compoundAndSelf((CompoundTerm) taskTerm, beliefTerm, true, bIndex,  nal);
-                        break;
-                    case TermLink.COMPOUND:
-                        compoundAndSelf((CompoundTerm) beliefTerm, taskTerm, false, bIndex, nal);
-                        break;
-                    case TermLink.COMPONENT_STATEMENT:
-                        if (belief != null) {
-                            if (taskTerm instanceof Statement) {
-                                SyllogisticRules.detachment(taskSentence, belief, bIndex, nal);
-                            }
-                        } //else {
-                        try {
-                            goalFromQuestion(task, taskTerm, nal); 
-                        }catch(Exception ex) {
-                            if(Parameters.DEBUG) {
-                                System.out.print("Error in goalFromQuestion");
-                            }
-                        } //todo fix
-                        //}
-                        break;
-                    case TermLink.COMPOUND_STATEMENT:
-                        if (belief != null) {
-                            SyllogisticRules.detachment(belief, taskSentence, bIndex, nal);
-                        }
-                        break;
-                    case TermLink.COMPONENT_CONDITION:
-                        if ((belief != null) && (taskTerm instanceof Implication)) {
-                            bIndex = bLink.getIndex(1);
-                            SyllogisticRules.conditionalDedInd(task.sentence,(Implication) taskTerm, bIndex, beliefTerm, tIndex, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND_CONDITION:
-                        if ((belief != null) && (taskTerm instanceof Implication) && (beliefTerm instanceof Implication)) {
-                            bIndex = bLink.getIndex(1);
-                            SyllogisticRules.conditionalDedInd(belief,(Implication) beliefTerm, bIndex, taskTerm, tIndex, nal);
-                        }
-                        break;
+        final short bIndex = bLink.getIndex(0);
+        final Rule[] rules = ((tLink.type < LINK_TYPES) && (bLink.type < LINK_TYPES)) ? DISPATCH[tLink.type * LINK_TYPES + bLink.type] : null;
+        if (rules == null) {
+            return;
+        }
+        final DerivationCache cache = (belief != null) ? memory.derivationCache : null;
+        final long now = memory.time();
+        for (final Rule r : rules) {
+            if (r.enabled && ((belief != null) || !r.needsBelief)) {
+                if ((cache != null) && cache.contains(taskSentence, belief, r, now)) {
+                    continue;
                 }
-                break;
-            case TermLink.COMPOUND:
-                switch (bLink.type) {
-                    case TermLink.COMPOUND:
-                        compoundAndCompound((CompoundTerm) taskTerm, (CompoundTerm) beliefTerm, tIndex, bIndex, nal);
-                        break;
-                    case TermLink.COMPOUND_STATEMENT:
-                        compoundAndStatement((CompoundTerm) taskTerm, tIndex, (Statement) beliefTerm, bIndex, beliefTerm, nal);
-                        break;
-                    case TermLink.COMPOUND_CONDITION:
-                        if (belief != null) {
-                            if (beliefTerm instanceof Implication) {
-                                Term[] u = new Term[] { beliefTerm, taskTerm };
-                                if (Variables.unify(VAR_INDEPENDENT, ((Statement) beliefTerm).getSubject(), taskTerm, u, true)) { //only secure place that
-                                    Sentence newBelief = belief.clone(u[0]);                                                //allows partial match
-                                    Sentence newTaskSentence = taskSentence.clone(u[1]);
-                                    detachmentWithVar(newBelief, newTaskSentence, bIndex, false, nal);
-                                } else {
-                                    SyllogisticRules.conditionalDedInd(belief, (Implication) beliefTerm, bIndex, taskTerm, -1, nal);
-                                }                                
-                                
-                            } else if (beliefTerm instanceof Equivalence) {
-                                SyllogisticRules.conditionalAna((Equivalence) beliefTerm, bIndex, taskTerm, -1, nal);
-                            }
-                        }
-                        break;
+                final int derivations = nal.derivations;
+                r.hits.increment();
+                r.apply(tLink, bLink, task, taskTerm, beliefTerm, belief, tIndex, bIndex, nal);
+                if (cache != null) {
+                    cache.put(taskSentence, belief, r, now, nal.derivations - derivations);
                 }
-                break;
-            case TermLink.COMPOUND_STATEMENT:
-                switch (bLink.type) {
-                    case TermLink.COMPONENT:
-                        if (taskTerm instanceof Statement) {
-                            goalFromWantBelief(task, tIndex, bIndex, taskTerm, nal, beliefTerm);
-                            componentAndStatement((CompoundTerm) nal.getCurrentTerm(), bIndex, (Statement) taskTerm, tIndex, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND:
-                        if (taskTerm instanceof Statement) {
-                            compoundAndStatement((CompoundTerm) beliefTerm, bIndex, (Statement) taskTerm, tIndex, beliefTerm, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND_STATEMENT:
-                        if (belief != null) {
-                            syllogisms(tLink, bLink, taskTerm, beliefTerm, nal);
-                        }
-                        break;
-                    case TermLink.COMPOUND_CONDITION:
-                        if (belief != null) {
-                            bIndex = bLink.getIndex(1);
-                            if ((taskTerm instanceof Statement) && (beliefTerm instanceof Implication)) {
-                                conditionalDedIndWithVar(belief, (Implication) beliefTerm, bIndex, (Statement) taskTerm, tIndex, nal);
-                            }
-                        }
-                        break;
+            }
+        }
+    }
+
+    /**
+     * An inference rule, or group of rules, applied to the premises of one
+     * pair of TaskLink and TermLink types; see DISPATCH.
+     */
+    public abstract static class Rule {
+        public final short taskLinkType, termLinkType;
+        public final String name;
+        /** applied only when there is a belief */
+        public final boolean needsBelief;
+        /** number of times the rule was applied */
+        public final LongAdder hits = new LongAdder();
+        /** disabled rules are skipped */
+        public volatile boolean enabled = true;
+
+        Rule(final short taskLinkType, final short termLinkType, final String name, final boolean needsBelief) {
+            this.taskLinkType = taskLinkType;
+            this.termLinkType = termLinkType;
+            this.name = name;
+            this.needsBelief = needsBelief;
+        }
+
+        abstract void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal);
+
+        @Override
+        public String toString() {
+            return Metrics.linkName(taskLinkType) + '/' + Metrics.linkName(termLinkType) + ' ' + name;
+        }
+    }
+
+    /** TermLink types are below this */
+    static final int LINK_TYPES = 10;
+
+    /**
+     * The rules to apply, in order, indexed by TaskLink type * LINK_TYPES +
+     * TermLink type; null where no rule applies
+     */
+    private static final Rule[][] DISPATCH = new Rule[LINK_TYPES * LINK_TYPES][];
+
+    private static void add(final Rule r) {
+        final int i = r.taskLinkType * LINK_TYPES + r.termLinkType;
+        final Rule[] rules = (DISPATCH[i] == null) ? new Rule[1] : Arrays.copyOf(DISPATCH[i], DISPATCH[i].length + 1);
+        rules[rules.length - 1] = r;
+        DISPATCH[i] = rules;
+    }
+
+    /** @return all rules, in dispatch order, to inspect their hits or disable them */
+    public static List<Rule> rules() {
+        final List<Rule> all = new ArrayList<>();
+        for (final Rule[] rules : DISPATCH) {
+            if (rules != null) {
+                all.addAll(Arrays.asList(rules));
+            }
+        }
+        return all;
+    }
+
+    static {
+        add(new Rule(TermLink.SELF, TermLink.COMPONENT, "compoundAndSelf", false) {
+            @Override void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal) {
+                compoundAndSelf((CompoundTerm) taskTerm, beliefTerm, true, bIndex,  nal);
+            }
+        });
+        add(new Rule(TermLink.SELF, TermLink.COMPOUND, "compoundAndSelf", false) {
+            @Override void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal) {
+                compoundAndSelf((CompoundTerm) beliefTerm, taskTerm, false, bIndex, nal);
+            }
+        });
+        add(new Rule(TermLink.SELF, TermLink.COMPONENT_STATEMENT, "detachment", true) {
+            @Override void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal) {
+                if (taskTerm instanceof Statement) {
+                    SyllogisticRules.detachment(task.sentence, belief, bIndex, nal);
                 }
-                break;
-            case TermLink.COMPOUND_CONDITION:
-                switch (bLink.type) {
-                      case TermLink.COMPOUND:
-                        if (belief != null) {
-                            detachmentWithVar(taskSentence, belief, tIndex, nal);
-                        }
-                        break;
-                    
-                    case TermLink.COMPOUND_STATEMENT:
-                        if (belief != null) {
-                            if (taskTerm instanceof Implication) // TODO maybe put instanceof test within conditionalDedIndWithVar()
-                            {
-                                Term subj = ((Statement) taskTerm).getSubject();
-                                if (subj instanceof Negation) {
-                                    if (taskSentence.isJudgment()) {
-                                        componentAndStatement((CompoundTerm) subj, bIndex, (Statement) taskTerm, tIndex, nal);
-                                    } else {
-                                        componentAndStatement((CompoundTerm) subj, tIndex, (Statement) beliefTerm, bIndex, nal);
-                                    }
-                                } else {
-                                    conditionalDedIndWithVar(task.sentence, (Implication) taskTerm, tIndex, (Statement) beliefTerm, bIndex, nal);
-                                }
-                            }
-                            break;
+            }
+        });
+        add(new Rule(TermLink.SELF, TermLink.COMPONENT_STATEMENT, "goalFromQuestion", false) {
+            @Override void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal) {
+                try {
+                    goalFromQuestion(task, taskTerm, nal); 
+                }catch(Exception ex) {
+                    if(Parameters.DEBUG) {
+                        System.out.print("Error in goalFromQuestion");
+                    }
+                } //todo fix
+            }
+        });
+        add(new Rule(TermLink.SELF, TermLink.COMPOUND_STATEMENT, "detachment", true) {
+            @Override void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal) {
+                SyllogisticRules.detachment(belief, task.sentence, bIndex, nal);
+            }
+        });
+        add(new Rule(TermLink.SELF, TermLink.COMPONENT_CONDITION, "conditionalDedInd", true) {
+            @Override void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal) {
+                if (taskTerm instanceof Implication) {
+                    SyllogisticRules.conditionalDedInd(task.sentence,(Implication) taskTerm, bLink.getIndex(1), beliefTerm, tIndex, nal);
+                }
+            }
+        });
+        add(new Rule(TermLink.SELF, TermLink.COMPOUND_CONDITION, "conditionalDedInd", true) {
+            @Override void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal) {
+                if ((taskTerm instanceof Implication) && (beliefTerm instanceof Implication)) {
+                    SyllogisticRules.conditionalDedInd(belief,(Implication) beliefTerm, bLink.getIndex(1), taskTerm, tIndex, nal);
+                }
+            }
+        });
+
+        add(new Rule(TermLink.COMPOUND, TermLink.COMPOUND, "compoundAndCompound", false) {
+            @Override void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal) {
+                compoundAndCompound((CompoundTerm) taskTerm, (CompoundTerm) beliefTerm, tIndex, bIndex, nal);
+            }
+        });
+        add(new Rule(TermLink.COMPOUND, TermLink.COMPOUND_STATEMENT, "compoundAndStatement", false) {
+            @Override void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal) {
+                compoundAndStatement((CompoundTerm) taskTerm, tIndex, (Statement) beliefTerm, bIndex, beliefTerm, nal);
+            }
+        });
+        add(new Rule(TermLink.COMPOUND, TermLink.COMPOUND_CONDITION, "conditional", true) {
+            @Override void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal) {
+                if (beliefTerm instanceof Implication) {
+                    Term[] u = new Term[] { beliefTerm, taskTerm };
+                    if (Variables.unify(VAR_INDEPENDENT, ((Statement) beliefTerm).getSubject(), taskTerm, u, true)) { //only secure place that
+                        Sentence newBelief = belief.clone(u[0]);                                                //allows partial match
+                        Sentence newTaskSentence = task.sentence.clone(u[1]);
+                        detachmentWithVar(newBelief, newTaskSentence, bIndex, false, nal);
+                    } else {
+                        SyllogisticRules.conditionalDedInd(belief, (Implication) beliefTerm, bIndex, taskTerm, -1, nal);
+                    }                                
+
+                } else if (beliefTerm instanceof Equivalence) {
+                    SyllogisticRules.conditionalAna((Equivalence) beliefTerm, bIndex, taskTerm, -1, nal);
+                }
+            }
+        });
+
+        add(new Rule(TermLink.COMPOUND_STATEMENT, TermLink.COMPONENT, "goalFromWantBelief", false) {
+            @Override void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal) {
+                if (taskTerm instanceof Statement) {
+                    goalFromWantBelief(task, tIndex, bIndex, taskTerm, nal, beliefTerm);
+                }
+            }
+        });
+        add(new Rule(TermLink.COMPOUND_STATEMENT, TermLink.COMPONENT, "componentAndStatement", false) {
+            @Override void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal) {
+                if (taskTerm instanceof Statement) {
+                    componentAndStatement((CompoundTerm) nal.getCurrentTerm(), bIndex, (Statement) taskTerm, tIndex, nal);
+                }
+            }
+        });
+        add(new Rule(TermLink.COMPOUND_STATEMENT, TermLink.COMPOUND, "compoundAndStatement", false) {
+            @Override void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal) {
+                if (taskTerm instanceof Statement) {
+                    compoundAndStatement((CompoundTerm) beliefTerm, bIndex, (Statement) taskTerm, tIndex, beliefTerm, nal);
+                }
+            }
+        });
+        add(new Rule(TermLink.COMPOUND_STATEMENT, TermLink.COMPOUND_STATEMENT, "syllogisms", true) {
+            @Override void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal) {
+                syllogisms(tLink, bLink, taskTerm, beliefTerm, nal);
+            }
+        });
+        add(new Rule(TermLink.COMPOUND_STATEMENT, TermLink.COMPOUND_CONDITION, "conditionalDedIndWithVar", true) {
+            @Override void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal) {
+                if ((taskTerm instanceof Statement) && (beliefTerm instanceof Implication)) {
+                    conditionalDedIndWithVar(belief, (Implication) beliefTerm, bLink.getIndex(1), (Statement) taskTerm, tIndex, nal);
+                }
+            }
+        });
+
+        add(new Rule(TermLink.COMPOUND_CONDITION, TermLink.COMPOUND, "detachmentWithVar", true) {
+            @Override void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal) {
+                detachmentWithVar(task.sentence, belief, tIndex, nal);
+            }
+        });
+        add(new Rule(TermLink.COMPOUND_CONDITION, TermLink.COMPOUND_STATEMENT, "conditionalDedIndWithVar", true) {
+            @Override void apply(TaskLink tLink, TermLink bLink, Task task, Term taskTerm, Term beliefTerm, Sentence belief, short tIndex, short bIndex, DerivationContext nal) {
+                if (taskTerm instanceof Implication) // TODO maybe put instanceof test within conditionalDedIndWithVar()
+                {
+                    Term subj = ((Statement) taskTerm).getSubject();
+                    if (subj instanceof Negation) {
+                        if (task.sentence.isJudgment()) {
+                            componentAndStatement((CompoundTerm) subj, bIndex, (Statement) taskTerm, tIndex, nal);
+                        } else {
+                            componentAndStatement((CompoundTerm) subj, tIndex, (Statement) beliefTerm, bIndex, nal);
                         }
-                        break;
+                    } else {
+                        conditionalDedIndWithVar(task.sentence, (Implication) taskTerm, tIndex, (Statement) beliefTerm, bIndex, nal);
+                    }
                 }
-        }
+            }
+        });
     }
 
     public static void goalFromWantBelief(final Task task, final short tIndex, short bIndex, final Term taskTerm, final DerivationContext nal, Term beliefTerm) {
@@ -274,24 +366,26 @@ public class RuleTables {
 
     private static void goalFromQuestion(final Task task, final Term taskTerm, final DerivationContext nal) {
         if(task.sentence.punctuation==Symbols.QUESTION_MARK && (taskTerm instanceof Implication || taskTerm instanceof Equivalence)) { //<a =/> b>? |- a!
+            final RuntimeParameters param = nal.memory.param;
+            final boolean operatorOnly = param.curiosityForOperatorOnly.get();
             Term goalterm=null;
             Term goalterm2=null;
             if(taskTerm instanceof Implication) {
                 Implication imp=(Implication)taskTerm;
                 if(imp.getTemporalOrder()!=TemporalRules.ORDER_BACKWARD || imp.getTemporalOrder()==TemporalRules.ORDER_CONCURRENT) {
-                    if(!Parameters.CURIOSITY_FOR_OPERATOR_ONLY || imp.getSubject() instanceof Operation) {
+                    if(!operatorOnly || imp.getSubject() instanceof Operation) {
                         goalterm=imp.getSubject();
                     }
-                    if(goalterm instanceof Variable && goalterm.hasVarQuery() && (!Parameters.CURIOSITY_FOR_OPERATOR_ONLY || imp.getPredicate() instanceof Operation)) {
+                    if(goalterm instanceof Variable && goalterm.hasVarQuery() && (!operatorOnly || imp.getPredicate() instanceof Operation)) {
                         goalterm=imp.getPredicate(); //overwrite, it is a how question, in case of <?how =/> b> it is b! which is desired
                     }
                 }
                 else
                     if(imp.getTemporalOrder()==TemporalRules.ORDER_BACKWARD) {
-                        if(!Parameters.CURIOSITY_FOR_OPERATOR_ONLY || imp.getPredicate() instanceof Operation) {
+                        if(!operatorOnly || imp.getPredicate() instanceof Operation) {
                             goalterm=imp.getPredicate();
                         }
-                        if(goalterm instanceof Variable && goalterm.hasVarQuery() && (!Parameters.CURIOSITY_FOR_OPERATOR_ONLY || imp.getSubject() instanceof Operation)) {
+                        if(goalterm instanceof Variable && goalterm.hasVarQuery() && (!operatorOnly || imp.getSubject() instanceof Operation)) {
                             goalterm=imp.getSubject(); //overwrite, it is a how question, in case of <?how =/> b> it is b! which is desired
                         }
                     }
@@ -300,15 +394,15 @@ public class RuleTables {
                 if(taskTerm instanceof Equivalence) {
                     Equivalence qu=(Equivalence)taskTerm;
                     if(qu.getTemporalOrder()==TemporalRules.ORDER_FORWARD || qu.getTemporalOrder()==TemporalRules.ORDER_CONCURRENT) {
-                        if(!Parameters.CURIOSITY_FOR_OPERATOR_ONLY || qu.getSubject() instanceof Operation) {
+                        if(!operatorOnly || qu.getSubject() instanceof Operation) {
                             goalterm=qu.getSubject();
                         }
-                        if(!Parameters.CURIOSITY_FOR_OPERATOR_ONLY || qu.getPredicate() instanceof Operation) {
+                        if(!operatorOnly || qu.getPredicate() instanceof Operation) {
                             goalterm2=qu.getPredicate();
                         }
                     }
                 }
-            TruthValue truth=new TruthValue(1.0f,Parameters.DEFAULT_GOAL_CONFIDENCE*Parameters.CURIOSITY_DESIRE_CONFIDENCE_MUL);
+            TruthValue truth=new TruthValue(1.0f,Parameters.DEFAULT_GOAL_CONFIDENCE*param.curiosityDesireConfidenceMul.floatValue());
             if(goalterm!=null && !(goalterm instanceof Variable) && goalterm instanceof CompoundTerm) {
                 goalterm=((CompoundTerm)goalterm).transformIndependentVariableToDependentVar((CompoundTerm) goalterm);
                 Sentence sent=new Sentence(
@@ -317,7 +411,7 @@ public class RuleTables {
                     truth,
                     new Stamp(task.sentence.stamp,nal.memory.time()));
 
-                nal.singlePremiseTask(sent, new BudgetValue(task.getPriority()*Parameters.CURIOSITY_DESIRE_PRIORITY_MUL,task.getDurability()*Parameters.CURIOSITY_DESIRE_DURABILITY_MUL,BudgetFunctions.truthToQuality(truth)));
+                nal.singlePremiseTask(sent, new BudgetValue(task.getPriority()*param.curiosityDesirePriorityMul.floatValue(),task.getDurability()*param.curiosityDesireDurabilityMul.floatValue(),BudgetFunctions.truthToQuality(truth)));
             }
             if(goalterm2!=null && !(goalterm2 instanceof Variable) && goalterm2 instanceof CompoundTerm) {
                 goalterm2=((CompoundTerm)goalterm).transformIndependentVariableToDependentVar((CompoundTerm) goalterm2);
@@ -327,7 +421,7 @@ public class RuleTables {
                     truth.clone(),
                     new Stamp(task.sentence.stamp,nal.memory.time()));
 
-                nal.singlePremiseTask(sent, new BudgetValue(task.getPriority()*Parameters.CURIOSITY_DESIRE_PRIORITY_MUL,task.getDurability()*Parameters.CURIOSITY_DESIRE_DURABILITY_MUL,BudgetFunctions.truthToQuality(truth)));
+                nal.singlePremiseTask(sent, new BudgetValue(task.getPriority()*param.curiosityDesirePriorityMul.floatValue(),task.getDurability()*param.curiosityDesireDurabilityMul.floatValue(),BudgetFunctions.truthToQuality(truth)));
             }
         }
     }
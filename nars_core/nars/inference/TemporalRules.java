@@ -241,7 +241,7 @@ public class TemporalRules {
             }
         }
 
-        int durationCycles = Parameters.DURATION;
+        int durationCycles = nal.memory.param.duration.get();
         long time1 = s1.getOccurenceTime();
         long time2 = s2.getOccurenceTime();
         long timeDiff = time2 - time1;
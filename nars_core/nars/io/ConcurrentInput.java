@@ -0,0 +1,135 @@
+package nars.io;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import nars.NAR;
+import nars.entity.Task;
+import nars.io.Narsese.InvalidInputException;
+
+/**
+ * Input channel fed by any number of producer threads.
+ * <p>
+ * Producers parse Narsese on their own thread and push the resulting Tasks
+ * into a bounded lock-free ring buffer: offer() fails when it is full, put()
+ * waits for the reasoner to make room.  The reasoner drains it like any other
+ * Input, RuntimeParameters.inputsPerCycle items per cycle across all
+ * channels.  Producers claim slots by CAS on the tail; there is one consumer,
+ * the reasoner thread.
+ * <p>
+ * Add it with NAR.addInput(Input) and close() it once no more input follows.
+ */
+public class ConcurrentInput implements Input<Task> {
+
+    private final NAR nar;
+    private final AtomicReferenceArray<Task> slots;
+    private final int mask;
+
+    /** next slot to claim, by producers */
+    private final AtomicLong tail = new AtomicLong();
+    /** next slot to read, written by the consumer only */
+    private final AtomicLong head = new AtomicLong();
+
+    private volatile boolean closed = false;
+
+    /**
+     * @param capacity maximum number of queued tasks, rounded up to a power of two
+     */
+    public ConcurrentInput(final NAR nar, final int capacity) {
+        this.nar = nar;
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /** @return whether the task was queued, false if the queue is full or closed */
+    public boolean offer(final Task t) {
+        if (t == null) {
+            throw new NullPointerException();
+        }
+        if (closed) {
+            return false;
+        }
+        while (true) {
+            final long at = tail.get();
+            if (at - head.get() > mask) {
+                return false;
+            }
+            if (tail.compareAndSet(at, at + 1)) {
+                slots.lazySet((int) at & mask, t);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Queues a task, waiting while the queue is full
+     *
+     * @return false if the input was closed before the task could be queued
+     */
+    public boolean put(final Task t) throws InterruptedException {
+        while (!offer(t)) {
+            if (closed) {
+                return false;
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+        }
+        return true;
+    }
+
+    /** parses a line of Narsese on the calling thread and offers the task; lines without a task are accepted as is */
+    public boolean offer(final String narsese) throws InvalidInputException {
+        final Task t = parse(narsese);
+        return (t == null) || offer(t);
+    }
+
+    /** parses a line of Narsese on the calling thread and puts the task; lines without a task are accepted as is */
+    public boolean put(final String narsese) throws InvalidInputException, InterruptedException {
+        final Task t = parse(narsese);
+        return (t == null) || put(t);
+    }
+
+    protected Task parse(final String narsese) throws InvalidInputException {
+        return new Narsese(nar).parseNarsese(new StringBuilder(narsese));
+    }
+
+    /** called by the reasoner */
+    @Override
+    public Task next() {
+        final long at = head.get();
+        final int i = (int) at & mask;
+        final Task t = slots.get(i);
+        if (t == null) {
+            //empty, or the producer of this slot has not stored its task yet
+            return null;
+        }
+        slots.lazySet(i, null);
+        head.lazySet(at + 1);
+        return t;
+    }
+
+    /** number of queued tasks */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    /** no more tasks will be accepted; queued ones are still delivered */
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public boolean finished(final boolean stop) {
+        if (stop) {
+            closed = true;
+        }
+        return closed && (tail.get() == head.get());
+    }
+}
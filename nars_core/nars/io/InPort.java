@@ -80,7 +80,7 @@ abstract public class InPort<X,Y> implements Iterator<Y> {
         while (!input.finished(false) && (DEFAULT_CAPACITY - buffer.size()> 0) ) {            
             X x = input.next();
             if (x == null)
-                continue;
+                break; //nothing available right now
             
             perceive(x);
         }
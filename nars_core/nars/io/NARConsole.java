@@ -29,6 +29,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import nars.NAR;
 import nars.io.CommandLineNARBuilder;
+import nars.util.AsyncObserver.Overflow;
 
 /**
  * Run Reasoner
@@ -103,6 +104,7 @@ public class NARConsole {
         TextOutput output = new TextOutput(nar, new PrintWriter(out, true));
         output.setErrors(true);
         output.setErrorStackTrace(true);
+        output.setAsync(nar, 1024, Overflow.Block);
         InputThread it;
         int sleep = -1;
         boolean noFile = false;
@@ -149,7 +151,9 @@ public class NARConsole {
                 }
             }
         }
-               
+        
+        //the output is written on its own thread, up to 1024 lines may still be queued
+        output.flush();
         System.exit(0);
     }
 
@@ -1,8 +1,16 @@
 package nars.io;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.io.Serializable;
 import static java.lang.Float.parseFloat;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import nars.storage.Memory;
 import nars.NAR;
 import nars.config.Parameters;
@@ -15,6 +23,8 @@ import static nars.inference.BudgetFunctions.truthToQuality;
 import nars.io.Symbols;
 import static nars.io.Symbols.ARGUMENT_SEPARATOR;
 import static nars.io.Symbols.BUDGET_VALUE_MARK;
+import static nars.io.Symbols.COMMENT_MARK;
+import static nars.io.Symbols.ECHO_MARK;
 import static nars.io.Symbols.GOAL_MARK;
 import static nars.io.Symbols.INPUT_LINE_PREFIX;
 import static nars.io.Symbols.JUDGMENT_MARK;
@@ -27,14 +37,14 @@ import static nars.io.Symbols.OUTPUT_LINE_PREFIX;
 import static nars.io.Symbols.PREFIX_MARK;
 import static nars.io.Symbols.QUESTION_MARK;
 import static nars.io.Symbols.QUEST_MARK;
+import static nars.io.Symbols.QUOTE;
 import static nars.io.Symbols.STAMP_CLOSER;
 import static nars.io.Symbols.STAMP_OPENER;
 import static nars.io.Symbols.TRUTH_VALUE_MARK;
 import static nars.io.Symbols.VALUE_SEPARATOR;
 import static nars.io.Symbols.getCloser;
 import static nars.io.Symbols.getOpener;
-import static nars.io.Symbols.getRelation;
-import static nars.io.Symbols.isRelation;
+import static nars.io.Symbols.getOperator;
 import nars.language.Interval;
 import nars.language.SetExt;
 import nars.language.SetInt;
@@ -46,43 +56,125 @@ import nars.language.Variable;
 import nars.operator.Operation;
 import static nars.operator.Operation.make;
 import nars.operator.Operator;
-import static java.lang.String.valueOf;
-import static nars.io.Symbols.getOperator;
 import static nars.language.Variables.containVar;
 import static nars.language.Statement.make;
 
 /**
  * Utility methods for working and reacting to Narsese input.
- * This will eventually be integrated with NarseseParser for systematic
- * parsing and prediction of input.
+ * <p>
+ * Sentences and terms are parsed in place from any CharSequence, in a single
+ * left to right pass for the term, without copying the input into substrings;
+ * only the names of atomic terms and the numbers are materialized.  Errors
+ * report the position, within the line, where the input became invalid.
+ * Streams of tasks are parsed from a Reader or a ByteBuffer, one line after
+ * the other in a reused buffer.
  */
 public class Narsese implements Serializable {
-    
+
     public final Memory memory;
 
-                
+
     /**
      * All kinds of invalid addInput lines
      */
     public static class InvalidInputException extends Exception {
 
+        /** index in the line of the character found invalid, -1 if unknown */
+        public final int position;
+
         /**
          * An invalid addInput line.
          * @param s type of error
          */
         InvalidInputException(String s) {
-            super(s);
+            this(s, -1);
         }
-    }    
-    
-    public Narsese(Memory memory) {        
+
+        /**
+         * An invalid addInput line.
+         * @param s type of error
+         * @param position index in the line where the error was found
+         */
+        InvalidInputException(String s, int position) {
+            super((position < 0) ? s : s + " (at " + position + ")");
+            this.position = position;
+        }
+    }
+
+    /** receives the tasks parsed from a stream */
+    public interface TaskHandler {
+
+        void task(Task t);
+
+        /**
+         * @param line number of the line which could not be parsed, from 1
+         * @param e the error, with its position in the line
+         */
+        void invalid(long line, InvalidInputException e);
+    }
+
+    public Narsese(Memory memory) {
         this.memory = memory;
     }
 
     public Narsese(NAR n) {
         this(n.memory);
     }
-    
+
+    /** position of the parser in the text of a line */
+    private static final class Cursor {
+        final CharSequence s;
+        /** index of the first character of the line, positions are reported from there */
+        final int origin;
+        /** next character to read, and end of the text to read */
+        int i, end;
+
+        Cursor(final CharSequence s, final int start, final int end) {
+            this(s, start, end, start);
+        }
+
+        Cursor(final CharSequence s, final int start, final int end, final int origin) {
+            this.s = s;
+            this.i = start;
+            this.end = end;
+            this.origin = origin;
+        }
+
+        char at(final int j) {
+            return s.charAt(j);
+        }
+
+        void skipSpace() {
+            while ((i < end) && (s.charAt(i) <= ' ')) {
+                i++;
+            }
+        }
+
+        /** end of the text once trailing spaces are ignored */
+        int trimmedEnd(final int from, int to) {
+            while ((to > from) && (s.charAt(to - 1) <= ' ')) {
+                to--;
+            }
+            return to;
+        }
+
+        int indexOf(final char c, final int from, final int to) {
+            return Narsese.indexOf(s, c, from, to);
+        }
+
+        String text(final int from, final int to) {
+            return s.subSequence(from, to).toString();
+        }
+
+        InvalidInputException error(final String message, final int at) {
+            return new InvalidInputException(message, at - origin);
+        }
+
+        InvalidInputException error(final String message) {
+            return error(message, i);
+        }
+    }
+
 
     /**
      * Parse a line of addInput experience
@@ -90,66 +182,154 @@ public class Narsese implements Serializable {
      * called from ExperienceIO.loadLine
      *
      * @param buffer The line to be parsed
-     * @param memory Reference to the memory
-     * @param time The current time
-     * @return An experienced task
+     * @return An experienced task, or null if the line is an output
      */
-    public Task parseNarsese(StringBuilder buffer) throws InvalidInputException {
-        
-        int i = buffer.indexOf(valueOf(PREFIX_MARK));
-        if (i > 0) {
-            String prefix = buffer.substring(0, i).trim();
-            if (prefix.equals(INPUT_LINE_PREFIX)) {
-                buffer.delete(0, i + 1);                
+    public Task parseNarsese(final CharSequence buffer) throws InvalidInputException {
+        return parseNarsese(buffer, 0, buffer.length());
+    }
+
+    /**
+     * Parse a line of addInput experience in a part of a text
+     *
+     * @param s The text
+     * @param start The index of the line in the text
+     * @param end The index after the line
+     * @return An experienced task, or null if the line is an output
+     */
+    public Task parseNarsese(final CharSequence s, int start, int end) throws InvalidInputException {
+        final int origin = start;
+        final Cursor c = new Cursor(s, start, end);
+
+        int i = c.indexOf(PREFIX_MARK, start, end);
+        if (i > start) {
+            c.i = start;
+            c.skipSpace();
+            final int prefixEnd = c.trimmedEnd(c.i, i);
+            if (regionEquals(s, c.i, prefixEnd, INPUT_LINE_PREFIX)) {
+                start = i + 1;
             }
-            else if (prefix.equals(OUTPUT_LINE_PREFIX)) {
+            else if (regionEquals(s, c.i, prefixEnd, OUTPUT_LINE_PREFIX)) {
                 //ignore outputs
-                return null;                
-            }            
-        }
-        
-        
-        
-        char c = buffer.charAt(buffer.length() - 1);
-        if (c == STAMP_CLOSER) {
+                return null;
+            }
+        }
+
+        if ((end > start) && (s.charAt(end - 1) == STAMP_CLOSER)) {
             //ignore stamp
-            int j = buffer.lastIndexOf(valueOf(STAMP_OPENER));
-            buffer.delete(j - 1, buffer.length());
+            end = stripFrom(c, STAMP_OPENER, start, end);
+        }
+        if ((end > start) && (s.charAt(end - 1) == ']')) {
+            end = stripFrom(c, '[', start, end);
+        }
+        c.i = start;
+        c.skipSpace();
+        return parseTask(s, c.i, c.trimmedEnd(c.i, end), origin);
+    }
+
+    /** @return the end of a line without its last part opened by a character and the one before */
+    private static int stripFrom(final Cursor c, final char opener, final int start, final int end) throws InvalidInputException {
+        int j = end - 1;
+        while ((j >= start) && (c.at(j) != opener)) {
+            j--;
         }
-        c = buffer.charAt(buffer.length() - 1);
-        if (c == ']') {
-            int j = buffer.lastIndexOf(valueOf('['));
-            buffer.delete(j-1, buffer.length());
+        if (j < start) {
+            throw c.error("missing '" + opener + "'", end - 1);
         }
-        return parseTask(buffer.toString().trim());
+        return Math.max(start, j - 1);
     }
-    
+
     /**
      * Enter a new Task in String into the memory, called from InputWindow or
      * locally.
      *
      * @param s the single-line addInput String
-     * @param memory Reference to the memory
-     * @param time The current time
      * @return An experienced task
-     */    
-    public Task parseTask(String s) throws InvalidInputException {
-        StringBuilder buffer = new StringBuilder(Texts.escape(s));
-        
-        String budgetString = getBudgetString(buffer);
-        String truthString = getTruthString(buffer);
-        Tense tense = parseTense(buffer);
-        String str = buffer.toString().trim();
-        int last = str.length() - 1;
-        char punc = str.charAt(last);
-        
-        Stamp stamp = new Stamp(-1 /* if -1, will be set right before the Task is input */, 
+     */
+    public Task parseTask(final String s) throws InvalidInputException {
+        return parseTask(s, 0, s.length());
+    }
+
+    /**
+     * Parse a task from a part of a text: [budget] term punctuation [tense] [truth]
+     *
+     * @param s The text
+     * @param start The index of the task in the text
+     * @param end The index after the task
+     * @return An experienced task
+     */
+    public Task parseTask(final CharSequence s, final int start, final int end) throws InvalidInputException {
+        return parseTask(s, start, end, start);
+    }
+
+    /** @param origin index of the line in the text, where error positions count from */
+    private Task parseTask(CharSequence s, int start, int end, int origin) throws InvalidInputException {
+        if (indexOf(s, QUOTE, start, end) != -1) {
+            //quoted names have their reserved characters replaced
+            s = Texts.escape(s.subSequence(start, end));
+            origin -= start;
+            start = 0;
+            end = s.length();
+        }
+        final Cursor c = new Cursor(s, start, end, origin);
+
+        int budgetStart = -1, budgetEnd = -1;
+        if ((start < end) && (s.charAt(start) == BUDGET_VALUE_MARK)) {
+            final int i = c.indexOf(BUDGET_VALUE_MARK, start + 1, end);    // looking for the end
+            if (i < 0) {
+                throw c.error("missing budget closer", start);
+            }
+            c.i = start + 1;
+            c.skipSpace();
+            budgetStart = c.i;
+            budgetEnd = c.trimmedEnd(budgetStart, i);
+            if (budgetStart == budgetEnd) {
+                throw c.error("empty budget", start);
+            }
+            start = i + 1;
+        }
+
+        int truthStart = -1, truthEnd = -1;
+        if ((end > start) && (s.charAt(end - 1) == TRUTH_VALUE_MARK)) {
+            final int first = c.indexOf(TRUTH_VALUE_MARK, start, end);    // looking for the beginning
+            if (first == end - 1) { // no matching closer
+                throw c.error("missing truth mark", first);
+            }
+            c.i = first + 1;
+            c.skipSpace();
+            truthStart = c.i;
+            truthEnd = c.trimmedEnd(truthStart, end - 1);
+            if (truthStart == truthEnd) {                // empty usage
+                throw c.error("empty truth", first);
+            }
+            end = first;
+        }
+
+        Tense tense = Tense.Eternal;
+        final int t = c.indexOf(Symbols.TENSE_MARK.charAt(0), start, end);
+        if (t > start) {
+            tense = parseTense(c, t, end);
+            end = t;
+        }
+
+        c.i = start;
+        c.skipSpace();
+        start = c.i;
+        end = c.trimmedEnd(start, end);
+        if (start == end) {
+            throw c.error("missing sentence", start);
+        }
+        final int last = end - 1;
+        final char punc = s.charAt(last);
+
+        Stamp stamp = new Stamp(-1 /* if -1, will be set right before the Task is input */,
                 tense, memory.newStampSerial(), memory.param.duration.get());
 
-        TruthValue truth = parseTruth(truthString, punc);
-        Term content = parseTerm(str.substring(0, last));
-        if (content == null) throw new InvalidInputException("Content term missing");
-            
+        TruthValue truth = parseTruth(c, truthStart, truthEnd, punc);
+        c.i = start;
+        c.end = last;
+        Term content = parseTerm(c);
+        if (content == null) throw c.error("Content term missing", start);
+
         Sentence sentence = new Sentence(
             content,
             punc,
@@ -159,71 +339,183 @@ public class Narsese implements Serializable {
         //if ((content instanceof Conjunction) && Variable.containVarDep(content.getName())) {
         //    sentence.setRevisible(false);
         //}
-        BudgetValue budget = parseBudget(budgetString, punc, truth);
+        BudgetValue budget = parseBudget(c, budgetStart, budgetEnd, punc, truth);
         Task task = new Task(sentence, budget, true);
         return task;
 
     }
 
-    /* ---------- react values ---------- */
     /**
-     * Return the prefix of a task symbol that contains a BudgetValue
+     * Parse the tasks of a stream, one per line.
+     * <p>
+     * Empty lines, comments, echoes and numbers of cycles to wait are skipped.
+     * A line which can not be parsed is handed to the handler, with its
+     * number, and parsing goes on with the next one.
      *
-     * @param s the addInput in a StringBuilder
-     * @return a String containing a BudgetValue
-     * @throws nars.io.StringParser.InvalidInputException if the addInput cannot be
- parsed into a BudgetValue
+     * @return the number of tasks parsed
      */
-    private static String getBudgetString(StringBuilder s) throws InvalidInputException {
-        if (s.charAt(0) != BUDGET_VALUE_MARK) {
-            return null;
+    public long parseTasks(final Reader in, final TaskHandler h) throws IOException {
+        return parseTasks(new Source() {
+            @Override int read(final char[] b, final int off, final int len) throws IOException {
+                return in.read(b, off, len);
+            }
+        }, h);
+    }
+
+    /**
+     * Parse the tasks of UTF-8 text, from the position of the buffer to its limit,
+     * as parseTasks(Reader, TaskHandler)
+     */
+    public long parseTasks(final ByteBuffer in, final TaskHandler h) {
+        final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        try {
+            return parseTasks(new Source() {
+                boolean flushed = false;
+                @Override int read(final char[] b, final int off, final int len) {
+                    final CharBuffer out = CharBuffer.wrap(b, off, len);
+                    if (in.hasRemaining()) {
+                        decoder.decode(in, out, true);
+                    }
+                    if (!in.hasRemaining() && !flushed && (out.position() == off)) {
+                        flushed = true;
+                        decoder.flush(out);
+                    }
+                    final int n = out.position() - off;
+                    return ((n == 0) && flushed) ? -1 : n;
+                }
+            }, h);
+        } catch (IOException e) {
+            //not thrown when decoding from memory
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** characters of a stream */
+    private abstract static class Source {
+        /** @return the number of characters read, -1 at the end */
+        abstract int read(char[] b, int off, int len) throws IOException;
+    }
+
+    private long parseTasks(final Source in, final TaskHandler h) throws IOException {
+        char[] b = new char[8192];
+        CharBuffer text = CharBuffer.wrap(b);
+        int len = 0, scanned = 0;
+        long line = 0, tasks = 0;
+        boolean eof = false;
+        while (true) {
+            int lineStart = 0;
+            for (int i = scanned; i < len; i++) {
+                if (b[i] == '\n') {
+                    if (parseLine(text, lineStart, i, ++line, h)) {
+                        tasks++;
+                    }
+                    lineStart = i + 1;
+                }
+            }
+            if (eof) {
+                if ((lineStart < len) && parseLine(text, lineStart, len, ++line, h)) {
+                    tasks++;
+                }
+                return tasks;
+            }
+            //keep the incomplete line at the beginning
+            len -= lineStart;
+            System.arraycopy(b, lineStart, b, 0, len);
+            scanned = len;
+            if (b.length - len < 2) {
+                //room for a surrogate pair
+                b = Arrays.copyOf(b, b.length * 2);
+                text = CharBuffer.wrap(b);
+            }
+            final int n = in.read(b, len, b.length - len);
+            if (n < 0) {
+                eof = true;
+            } else {
+                len += n;
+            }
+        }
+    }
+
+    /** @return whether a task was parsed from the line */
+    private boolean parseLine(final CharSequence s, int start, int end, final long line, final TaskHandler h) {
+        while ((start < end) && (s.charAt(start) <= ' ')) {
+            start++;
+        }
+        while ((end > start) && (s.charAt(end - 1) <= ' ')) {
+            end--;
+        }
+        if (start == end) {
+            return false;
+        }
+        final char c = s.charAt(start);
+        if ((c == COMMENT_MARK) || (c == ECHO_MARK)) {
+            return false;
+        }
+        int digits = start;
+        while ((digits < end) && Character.isDigit(s.charAt(digits))) {
+            digits++;
         }
-        int i = s.indexOf(valueOf(BUDGET_VALUE_MARK), 1);    // looking for the end
-        if (i < 0) {
-            throw new InvalidInputException("missing budget closer");
+        if (digits == end) {
+            //cycles to wait, meaningless here
+            return false;
         }
-        String budgetString = s.substring(1, i).trim();
-        if (budgetString.length() == 0) {
-            throw new InvalidInputException("empty budget");
+        try {
+            final Task t = parseNarsese(s, start, end);
+            if (t != null) {
+                h.task(t);
+                return true;
+            }
+        } catch (InvalidInputException e) {
+            h.invalid(line, e);
         }
-        s.delete(0, i + 1);
-        return budgetString;
+        return false;
     }
 
-    /**
-     * Return the postfix of a task symbol that contains a TruthValue
-     *
-     * @return a String containing a TruthValue
-     * @param s the addInput in a StringBuilder
-     * @throws nars.io.StringParser.InvalidInputException if the addInput cannot be
- parsed into a TruthValue
-     */
-    private static String getTruthString(final StringBuilder s) throws InvalidInputException {
-        final int last = s.length() - 1;
-        if (s.charAt(last) != TRUTH_VALUE_MARK) {       // use default
-            return null;
+    /* ---------- react values ---------- */
+
+    /** @return the index of a character in a part of a text, -1 if absent */
+    private static int indexOf(final CharSequence s, final char c, int from, final int to) {
+        for (; from < to; from++) {
+            if (s.charAt(from) == c) {
+                return from;
+            }
         }
-        final int first = s.indexOf(valueOf(TRUTH_VALUE_MARK));    // looking for the beginning
-        if (first == last) { // no matching closer
-            throw new InvalidInputException("missing truth mark");
+        return -1;
+    }
+
+    /** @return whether a part of a text equals a string */
+    private static boolean regionEquals(final CharSequence s, final int from, final int to, final String x) {
+        if (to - from != x.length()) {
+            return false;
         }
-        final String truthString = s.substring(first + 1, last).trim();
-        if (truthString.length() == 0) {                // empty usage
-            throw new InvalidInputException("empty truth");
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) != x.charAt(i - from)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** react a part of a line into a number */
+    private static float parseNumber(final Cursor c, final int from, final int to) throws InvalidInputException {
+        try {
+            return parseFloat(c.text(from, to));
+        } catch (NumberFormatException e) {
+            throw c.error("invalid number", from);
         }
-        s.delete(first, last + 1);                 // remaining addInput to be processed outside
-        s.trimToSize();
-        return truthString;
     }
 
     /**
      * react the addInput String into a TruthValue (or DesireValue)
      *
-     * @param s addInput String
+     * @param from start of the truth in the line, -1 for the default
+     * @param to end of the truth in the line
      * @param type Task type
      * @return the addInput TruthValue
      */
-    private static TruthValue parseTruth(String s, char type) {
+    private static TruthValue parseTruth(final Cursor c, final int from, final int to, char type) throws InvalidInputException {
         if ((type == QUESTION_MARK) || (type == QUEST_MARK)) {
             return null;
         }
@@ -232,13 +524,13 @@ public class Narsese implements Serializable {
         if(type==GOAL_MARK) {
             confidence = Parameters.DEFAULT_GOAL_CONFIDENCE;
         }
-        if (s != null) {
-            int i = s.indexOf(VALUE_SEPARATOR);
+        if (from != -1) {
+            int i = c.indexOf(VALUE_SEPARATOR, from, to);
             if (i < 0) {
-                frequency = parseFloat(s);
+                frequency = parseNumber(c, from, to);
             } else {
-                frequency = parseFloat(s.substring(0, i));
-                confidence = parseFloat(s.substring(i + 1));
+                frequency = parseNumber(c, from, i);
+                confidence = parseNumber(c, i + 1, to);
             }
         }
         return new TruthValue(frequency, confidence);
@@ -247,14 +539,15 @@ public class Narsese implements Serializable {
     /**
      * react the addInput String into a BudgetValue
      *
-     * @param truth the TruthValue of the task
-     * @param s addInput String
+     * @param from start of the budget in the line, -1 for the default
+     * @param to end of the budget in the line
      * @param punctuation Task punctuation
+     * @param truth the TruthValue of the task
      * @return the addInput BudgetValue
      * @throws nars.io.StringParser.InvalidInputException If the String cannot
      * be parsed into a BudgetValue
      */
-    private static BudgetValue parseBudget(String s, char punctuation, TruthValue truth) throws InvalidInputException {
+    private static BudgetValue parseBudget(final Cursor c, final int from, final int to, char punctuation, TruthValue truth) throws InvalidInputException {
         float priority, durability;
         switch (punctuation) {
             case JUDGMENT_MARK:
@@ -272,20 +565,20 @@ public class Narsese implements Serializable {
             case QUEST_MARK:
                 priority = Parameters.DEFAULT_QUEST_PRIORITY;
                 durability = Parameters.DEFAULT_QUEST_DURABILITY;
-                break;                
+                break;
             default:
-                throw new InvalidInputException("unknown punctuation: '" + punctuation + "'");
+                throw c.error("unknown punctuation: '" + punctuation + "'", c.end);
         }
-        if (s != null) { // overrite default
-            int i = s.indexOf(VALUE_SEPARATOR);
+        if (from != -1) { // overrite default
+            int i = c.indexOf(VALUE_SEPARATOR, from, to);
             if (i < 0) {        // default durability
-                priority = parseFloat(s);
+                priority = parseNumber(c, from, to);
             } else {
-                int i2 = s.indexOf(VALUE_SEPARATOR, i+1);
+                int i2 = c.indexOf(VALUE_SEPARATOR, i + 1, to);
                 if (i2 == -1)
-                    i2 = s.length();
-                priority = parseFloat(s.substring(0, i));
-                durability = parseFloat(s.substring(i + 1, i2));
+                    i2 = to;
+                priority = parseNumber(c, from, i);
+                durability = parseNumber(c, i + 1, i2);
             }
         }
         float quality = (truth == null) ? 1 : truthToQuality(truth);
@@ -307,8 +600,21 @@ public class Narsese implements Serializable {
         return Tense.tense(t);
     }
 
-    
-    
+    /** Recognize the tense in a part of a line, eternal if none matches */
+    private static Tense parseTense(final Cursor c, final int from, final int to) {
+        c.i = from;
+        c.skipSpace();
+        final int end = c.trimmedEnd(c.i, to);
+        for (final Tense t : Tense.values()) {
+            if (regionEquals(c.s, c.i, end, t.symbol)) {
+                return t;
+            }
+        }
+        return Tense.Eternal;
+    }
+
+
+
     /* ---------- react String into term ---------- */
     /**
      * Top-level method that react a Term in general, which may recursively call
@@ -316,299 +622,309 @@ public class Narsese implements Serializable {
      * <p>
  There are 5 valid cases: 1. (Op, A1, ..., An) is a CompoundTerm if Op is
  a built-in getOperator 2. {A1, ..., An} is an SetExt; 3. [A1, ..., An] is an
- SetInt; 4. <T1 Re T2> is a Statement (including higher-order Statement);
+ SetInt; 4. &lt;T1 Re T2&gt; is a Statement (including higher-order Statement);
      * 5. otherwise it is a simple term.
      *
-     * @param s0 the String to be parsed
-     * @param memory Reference to the memory
-     * @return the Term generated from the String
+     * @param s the String to be parsed
+     * @return the Term generated from the String, null if it is empty
      */
     public Term parseTerm(String s) throws InvalidInputException {
-        s = s.trim();
-        
-        if (s.length() == 0) return null;
-        
-        int index = s.length() - 1;
-        char first = s.charAt(0);
-        char last = s.charAt(index);
-
-        NativeOperator opener = getOpener(first);
+        return parseTerm(new Cursor(s, 0, s.length()));
+    }
+
+    /** parse the whole text left to the cursor into a Term, null if it is empty */
+    private Term parseTerm(final Cursor c) throws InvalidInputException {
+        c.skipSpace();
+        if (c.i == c.end) return null;
+        final Term t = term(c);
+        c.skipSpace();
+        if (c.i < c.end) {
+            throw c.error("unexpected '" + c.at(c.i) + "' after term");
+        }
+        return t;
+    }
+
+    /** parse the Term at the cursor, leaving the cursor after it */
+    private Term term(final Cursor c) throws InvalidInputException {
+        c.skipSpace();
+        if (c.i == c.end) {
+            throw c.error("missing term");
+        }
+        final int start = c.i;
+        NativeOperator opener = getOpener(c.at(start));
         if (opener!=null) {
+            c.i++;
             switch (opener) {
                 case COMPOUND_TERM_OPENER:
-                    if (last == COMPOUND_TERM_CLOSER.ch) {
-                       return parseCompoundTerm(s.substring(1, index));
-                    } else {
-                        throw new InvalidInputException("missing CompoundTerm closer");
-                    }
+                    return parseCompoundTerm(c, start);
                 case SET_EXT_OPENER:
-                    if (last == SET_EXT_CLOSER.ch) {
-                        return SetExt.make(parseArguments(s.substring(1, index) + ARGUMENT_SEPARATOR));
-                    } else {
-                        throw new InvalidInputException("missing ExtensionSet closer");
-                    }                    
+                    return SetExt.make(parseArguments(c, SET_EXT_CLOSER, "ExtensionSet", start));
                 case SET_INT_OPENER:
-                    if (last == SET_INT_CLOSER.ch) {
-                        return SetInt.make(parseArguments(s.substring(1, index) + ARGUMENT_SEPARATOR));
-                    } else {
-                        throw new InvalidInputException("missing IntensionSet closer");
-                    }   
+                    return SetInt.make(parseArguments(c, SET_INT_CLOSER, "IntensionSet", start));
                 case STATEMENT_OPENER:
-                    if (last == STATEMENT_CLOSER.ch) {
-                        return parseStatement(s.substring(1, index));
-                    } else {
-                        throw new InvalidInputException("missing Statement closer");
-                    }
-            }
-        }
-        else if (Parameters.FUNCTIONAL_OPERATIONAL_FORMAT) {
-            
-            //parse functional operation:
-            //  function()
-            //  function(a)
-            //  function(a,b)
-            
-            //test for existence of matching parentheses at beginning at index!=0
-            int pOpen = s.indexOf('(');
-            int pClose = s.lastIndexOf(')');
-            if ((pOpen!=-1) && (pClose!=-1) && (pClose==s.length()-1)) {
-                
-                String operatorString = Operator.addPrefixIfMissing( s.substring(0, pOpen) );
-                                
-                Operator operator = memory.getOperator(operatorString);
-                
-                if (operator == null) {
-                    //???
-                    throw new InvalidInputException("Unknown operator: " + operatorString);
-                }
-                
-                String argString = s.substring(pOpen+1, pClose+1);               
-                
-                
-                Term[] a;                
-                if (argString.length() > 1) {                
-                    ArrayList<Term> args = parseArguments(argString);                                
-                    a = args.toArray(new Term[args.size()]);
-                }
-                else {
-                    //void "()" arguments, default to (SELF)
-                    a = Operation.SELF_TERM_ARRAY;
-                }                                                            
-                
-                Operation o = Operation.make(operator, a, true);
-                return o;                
+                    return parseStatement(c, start);
             }
         }
-
-        //if no opener, parse the term            
-        return parseAtomicTerm(s);
-
+        return parseWord(c);
     }
 
 //    private static void showWarning(String message) {
 //		new TemporaryFrame( message + "\n( the faulty line has been kept in the addInput window )",
 //				40000, TemporaryFrame.WARNING );
 //    }
+
     /**
-     * Parse a Term that has no internal structure.
+     * Parse a Term that does not begin with an opener: an atomic term, or an
+     * operation in functional form, op(A1, ..., An)
      * <p>
-     * The Term can be a constant or a variable.
+     * It ends at a space, separator, closer or relation outside of brackets.
      *
-     * @param s0 the String to be parsed
      * @throws nars.io.StringParser.InvalidInputException the String cannot be
      * parsed into a Term
      * @return the Term generated from the String
      */
-    private Term parseAtomicTerm(String s0) throws InvalidInputException {
-        String s = s0.trim();
-        if (s.length() == 0) {
-            throw new InvalidInputException("missing term");
+    private Term parseWord(final Cursor c) throws InvalidInputException {
+        final int start = c.i;
+        int level = 0, open = -1;
+        for (; c.i < c.end; c.i++) {
+            final char ch = c.at(c.i);
+            if ((level == 0) && ((ch <= ' ') || (ch == ARGUMENT_SEPARATOR)
+                    || (relationAt(c.s, c.i, c.end) != null) || isCloser(c.s, c.i, start))) {
+                break;
+            }
+            if (isOpener(c.s, c.i, c.end)) {
+                if ((open == -1) && (ch == '(')) {
+                    open = c.i;
+                }
+                level++;
+            } else if (isCloser(c.s, c.i, start)) {
+                level--;
+            }
         }
-        
-        Operator op = memory.getOperator(s0);
+        final int end = c.i;
+        if (end == start) {
+            throw c.error("missing term");
+        }
+        if (level != 0) {
+            throw c.error("missing closer", start);
+        }
+
+        if (Parameters.FUNCTIONAL_OPERATIONAL_FORMAT && (open != -1) && (c.at(end - 1) == ')')) {
+
+            //parse functional operation:
+            //  function()
+            //  function(a)
+            //  function(a,b)
+
+            String operatorString = Operator.addPrefixIfMissing(c.text(start, open));
+
+            Operator operator = memory.getOperator(operatorString);
+
+            if (operator == null) {
+                //???
+                throw c.error("Unknown operator: " + operatorString, start);
+            }
+
+            Term[] a;
+            if (end - open > 2) {
+                final int after = c.end;
+                c.i = open + 1;
+                c.end = end;
+                ArrayList<Term> args = parseArguments(c, COMPOUND_TERM_CLOSER, "operation", open);
+                if (c.i != end) {
+                    throw c.error("unexpected '" + c.at(c.i) + "' after arguments");
+                }
+                c.end = after;
+                a = args.toArray(new Term[args.size()]);
+            }
+            else {
+                //void "()" arguments, default to (SELF)
+                a = Operation.SELF_TERM_ARRAY;
+            }
+
+            return Operation.make(operator, a, true);
+        }
+
+        final String s = c.text(start, end);
+        Operator op = memory.getOperator(s);
         if(op != null) {
             return op;
         }
-        
-        if (s.contains(" ")) { // invalid characters in a name
-            throw new InvalidInputException("invalid term");
-        }
-        
-        char c = s.charAt(0);
-        if (c == Symbols.INTERVAL_PREFIX) {
-            return Interval.interval(s);
+
+        if (s.indexOf(' ') != -1) { // invalid characters in a name
+            throw c.error("invalid term", start);
         }
- 
-        if (containVar(s) && !s.equals("#")) {
-            return new Variable(s);
-        } else {
-            return Term.get(s);
+
+        try {
+            if (s.charAt(0) == Symbols.INTERVAL_PREFIX) {
+                return Interval.interval(s);
+            }
+
+            if (containVar(s) && !s.equals("#")) {
+                return new Variable(s);
+            } else {
+                return Term.get(s);
+            }
+        } catch (RuntimeException e) {
+            throw c.error("invalid term: " + e.getMessage(), start);
         }
     }
 
     /**
-     * Parse a String to create a Statement.
+     * Parse a Statement, after its opener
      *
      * @return the Statement generated from the String
-     * @param s0 The addInput String to be parsed
+     * @param start position of the opener
      * @throws nars.io.StringParser.InvalidInputException the String cannot be
      * parsed into a Term
      */
-    private Statement parseStatement(String s0) throws InvalidInputException {
-        String s = s0.trim();
-        int i = topRelation(s);
-        if (i < 0) {
-            throw new InvalidInputException("invalid statement: topRelation(s) < 0");
-        }
-        String relation = s.substring(i, i + 3);
-        Term subject = parseTerm(s.substring(0, i));
-        Term predicate = parseTerm(s.substring(i + 3));
-        Statement t = make(getRelation(relation), subject, predicate, false, 0);
+    private Statement parseStatement(final Cursor c, final int start) throws InvalidInputException {
+        Term subject = term(c);
+        c.skipSpace();
+        final NativeOperator relation = relationAt(c.s, c.i, c.end);
+        if (relation == null) {
+            throw c.error("invalid statement: missing relation");
+        }
+        c.i += 3;
+        Term predicate = term(c);
+        c.skipSpace();
+        if ((c.i == c.end) || (c.at(c.i) != STATEMENT_CLOSER.ch)) {
+            throw c.error("missing Statement closer");
+        }
+        c.i++;
+        Statement t = make(relation, subject, predicate, false, 0);
         if (t == null) {
-            throw new InvalidInputException("invalid statement: statement unable to create: " + getOperator(relation) + " " + subject + " " + predicate);
+            throw c.error("invalid statement: statement unable to create: " + relation + " " + subject + " " + predicate, start);
         }
         return t;
     }
 
     /**
-     * Parse a String to create a CompoundTerm.
+     * Parse a CompoundTerm, after its opener
      *
      * @return the Term generated from the String
-     * @param s0 The String to be parsed
+     * @param start position of the opener
      * @throws nars.io.StringParser.InvalidInputException the String cannot be
      * parsed into a Term
      */
-    private Term parseCompoundTerm(final String s0) throws InvalidInputException {
-        String s = s0.trim();
-        if (s.isEmpty()) {
-            throw new InvalidInputException("Empty compound term: " + s);
-        }
-        int firstSeparator = s.indexOf(ARGUMENT_SEPARATOR);
-        if (firstSeparator == -1) {
-            throw new InvalidInputException("Invalid compound term (missing ARGUMENT_SEPARATOR): " + s);
-        }
-                
-        String op = (firstSeparator < 0) ? s : s.substring(0, firstSeparator).trim();
-        NativeOperator oNative = getOperator(op);
-        Operator oRegistered = memory.getOperator(op);
-        
+    private Term parseCompoundTerm(final Cursor c, final int start) throws InvalidInputException {
+        c.skipSpace();
+        final int opStart = c.i;
+        while ((c.i < c.end) && (c.at(c.i) != ARGUMENT_SEPARATOR) && (c.at(c.i) != COMPOUND_TERM_CLOSER.ch)) {
+            c.i++;
+        }
+        if ((c.i == c.end) || (c.at(c.i) != ARGUMENT_SEPARATOR)) {
+            throw c.error((opStart == c.i) ? "Empty compound term" : "Invalid compound term (missing ARGUMENT_SEPARATOR)", start);
+        }
+        final int opEnd = c.trimmedEnd(opStart, c.i);
+        c.i++;
+
+        NativeOperator oNative = (opEnd - opStart == 1) ? getOperator(c.at(opStart)) : null;
+        String op = null;
+        if (oNative == null) {
+            op = c.text(opStart, opEnd);
+            oNative = getOperator(op);
+        }
+        Operator oRegistered = (oNative == null) ? memory.getOperator(op) : null;
+
         if ((oRegistered==null) && (oNative == null)) {
-            throw new InvalidInputException("Unknown operator: " + op);
+            throw c.error("Unknown operator: " + op, opStart);
         }
 
-        ArrayList<Term> arg = (firstSeparator < 0) ? new ArrayList<>(0)
-                : parseArguments(s.substring(firstSeparator + 1) + ARGUMENT_SEPARATOR);
+        ArrayList<Term> arg = parseArguments(c, COMPOUND_TERM_CLOSER, "CompoundTerm", start);
 
         Term[] argA = arg.toArray(new Term[arg.size()]);
-        
-        Term t;
-        
+
         if (oNative!=null) {
-            t = Terms.term(oNative, argA);
-        }
-        else if (oRegistered!=null) {
-            t = make(oRegistered, argA, true);
+            return Terms.term(oNative, argA);
         }
-        else {
-            throw new InvalidInputException("Invalid compound term");
-        }
-        
-        return t;
+        return make(oRegistered, argA, true);
     }
 
     /**
-     * Parse a String into the argument get of a CompoundTerm.
+     * Parse the arguments of a CompoundTerm, up to and including its closer
      *
      * @return the arguments in an ArrayList
-     * @param s0 The String to be parsed
+     * @param closer the closer ending the arguments
+     * @param name of the term, for errors
+     * @param start position of the opener
      * @throws nars.io.StringParser.InvalidInputException the String cannot be
      * parsed into an argument get
      */
-    private ArrayList<Term> parseArguments(String s0) throws InvalidInputException {
-        String s = s0.trim();
+    private ArrayList<Term> parseArguments(final Cursor c, final NativeOperator closer, final String name, final int start) throws InvalidInputException {
         ArrayList<Term> list = new ArrayList<>();
-        int start = 0;
-        int end = 0;
-        Term t;
-        while (end < s.length() - 1) {
-            end = nextSeparator(s, start);
-            if (end == start)
-                break;
-            t = parseTerm(s.substring(start, end));     // recursive call
-            list.add(t);
-            start = end + 1;
-        }
-        if (list.isEmpty()) {
-            throw new InvalidInputException("null argument");
+        while (true) {
+            list.add(term(c));     // recursive call
+            c.skipSpace();
+            if (c.i == c.end) {
+                throw c.error("missing " + name + " closer", start);
+            }
+            final char ch = c.at(c.i++);
+            if (ch == closer.ch) {
+                return list;
+            }
+            if (ch != ARGUMENT_SEPARATOR) {
+                throw c.error("expected '" + ARGUMENT_SEPARATOR + "' or '" + closer + "'", c.i - 1);
+            }
         }
-        return list;
     }
 
-    /* ---------- locate top-level substring ---------- */
-    /**
-     * Locate the first top-level separator in a CompoundTerm
-     *
-     * @return the index of the next seperator in a String
-     * @param s The String to be parsed
-     * @param first The starting index
-     */
-    private static int nextSeparator(String s, int first) {
-        int levelCounter = 0;
-        int i = first;
-        while (i < s.length() - 1) {
-            if (isOpener(s, i)) {
-                levelCounter++;
-            } else if (isCloser(s, i)) {
-                levelCounter--;
-            } else if (s.charAt(i) == ARGUMENT_SEPARATOR) {
-                if (levelCounter == 0) {
-                    break;
-                }
+    /* ---------- recognize symbols ---------- */
+
+    /** relations, all of 3 characters */
+    private static final NativeOperator[] relations;
+    /** whether a character can begin a relation */
+    private static final boolean[] relationStart = new boolean[128];
+    static {
+        final ArrayList<NativeOperator> r = new ArrayList<>();
+        for (final NativeOperator o : NativeOperator.values()) {
+            if (o.relation) {
+                r.add(o);
+                relationStart[o.symbol.charAt(0)] = true;
             }
-            i++;
         }
-        return i;
+        relations = r.toArray(new NativeOperator[r.size()]);
     }
 
     /**
-     * locate the top-level getRelation in a statement
+     * Recognize the relation beginning at a position
      *
-     * @return the index of the top-level getRelation
-     * @param s The String to be parsed
+     * @return the relation, or null if there is none
+     * @param s The text to be checked
+     * @param i The starting index
+     * @param end The end of the text
      */
-    private static int topRelation(final String s) {      // need efficiency improvement
-        int levelCounter = 0;
-        int i = 0;
-        while (i < s.length() - 3) {    // don't need to check the last 3 characters
-            if ((levelCounter == 0) && (isRelation(s.substring(i, i + 3)))) {
-                return i;
-            }
-            if (isOpener(s, i)) {
-                levelCounter++;
-            } else if (isCloser(s, i)) {
-                levelCounter--;
+    private static NativeOperator relationAt(final CharSequence s, final int i, final int end) {
+        if ((i + 3 > end) || (i < 0)) {
+            return null;
+        }
+        final char c = s.charAt(i);
+        if ((c >= relationStart.length) || !relationStart[c]) {
+            return null;
+        }
+        final char c1 = s.charAt(i + 1), c2 = s.charAt(i + 2);
+        for (final NativeOperator r : relations) {
+            final String x = r.symbol;
+            if ((x.charAt(0) == c) && (x.charAt(1) == c1) && (x.charAt(2) == c2)) {
+                return r;
             }
-            i++;
         }
-        return -1;
+        return null;
     }
 
-    /* ---------- recognize symbols ---------- */
     /**
      * Check CompoundTerm opener symbol
      *
      * @return if the given String is an opener symbol
      * @param s The String to be checked
      * @param i The starting index
+     * @param end The end of the text
      */
-    private static boolean isOpener(final String s, final int i) {
-        char c = s.charAt(i);
-        
-        boolean b = (getOpener(c)!=null);
-        if (!b)
+    private static boolean isOpener(final CharSequence s, final int i, final int end) {
+        if (getOpener(s.charAt(i)) == null)
             return false;
-        
-        return i + 3 > s.length() || !isRelation(s.substring(i, i + 3));
+
+        return relationAt(s, i, end) == null;
     }
 
     /**
@@ -617,15 +933,13 @@ public class Narsese implements Serializable {
      * @return if the given String is a closer symbol
      * @param s The String to be checked
      * @param i The starting index
+     * @param start The beginning of the text
      */
-    private static boolean isCloser(String s, int i) {
-        char c = s.charAt(i);
-
-        boolean b = (getCloser(c)!=null);
-        if (!b)
+    private static boolean isCloser(final CharSequence s, final int i, final int start) {
+        if (getCloser(s.charAt(i)) == null)
             return false;
-        
-        return i < 2 || !isRelation(s.substring(i - 2, i + 1));
+
+        return (i - 2 < start) || (relationAt(s, i - 2, i + 1) == null);
     }
 
     public static boolean possiblyNarsese(String s) {
@@ -634,6 +948,6 @@ public class Narsese implements Serializable {
         }
         return false;
     }
-            
-    
+
+
 }
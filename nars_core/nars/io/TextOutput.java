@@ -41,6 +41,8 @@ import nars.io.Output.IN;
 import nars.io.Output.OUT;
 import nars.language.Statement;
 import nars.operator.Operator;
+import nars.util.AsyncObserver;
+import nars.util.EventEmitter.EventObserver;
 
 /**
  * To read and write experience as Task streams
@@ -58,6 +60,8 @@ public class TextOutput extends Output implements Serializable {
     private boolean showStamp = true;
     private boolean showInput = true;
     private float minPriority = 0;
+    /** writes the lines on a thread of its own, after setAsync */
+    private AsyncObserver writer = null;
 
     public interface LineOutput {
         public void println(String s);
@@ -111,10 +115,52 @@ public class TextOutput extends Output implements Serializable {
      * Close an output experience file
      */
     public void closeSaveFile() {
+        flush();
         outExp.close();
         stop();
     }
 
+    /**
+     * Writes the lines on a thread of their own, queued in an AsyncObserver.
+     * The text is still formatted on the emitting thread, so that tenses are
+     * shown relative to the time of the output; only the writing (and
+     * flushing) no longer holds up the reasoner.
+     */
+    @Override
+    public void setAsync(final NAR n, final int capacity, final AsyncObserver.Overflow overflow) {
+        if (writer != null)
+            return;
+        writer = new AsyncObserver(n.memory.event, n.memory.metrics, n.param.metrics, new EventObserver() {
+            @Override public void event(final Class channel, final Object[] line) {
+                write((String) line[0]);
+            }
+        }, capacity).overflow(overflow);
+        if (!active)
+            writer.setActive(false);
+    }
+
+    /** when deactivated, the queued lines are written first and the writer thread ends */
+    @Override
+    public void setActive(final boolean b) {
+        super.setActive(b);
+        if (writer != null) {
+            if (!b)
+                flush();
+            writer.setActive(b);
+        }
+    }
+
+    /** waits until the lines output so far are written, when they are written asynchronously */
+    public void flush() {
+        if (writer != null) {
+            try {
+                writer.flush(0);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     /**
      * Process the next chunk of output data
      *
@@ -132,17 +178,26 @@ public class TextOutput extends Output implements Serializable {
             Object o = oo[0];
             final String s = process(channel, o);
             if (s!=null) {
-                if (outExp != null) {
-                    outExp.println(prefix + s);
-                    outExp.flush();
+                if (writer != null) {
+                    writer.event(channel, new Object[] { prefix + s });
                 }
-                if (outExp2 != null) {
-                    outExp2.println(prefix + s);            
+                else {
+                    write(prefix + s);
                 }
             }
         }
     }
     
+    private void write(final String line) {
+        if (outExp != null) {
+            outExp.println(line);
+            outExp.flush();
+        }
+        if (outExp2 != null) {
+            outExp2.println(line);            
+        }
+    }
+    
     final StringBuilder result = new StringBuilder(16 /* estimate */);
     
     public String process(final Class c, final Object o) {
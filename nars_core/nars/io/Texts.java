@@ -277,10 +277,10 @@ public class Texts {
     }
 
     final static Format fourDecimal = new DecimalFormat("0.0000");
-    public static final String n4(final float x) { return fourDecimal.format(x);     }
+    public static final String n4(final float x) { synchronized (fourDecimal) { return fourDecimal.format(x); } }
 
     final static Format twoDecimal = new DecimalFormat("0.00");    
-    public static final String n2Slow(final float x) { return twoDecimal.format(x);     }
+    public static final String n2Slow(final float x) { synchronized (twoDecimal) { return twoDecimal.format(x); } }
 
     public static long thousandths(final float d) {
         return (long) ((d * 1000f + 0.5f));
@@ -316,7 +316,7 @@ public class Texts {
     }
     
     final static Format oneDecimal = new DecimalFormat("0.0");    
-    public static final String n1(final float x) { return oneDecimal.format(x);     }
+    public static final String n1(final float x) { synchronized (oneDecimal) { return oneDecimal.format(x); } }
 
     public static int compareTo(final CharSequence s, final CharSequence t) {
         if ((s instanceof String) && (t instanceof String)) {
@@ -20,6 +20,8 @@
  */
 package nars.language;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.collect.Iterators;
 import java.nio.CharBuffer;
 import java.util.*;
@@ -56,8 +58,19 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
     private boolean hasVariables, hasVarQueries, hasVarIndeps, hasVarDeps, hasIntervals;
     
     int containedTemporalRelations = -1;
+    
+    /** structural hash, computed lazily from operator, temporal order and the
+     *  term hashes; 0 until computed, reset together with the name */
     int hash;
     private boolean normalized;
+
+    /** whether this compound may be shared through the intern table: no variables,
+     *  intervals or term indices anywhere inside, which are the only things that
+     *  get replaced in place after construction */
+    boolean internable;
+
+    /** hash-consing table of ground compounds; weak, so unused terms are collected */
+    private static final Interner<CompoundTerm> interned = Interners.newWeakInterner();
     
 
     /**
@@ -143,6 +156,7 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
 
         this.complexity = 1;
         this.hasVariables = this.hasVarDeps = this.hasVarIndeps = this.hasVarQueries = false;
+        this.internable = true;
         
         if(this.term_indices == null) {
             ConvRectangle rect = UpdateConvRectangle(term);
@@ -157,7 +171,9 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
             hasVarIndeps |= t.hasVarIndep();
             hasVarQueries |= t.hasVarQuery();
             hasIntervals |= t.hasInterval();
+            internable &= (t instanceof CompoundTerm) ? ((CompoundTerm)t).internable : (t.term_indices == null);
         }
+        internable &= !hasVariables && !hasIntervals && (this.term_indices == null);
         
         invalidateName();        
         
@@ -168,6 +184,7 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
     
     public void invalidateName() {        
         this.name = null; //invalidate name so it will be (re-)created lazily        
+        this.hash = 0;
         for (Term t : term) {
             if (t.hasVar())
                 if (t instanceof CompoundTerm)
@@ -176,6 +193,21 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
         setNormalized(false);
     }
 
+    /**
+     * Returns the shared instance structurally equal to a newly made compound,
+     * so equal ground compounds are represented by one object and equals()
+     * usually succeeds on identity.  Compounds which may still be modified in
+     * place are returned as they are.
+     */
+    public static <T extends CompoundTerm> T intern(final T c) {
+        if (!Parameters.COMPOUND_TERM_INTERNING || !c.internable)
+            return c;
+        final CompoundTerm i = interned.intern(c);
+        if (i.getClass() != c.getClass())
+            return c;
+        return (T)i;
+    }
+
     /** Must be Term return type because the type of Term may change with different arguments */
     abstract public Term clone(final Term[] replaced);
     
@@ -208,18 +240,23 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
     }
     
     static Interval conceptival = interval(1);
-    private static void ReplaceIntervals(CompoundTerm comp) {
+    /** @return whether comp was changed; its enclosing terms need to be invalidated too */
+    private static boolean ReplaceIntervals(CompoundTerm comp) {
+        boolean changed = false;
         for(int i=0; i<comp.term.length; i++) {
             Term t = comp.term[i];
             if(t instanceof Interval) {
                 comp.term[i] = conceptival;
-                comp.invalidateName();
+                changed = true;
             }
             else
             if(t instanceof CompoundTerm) {
-                ReplaceIntervals((CompoundTerm) t);
+                changed |= ReplaceIntervals((CompoundTerm) t);
             }
         }
+        if (changed)
+            comp.invalidateName();
+        return changed;
     }
 
     public static Term replaceIntervals(Term T) {
@@ -265,6 +302,7 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
             vars.put(Symbols.VAR_INDEPENDENT+String.valueOf(i), new Variable(Symbols.VAR_DEPENDENT+String.valueOf(i)));
         }
         transformIndependentVariableToDependent(vars, T);
+        T.invalidateName();
         return T;
     }
 
@@ -743,14 +781,26 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
 
 
 
+    /**
+     * Structural hash, which does not need the name.  Variables contribute
+     * their name only, like they do to the name of the compound; their own
+     * hashCode() includes the scope, which may be this compound.
+     */
     @Override
     public int hashCode() {
-        if (!Parameters.TERM_ELEMENT_EQUIVALENCY) {
-            return name().hashCode();
+        if (hash == 0) {
+            hash = makeHash();
         }
-        else {
-            return hash;
+        return hash;
+    }
+
+    /** computes the structural hash; subclasses with additional state extend it */
+    protected int makeHash() {
+        int h = 31 * operator().ordinal() + getTemporalOrder();
+        for (final Term t : term) {
+            h = 31 * h + ((t instanceof Variable) ? t.name().hashCode() : t.hashCode());
         }
+        return h;
     }
 
     @Override
@@ -784,14 +834,15 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
                 super.compareTo(that);
     }
     
+    /** structural equality, consistent with comparing the names */
     @Override
     public boolean equals(final Object that) {
         if (that==this) return true;                
-        if (!(that instanceof Term))
+        if (!(that instanceof CompoundTerm))
+            return false;
+        if (hashCode() != that.hashCode())
             return false;
-        if (Parameters.TERM_ELEMENT_EQUIVALENCY)
-            return equalsByTerm(that);
-        return name().equals(((Term)that).name());
+        return equalsByTerm(that);
     }
     
     public boolean equalsByTerm(final Object that) {
@@ -818,7 +869,13 @@ public abstract class CompoundTerm extends Term implements Iterable<Term> {
             return false;
 
         for (int i = 0; i < term.length; i++) {            
-            if (!term[i].equals(t.term[i]))
+            final Term a = term[i], b = t.term[i];
+            if (a instanceof Variable) {
+                //compared by name, as in the name of the compound
+                if (!(b instanceof Variable) || !a.name().equals(b.name()))
+                    return false;
+            }
+            else if (!a.equals(b))
                 return false;
         }
 
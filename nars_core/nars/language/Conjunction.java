@@ -232,7 +232,7 @@ public class Conjunction extends CompoundTerm {
             if(newArgList.length == 1) {
                 return newArgList[0];
             }
-            return new Conjunction(newArgList, temporalOrder, false, spatial);
+            return intern(new Conjunction(newArgList, temporalOrder, false, spatial));
             
         } 
         else {
@@ -259,7 +259,7 @@ public class Conjunction extends CompoundTerm {
                 return set.first();
             }
             
-            return new Conjunction(set.toArray(new Term[set.size()] ), temporalOrder, false, spatial, rect);
+            return intern(new Conjunction(set.toArray(new Term[set.size()] ), temporalOrder, false, spatial, rect));
         }
     }
 
@@ -90,7 +90,7 @@ public class DifferenceInt extends CompoundTerm {
             return null;
         }
             
-        return new DifferenceInt(arg);
+        return intern(new DifferenceInt(arg));
     }
 
     /**
@@ -1,7 +1,5 @@
 package nars.language;
 
-import java.util.Objects;
-import nars.config.Parameters;
 import nars.io.Symbols;
 import nars.io.Symbols.NativeOperator;
 import static nars.io.Symbols.NativeOperator.COMPOUND_TERM_CLOSER;
@@ -26,18 +24,8 @@ abstract public class Image extends CompoundTerm {
     }
 
     @Override
-    protected void init(Term[] components) {
-        super.init(components);
-        this.hash = Objects.hash(super.hashCode(), relationIndex); 
-    }
-
-    
-    @Override
-    public int hashCode() {
-        if (Parameters.TERM_ELEMENT_EQUIVALENCY)
-            return hash;        
-        else
-            return super.hashCode();
+    protected int makeHash() {
+        return 31 * super.makeHash() + relationIndex;
     }
 
     @Override
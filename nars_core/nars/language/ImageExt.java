@@ -57,7 +57,7 @@ public class ImageExt extends Image {
         if (replaced.length != term.length)
             throw new RuntimeException("Replaced terms not the same amount as existing terms (" + term.length + "): " + Arrays.toString(replaced));
         
-        return new ImageExt(replaced, relationIndex);
+        return intern(new ImageExt(replaced, relationIndex));
     }
     
 
@@ -84,7 +84,7 @@ public class ImageExt extends Image {
             }
             n++;
         }
-        return new ImageExt(argument, (short) index);
+        return intern(new ImageExt(argument, (short) index));
     }
 
     /**
@@ -108,7 +108,7 @@ public class ImageExt extends Image {
         }
         Term[] argument = product.cloneTerms(); //TODO is this clone needed?
         argument[index] = relation;
-        return new ImageExt(argument, index);
+        return intern(new ImageExt(argument, index));
     }
 
     /**
@@ -124,7 +124,7 @@ public class ImageExt extends Image {
         Term relation = argList[oldIndex];
         argList[oldIndex] = component;
         argList[index] = relation;
-        return new ImageExt(argList, index);
+        return intern(new ImageExt(argList, index));
     }
 
 
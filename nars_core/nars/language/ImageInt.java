@@ -59,7 +59,7 @@ public class ImageInt extends Image {
         if (replaced.length != term.length)
             throw new RuntimeException("Replaced terms not the same amount as existing terms (" + term.length + "): " + Arrays.toString(replaced));
         
-        return new ImageInt(replaced, relationIndex);
+        return intern(new ImageInt(replaced, relationIndex));
     }
         
     
@@ -138,7 +138,7 @@ public class ImageInt extends Image {
      * @return the Term generated from the arguments
      */
     public static ImageInt make(final Term[] argument, final short index) {        
-        return new ImageInt(argument, index);
+        return intern(new ImageInt(argument, index));
     }
     
 
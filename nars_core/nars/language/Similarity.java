@@ -82,7 +82,7 @@ public class Similarity extends Statement {
             return make(predicate, subject);
         }        
         
-        return new Similarity(subject, predicate);
+        return intern(new Similarity(subject, predicate));
     }
 
     /**
@@ -22,6 +22,7 @@ package nars.language;
 
 import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import nars.storage.Memory;
 import nars.config.Parameters;
@@ -41,7 +42,7 @@ import nars.operator.Operator;
  * exists. Multiple objects may represent the same Term.
  */
 public class Term implements AbstractTerm, Serializable {
-    private static final Map<CharSequence,Term> atoms = new HashMap();
+    private static final Map<CharSequence,Term> atoms = new ConcurrentHashMap();
 
     final public static Term SELF = SetExt.make(Term.get("SELF"));
     final public static Term SEQ_SPATIAL = Term.get("#");
@@ -106,7 +106,7 @@ public class Terms {
      */
     public static Term term(final CompoundTerm compound, final Term[] components) {
         if (compound instanceof ImageExt) {
-            return new ImageExt(components, ((Image) compound).relationIndex);
+            return CompoundTerm.intern(new ImageExt(components, ((Image) compound).relationIndex));
         } else if (compound instanceof ImageInt) {
             return ImageInt.make(components, ((Image) compound).relationIndex);
         } else {
@@ -148,7 +148,7 @@ public class Terms {
             case INHERITANCE:
                 return Inheritance.make(a[0], a[1]);
             case PRODUCT:
-                return new Product(a);
+                return CompoundTerm.intern(new Product(a));
             case IMAGE_EXT:
                 return ImageExt.make(a);
             case IMAGE_INT:
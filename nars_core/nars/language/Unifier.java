@@ -0,0 +1,417 @@
+package nars.language;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import nars.inference.TemporalRules;
+import nars.io.Symbols;
+
+/**
+ * Unification of two terms, as Variables.findSubstitute, into a substitution
+ * store made of flat arrays instead of a pair of HashMaps.
+ * <p>
+ * Each binding is appended to a trail, tagged with the side (0 for the first
+ * term, 1 for the second) whose variables it substitutes; a lookup finds the
+ * latest binding of a variable, so rebinding works as Map.put.  A failed
+ * attempt is undone by truncating the trail back to a mark.  The result is
+ * read with get() or applied with apply(), without building maps.
+ * <p>
+ * One instance per thread, see get(); its content is valid until the next
+ * unification on the same thread.
+ */
+public final class Unifier {
+
+    private static final ThreadLocal<Unifier> local = new ThreadLocal<Unifier>() {
+        @Override protected Unifier initialValue() {
+            return new Unifier();
+        }
+    };
+
+    /** the Unifier of the current thread */
+    public static Unifier get() {
+        return local.get();
+    }
+
+    /**
+     * Makes the unifications of the current thread draw from the random
+     * number generator of the Memory reasoning on it, so that they repeat
+     * with its seed
+     */
+    public static void use(final Random random) {
+        local.get().random = random;
+    }
+
+    /** orders the components of commutative compounds */
+    private Random random = new Random(1);
+
+    private Term[] keys = new Term[16];
+    private Term[] values = new Term[16];
+    private int[] hashes = new int[16];
+    private byte[] sides = new byte[16];
+    private int size = 0;
+    private final int[] sideSize = new int[2];
+
+    /* bindings of the offset being tried in allowPartial mode */
+    private Term[] pendingKeys = new Term[8];
+    private Term[] pendingValues = new Term[8];
+    private byte[] pendingSides = new byte[8];
+    private int pending = 0;
+
+    /** removes all bindings */
+    public void clear() {
+        undo(0);
+    }
+
+    /** @return the current position of the trail, to undo() back to */
+    public int mark() {
+        return size;
+    }
+
+    /** removes the bindings made since a mark */
+    public void undo(final int mark) {
+        for (int i = mark; i < size; i++) {
+            sideSize[sides[i]]--;
+            keys[i] = values[i] = null;
+        }
+        size = mark;
+    }
+
+    /** @return number of bindings of a side */
+    public int size(final int side) {
+        return sideSize[side];
+    }
+
+    /** @return the latest binding of a term on a side, or null */
+    public Term get(final int side, final Term key) {
+        final int h = key.hashCode();
+        for (int i = size - 1; i >= 0; i--) {
+            if ((sides[i] == side) && (hashes[i] == h)) {
+                final Term k = keys[i];
+                if ((k == key) || k.equals(key)) {
+                    return values[i];
+                }
+            }
+        }
+        return null;
+    }
+
+    public void put(final int side, final Term key, final Term value) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+            sides = Arrays.copyOf(sides, size * 2);
+        }
+        keys[size] = key;
+        values[size] = value;
+        hashes[size] = key.hashCode();
+        sides[size] = (byte) side;
+        sideSize[side]++;
+        size++;
+    }
+
+    /** adds the entries of a map as bindings of a side */
+    public void putAll(final int side, final Map<Term, Term> map) {
+        if (map != null) {
+            for (final Map.Entry<Term, Term> e : map.entrySet()) {
+                put(side, e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    /** puts the bindings of a side into a map, the latest last */
+    public void copyTo(final int side, final Map<Term, Term> map) {
+        for (int i = 0; i < size; i++) {
+            if (sides[i] == side) {
+                map.put(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Applies the bindings of a side to a compound, as
+     * CompoundTerm.applySubstitute with the corresponding map
+     *
+     * @return the substituted term, the compound itself if nothing changed, or
+     * null if the result is not a valid term
+     */
+    public Term apply(final int side, final CompoundTerm t) {
+        if (sideSize[side] == 0) {
+            return t;
+        }
+        final Term[] term = t.term;
+        Term[] tt = null;
+        boolean modified = false;
+
+        for (int i = 0; i < term.length; i++) {
+            final Term t1 = term[i];
+            Term r = t1;
+            Term t2 = get(side, t1);
+            if (t2 != null) {
+                Term next;
+                while ((next = get(side, t2)) != null) {
+                    t2 = next;
+                }
+                //prevents infinite recursion
+                if (!t2.containsTerm(t1)) {
+                    r = t2;
+                    modified = true;
+                }
+            } else if (t1 instanceof CompoundTerm) {
+                final Term ss = apply(side, (CompoundTerm) t1);
+                if (ss != null) {
+                    r = ss;
+                    if (!ss.equals(t1)) {
+                        modified = true;
+                    }
+                }
+            }
+            if (r != t1) {
+                if (tt == null) {
+                    tt = term.clone();
+                }
+                tt[i] = r;
+            }
+        }
+        if (!modified) {
+            return t;
+        }
+        if (t.isCommutative()) {
+            Arrays.sort(tt);
+        }
+        return t.clone(tt);
+    }
+
+    /**
+     * Adds the bindings which unify two terms, as Variables.findSubstitute.
+     * On failure the bindings made before the failing subterm remain, like in
+     * the maps of findSubstitute.
+     *
+     * @param allowPartial whether a forward conjunction may match part of a longer one
+     */
+    public boolean unify(final char type, final Term term1, final Term term2, final boolean allowPartial) {
+        if (allowPartial && (term1 instanceof Conjunction) && (term2 instanceof Conjunction)) {
+            final Conjunction c1 = (Conjunction) term1;
+            final Conjunction c2 = (Conjunction) term2;
+            //more effective matching for NLP
+            if ((c1.getTemporalOrder() == TemporalRules.ORDER_FORWARD) &&
+                    (c2.getTemporalOrder() == TemporalRules.ORDER_FORWARD) &&
+                    (c1.size() < c2.size()) && partial(type, c1, c2)) {
+                return true;
+            }
+        }
+        return unify(type, term1, term2);
+    }
+
+    /** finds an offset in c2 at which each component of c1 unifies */
+    private boolean partial(final char type, final Conjunction c1, final Conjunction c2) {
+        final int base = size;
+        for (int k = 0; k < (c2.term.length - c1.term.length); k++) {
+            pending = 0;
+            boolean succeeded = true;
+            for (int i = 0; i < c1.term.length; i++) {
+                //each component is unified with the bindings from before the
+                //conjunction, and the last one to mention a variable bound
+                //before determines its value
+                if (!unify(type, c1.term[i], c2.term[k + i])) {
+                    undo(base);
+                    succeeded = false;
+                    break;
+                }
+                dropPendingBoundBefore(base);
+                for (int j = base; j < size; j++) {
+                    addPending(keys[j], values[j], sides[j]);
+                }
+                undo(base);
+            }
+            if (succeeded) {
+                for (int j = 0; j < pending; j++) {
+                    put(pendingSides[j], pendingKeys[j], pendingValues[j]);
+                }
+                pending = 0;
+                return true;
+            }
+        }
+        pending = 0;
+        return false;
+    }
+
+    /** removes pending bindings of the terms which were bound before a mark */
+    private void dropPendingBoundBefore(final int base) {
+        int n = 0;
+        for (int j = 0; j < pending; j++) {
+            if (!boundBefore(base, pendingSides[j], pendingKeys[j])) {
+                pendingKeys[n] = pendingKeys[j];
+                pendingValues[n] = pendingValues[j];
+                pendingSides[n] = pendingSides[j];
+                n++;
+            }
+        }
+        for (int j = n; j < pending; j++) {
+            pendingKeys[j] = pendingValues[j] = null;
+        }
+        pending = n;
+    }
+
+    private boolean boundBefore(final int mark, final int side, final Term key) {
+        final int h = key.hashCode();
+        for (int i = mark - 1; i >= 0; i--) {
+            if ((sides[i] == side) && (hashes[i] == h) && ((keys[i] == key) || keys[i].equals(key))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addPending(final Term key, final Term value, final byte side) {
+        if (pending == pendingKeys.length) {
+            pendingKeys = Arrays.copyOf(pendingKeys, pending * 2);
+            pendingValues = Arrays.copyOf(pendingValues, pending * 2);
+            pendingSides = Arrays.copyOf(pendingSides, pending * 2);
+        }
+        pendingKeys[pending] = key;
+        pendingValues[pending] = value;
+        pendingSides[pending] = side;
+        pending++;
+    }
+
+    private boolean unify(final char type, final Term term1, final Term term2) {
+        boolean term1HasVar = term1.hasVar(type);
+        if (type == Symbols.VAR_INDEPENDENT) {
+            term1HasVar |= term1.hasVarDep();
+            term1HasVar |= term1.hasVarQuery();
+        }
+        if (type == Symbols.VAR_DEPENDENT) {
+            term1HasVar |= term1.hasVarQuery();
+        }
+        final boolean term2HasVar = term2.hasVar(type);
+
+        final boolean term1Var = term1 instanceof Variable;
+        final boolean term2Var = term2 instanceof Variable;
+
+        final boolean termsEqual = term1.equals(term2);
+        if (!term1Var && !term2Var && termsEqual) {
+            return true;
+        }
+
+        //variable "renaming" to variable of same type is always valid
+        if (term1Var && term2Var) {
+            final Variable v1 = (Variable) term1;
+            final Variable v2 = (Variable) term2;
+            if (v1.getType() == v2.getType()) {
+                final Variable commonVar = Variables.makeCommonVariable(term1, term2);
+                put(0, v1, commonVar);
+                put(1, v2, commonVar);
+                return true;
+            }
+        }
+        if (term1Var && Variables.allowUnification(((Variable) term1).getType(), type)) {
+            final Variable var1 = (Variable) term1;
+            final Term t = get(0, var1);
+            if (t != null) {
+                return unify(type, t, term2);
+            }
+            if (term2Var && Variables.allowUnification(((Variable) term2).getType(), type)) {
+                final Variable commonVar = Variables.makeCommonVariable(term1, term2);
+                put(0, var1, commonVar);
+                put(1, term2, commonVar);
+            } else {
+                if (term2Var && ((((Variable) term2).getType() == Symbols.VAR_QUERY) != (var1.getType() == Symbols.VAR_QUERY))) {
+                    return false;
+                }
+                put(0, var1, term2);
+                if (var1.isCommon()) {
+                    put(1, var1, term2);
+                }
+            }
+            return true;
+        } else if (term2Var && Variables.allowUnification(((Variable) term2).getType(), type)) {
+            final Variable var2 = (Variable) term2;
+            final Term t = get(1, var2);
+            if (t != null) {
+                return unify(type, term1, t);
+            }
+            put(1, var2, term1);
+            if (var2.isCommon()) {
+                put(0, var2, term1);
+            }
+            return true;
+        } else if ((term1HasVar || term2HasVar) && (term1 instanceof CompoundTerm) && term1.getClass().equals(term2.getClass())) {
+            final CompoundTerm cTerm1 = (CompoundTerm) term1;
+            final CompoundTerm cTerm2 = (CompoundTerm) term2;
+
+            //consider temporal order on term matching
+            if (term1 instanceof Conjunction) {
+                if ((((Conjunction) term1).getTemporalOrder() != ((Conjunction) term2).getTemporalOrder()) ||
+                        (((Conjunction) term1).getIsSpatial() != ((Conjunction) term2).getIsSpatial())) {
+                    return false;
+                }
+            }
+            if ((term1 instanceof Implication) && (((Implication) term1).getTemporalOrder() != ((Implication) term2).getTemporalOrder())) {
+                return false;
+            }
+            if ((term1 instanceof Equivalence) && (((Equivalence) term1).getTemporalOrder() != ((Equivalence) term2).getTemporalOrder())) {
+                return false;
+            }
+
+            if (cTerm1.size() != cTerm2.size()) {
+                return false;
+            }
+            if (((cTerm1 instanceof ImageExt) && (((ImageExt) cTerm1).relationIndex != ((ImageExt) cTerm2).relationIndex)) ||
+                    ((cTerm1 instanceof ImageInt) && (((ImageInt) cTerm1).relationIndex != ((ImageInt) cTerm2).relationIndex))) {
+                return false;
+            }
+            if (cTerm1.isCommutative()) {
+                return commutative(type, cTerm1, cTerm2);
+            }
+            final Term[] list = cTerm1.term;
+            for (int i = 0; i < list.length; i++) {
+                if (!unify(type, list[i], cTerm2.term[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        return termsEqual;
+    }
+
+    /**
+     * Unifies the components of commutative compounds in a random order,
+     * retrying a failed component once for every component of cTerm2 not
+     * matched yet, as findSubstitute always did
+     */
+    private boolean commutative(final char type, final CompoundTerm cTerm1, final CompoundTerm cTerm2) {
+        final Term[] list = cTerm1.cloneTerms();
+        CompoundTerm.shuffle(list, random);
+        if ((cTerm2.term == null) || (list.length != cTerm2.term.length)) {
+            return false;
+        }
+        final boolean[] matched = (list.length > 64) ? new boolean[list.length] : null;
+        long matchedBits = 0;
+        for (int i = 0; i < list.length; i++) {
+            boolean succeeded = false;
+            for (int j = 0; j < list.length; j++) {
+                //this one already was used to match one of the i's
+                if ((matched != null) ? matched[j] : ((matchedBits & (1L << j)) != 0)) {
+                    continue;
+                }
+                final int mark = size;
+                if (unify(type, list[i], cTerm2.term[i])) {
+                    succeeded = true;
+                    if (matched != null) {
+                        matched[j] = true;
+                    } else {
+                        matchedBits |= 1L << j;
+                    }
+                    break;
+                }
+                undo(mark);
+            }
+            if (!succeeded) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
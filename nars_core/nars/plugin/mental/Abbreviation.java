@@ -108,7 +108,7 @@ public class Abbreviation implements Plugin {
                     if (event != TaskDerive.class)
                         return;
                     
-                    if ((abbreviationProbability < 1.0) && (Memory.randomNumber.nextDouble() > abbreviationProbability))
+                    if ((abbreviationProbability < 1.0) && (memory.randomNumber.nextDouble() > abbreviationProbability))
                         return;
 
                     Task task = (Task)a[0];
@@ -53,7 +53,7 @@ public class Emotions implements Plugin {
     public long last_happy_time = 0;
     public long last_busy_time = 0;
     public long change_steps_demanded = 1000;
-    public void adjustSatisfaction(float newValue, float weight, DerivationContext nal) {
+    public synchronized void adjustSatisfaction(float newValue, float weight, DerivationContext nal) {
         
         //        float oldV = happyValue;
         happy += newValue * weight;
@@ -65,10 +65,12 @@ public class Emotions implements Plugin {
         
         float frequency=-1;
         if(Math.abs(happy-lasthappy) > CHANGE_THRESHOLD && nal.memory.time()-last_happy_time > change_steps_demanded) {
-            if(happy>Parameters.HAPPY_EVENT_HIGHER_THRESHOLD && lasthappy<=Parameters.HAPPY_EVENT_HIGHER_THRESHOLD) {
+            final float higher = nal.memory.param.happyEventHigherThreshold.floatValue();
+            final float lower = nal.memory.param.happyEventLowerThreshold.floatValue();
+            if(happy>higher && lasthappy<=higher) {
                 frequency=1.0f;
             }
-            if(happy<Parameters.HAPPY_EVENT_LOWER_THRESHOLD && lasthappy>=Parameters.HAPPY_EVENT_LOWER_THRESHOLD) {
+            if(happy<lower && lasthappy>=lower) {
                 frequency=0.0f;
             }
             lasthappy=happy;
@@ -122,7 +124,7 @@ public class Emotions implements Plugin {
     
     public double lastbusy=0.5;
     public double CHANGE_THRESHOLD = 0.25f;
-    public void adjustBusy(float newValue, float weight, DerivationContext nal) {
+    public synchronized void adjustBusy(float newValue, float weight, DerivationContext nal) {
 
         busy += newValue * weight;
         busy /= (1.0f + weight);
@@ -133,10 +135,12 @@ public class Emotions implements Plugin {
         
         float frequency=-1;
         if(Math.abs(busy-lastbusy) > CHANGE_THRESHOLD && nal.memory.time()-last_busy_time > change_steps_demanded) {
-            if(busy>Parameters.BUSY_EVENT_HIGHER_THRESHOLD && lastbusy<=Parameters.BUSY_EVENT_HIGHER_THRESHOLD) {
+            final float higher = nal.memory.param.busyEventHigherThreshold.floatValue();
+            final float lower = nal.memory.param.busyEventLowerThreshold.floatValue();
+            if(busy>higher && lastbusy<=higher) {
                 frequency=1.0f;
             }
-            if(busy<Parameters.BUSY_EVENT_LOWER_THRESHOLD && lastbusy>=Parameters.BUSY_EVENT_LOWER_THRESHOLD) {
+            if(busy<lower && lastbusy>=lower) {
                 frequency=0.0f;
             }
             lastbusy=busy;
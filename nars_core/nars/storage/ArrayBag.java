@@ -0,0 +1,524 @@
+package nars.storage;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import nars.config.Parameters;
+import nars.entity.Item;
+
+/**
+ * Array-backed equivalent of LevelBag.
+ *
+ * Items live in a fixed table of slots.  Each level is an intrusive ring
+ * (doubly linked through the next/prev slot arrays) kept in FIFO order, and
+ * keys are found through an open-addressing index of slot numbers.  Nothing
+ * is allocated by putIn / take / takeNext / putBack, while the selection
+ * policy (distributor, level threshold, overflow) is the same as LevelBag's.
+ */
+public class ArrayBag<E extends Item<K>,K> extends Bag<E,K> implements Serializable {
+
+    /**
+     * priority levels
+     */
+    public final int levels;
+    /**
+     * firing threshold
+     */
+    public final int fireCompleteLevelThreshold;
+
+    /**
+     * shared DISTRIBUTOR that produce the probability distribution
+     */
+    final short[] DISTRIBUTOR;
+    final int distributorLength;
+
+    /**
+     * defined in different bags
+     */
+    final int capacity;
+
+    /** item stored in each slot, null if the slot is free */
+    final E[] items;
+    /** cached key hash of each occupied slot */
+    final int[] keyHash;
+    /** level ring links of each occupied slot */
+    final int[] next, prev;
+    /** level of each occupied slot */
+    final int[] slotLevel;
+
+    /** oldest slot of each level ring, -1 if the level is empty */
+    final int[] head;
+    /** number of items in each level */
+    final int[] levelSize;
+
+    /** stack of free slots */
+    final int[] free;
+    int freeCount;
+
+    /** open-addressing key index holding slot+1 per cell, 0 for an empty cell */
+    final int[] index;
+    final int indexMask;
+
+    int size;
+    /**
+     * current sum of occupied level
+     */
+    private float mass;
+    /**
+     * index to get next level, kept in individual objects
+     */
+    int levelIndex;
+    /**
+     * current take out level
+     */
+    int currentLevel;
+    /**
+     * maximum number of items to be taken out at current level
+     */
+    int currentCounter;
+
+    public ArrayBag(int levels, int capacity) {
+        this(levels, capacity, (int) (Parameters.BAG_THRESHOLD * levels));
+    }
+
+    /** thresholdLevel = 0 disables "fire level completely" threshold effect */
+    public ArrayBag(int levels, int capacity, int thresholdLevel) {
+        this.levels = levels;
+        this.fireCompleteLevelThreshold = thresholdLevel;
+        this.capacity = capacity;
+
+        items = (E[]) new Item[capacity];
+        keyHash = new int[capacity];
+        next = new int[capacity];
+        prev = new int[capacity];
+        slotLevel = new int[capacity];
+        free = new int[capacity];
+
+        head = new int[levels];
+        levelSize = new int[levels];
+
+        //at most half full, so probe sequences stay short
+        int indexSize = 2;
+        while (indexSize < capacity * 2) {
+            indexSize <<= 1;
+        }
+        index = new int[indexSize];
+        indexMask = indexSize - 1;
+
+        DISTRIBUTOR = Distributor.get(this.levels).order;
+        distributorLength = DISTRIBUTOR.length;
+        clear();
+    }
+
+    @Override
+    public final void clear() {
+        Arrays.fill(items, null);
+        Arrays.fill(head, -1);
+        Arrays.fill(levelSize, 0);
+        Arrays.fill(index, 0);
+        for (int i = 0; i < capacity; i++) {
+            free[i] = capacity - 1 - i;
+        }
+        freeCount = capacity;
+        size = 0;
+        currentLevel = levels - 1;
+        levelIndex = capacity % levels; // so that different bags start at different point
+        mass = 0;
+        currentCounter = 0;
+    }
+
+    /* ---------- key index ---------- */
+
+    private static int spread(final int h) {
+        final int x = h * 0x9E3779B9;
+        return x ^ (x >>> 16);
+    }
+
+    /** @return the index cell holding the key, or -1 if absent */
+    private int findCell(final Object key, final int h) {
+        int i = spread(h) & indexMask;
+        while (true) {
+            final int s = index[i];
+            if (s == 0) {
+                return -1;
+            }
+            final int slot = s - 1;
+            if ((keyHash[slot] == h) && key.equals(items[slot].name())) {
+                return i;
+            }
+            i = (i + 1) & indexMask;
+        }
+    }
+
+    private void indexInsert(final int slot, final int h) {
+        int i = spread(h) & indexMask;
+        while (index[i] != 0) {
+            i = (i + 1) & indexMask;
+        }
+        index[i] = slot + 1;
+    }
+
+    /** removes a cell by shifting back the following cells of its probe run (no tombstones) */
+    private void indexRemove(int i) {
+        int j = i;
+        while (true) {
+            j = (j + 1) & indexMask;
+            final int s = index[j];
+            if (s == 0) {
+                break;
+            }
+            final int k = spread(keyHash[s - 1]) & indexMask;
+            //leave the cell where it is if its home position lies cyclically in (i, j]
+            if ((i <= j) ? ((i < k) && (k <= j)) : ((i < k) || (k <= j))) {
+                continue;
+            }
+            index[i] = s;
+            i = j;
+        }
+        index[i] = 0;
+    }
+
+    /* ---------- level rings ---------- */
+
+    private void linkLast(final int slot, final int l) {
+        final int h = head[l];
+        if (h == -1) {
+            head[l] = slot;
+            next[slot] = prev[slot] = slot;
+        } else {
+            final int t = prev[h];
+            next[t] = slot;
+            prev[slot] = t;
+            next[slot] = h;
+            prev[h] = slot;
+        }
+        slotLevel[slot] = l;
+        levelSize[l]++;
+    }
+
+    private void unlink(final int slot) {
+        final int l = slotLevel[slot];
+        final int n = next[slot];
+        if (n == slot) {
+            head[l] = -1;
+        } else {
+            final int p = prev[slot];
+            next[p] = n;
+            prev[n] = p;
+            if (head[l] == slot) {
+                head[l] = n;
+            }
+        }
+        levelSize[l]--;
+    }
+
+    /** removes an occupied slot from its level and from the key index */
+    private E removeSlot(final int slot, final int cell) {
+        final E item = items[slot];
+        unlink(slot);
+        indexRemove(cell);
+        items[slot] = null;
+        free[freeCount++] = slot;
+        size--;
+        mass -= item.getPriority();
+        return item;
+    }
+
+    /* ---------- Bag ---------- */
+
+    /**
+     * The number of items in the bag
+     *
+     * @return The number of items
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public float getMass() {
+        return mass;
+    }
+
+    /**
+     * Get the average priority of Items
+     *
+     * @return The average priority of Items in the bag
+     */
+    @Override
+    public float getAveragePriority() {
+        if (size == 0) {
+            return 0.01f;
+        }
+        float f = mass / size;
+        if (f > 1) {
+            return 1.0f;
+        }
+        return f;
+    }
+
+    /**
+     * Get an Item by key
+     *
+     * @param key The key of the Item
+     * @return The Item with the given key
+     */
+    @Override
+    public E get(final K key) {
+        final int cell = findCell(key, key.hashCode());
+        return (cell == -1) ? null : items[index[cell] - 1];
+    }
+
+    @Override
+    public E take(final K key) {
+        final int cell = findCell(key, key.hashCode());
+        if (cell == -1) {
+            return null;
+        }
+        return removeSlot(index[cell] - 1, cell);
+    }
+
+    /**
+     * Decide the put-in level according to priority
+     *
+     * @param item The Item to put in
+     * @return The put-in level
+     */
+    private int getLevel(final E item) {
+        final float fl = item.getPriority() * levels;
+        final int level = (int) Math.ceil(fl) - 1;
+        if (level < 0) return 0;
+        if (level >= levels) return levels-1;
+        return level;
+    }
+
+    /**
+     * Insert an item into the itemTable, and return the overflow
+     *
+     * @param newItem The Item to put in
+     * @return null if nothing overflowed, non-null if an overflow Item, which
+     * may be the attempted input item (in which case it was not inserted)
+     */
+    @Override
+    protected E addItem(final E newItem) {
+        if (newItem == null) {
+            throw new RuntimeException("Bag requires non-null items");
+        }
+        E oldItem = null;
+        final int inLevel = getLevel(newItem);
+        if (size >= capacity) {      // the bag will be full after the next
+            int outLevel = 0;
+            while (levelSize[outLevel] == 0) {
+                outLevel++;
+            }
+            if (outLevel > inLevel) {           // ignore the item and exit
+                return newItem;
+            } else {                            // remove an old item in the lowest non-empty level
+                oldItem = takeOutFirst(outLevel);
+            }
+        }
+
+        final int slot = free[--freeCount];
+        final int h = newItem.name().hashCode();
+        items[slot] = newItem;
+        keyHash[slot] = h;
+        linkLast(slot, inLevel);        // FIFO
+        indexInsert(slot, h);
+        size++;
+        mass += newItem.getPriority();
+        return oldItem;
+    }
+
+    /**
+     * Take out the first E in a level
+     *
+     * @param level The current level
+     * @return The first Item
+     */
+    private E takeOutFirst(final int level) {
+        final int slot = head[level];
+        if (slot == -1) {
+            throw new RuntimeException("Attempt to remove item from empty level: " + level);
+        }
+        final E item = items[slot];
+        return removeSlot(slot, findCell(item.name(), keyHash[slot]));
+    }
+
+    /** look for a non-empty level */
+    protected void nextNonEmptyLevel() {
+        int cl;
+        do {
+        } while (levelSize[cl = DISTRIBUTOR[(levelIndex++) % distributorLength]] == 0);
+        currentLevel = cl;
+        if (currentLevel < fireCompleteLevelThreshold) { // for dormant levels, take one item
+            currentCounter = 1;
+        } else {                  // for active levels, take all current items
+            currentCounter = levelSize[currentLevel];
+        }
+    }
+
+    @Override
+    public E takeNext() {
+        if (size == 0) {
+            return null; // empty bag
+        }
+        if ((levelSize[currentLevel] == 0) || (currentCounter == 0)) { // done with the current level
+            nextNonEmptyLevel();
+        }
+        final E selected = takeOutFirst(currentLevel); // take out the first item in the level
+        currentCounter--;
+        return selected;
+    }
+
+    @Override
+    public E peekNext() {
+        if (size == 0)
+            return null; // empty bag
+        E e = takeNext();
+        putIn(e);
+        return e;
+    }
+
+    public int getLevelSize(final int level) {
+        return levelSize[level];
+    }
+
+    public int numEmptyLevels() {
+        int empty = 0;
+        for (int i = 0; i < levels; i++) {
+            if (levelSize[i] == 0) {
+                empty++;
+            }
+        }
+        return empty;
+    }
+
+    @Override
+    public float getMinPriority() {
+        for (int l = 0; l < levels; l++) {
+            if (levelSize[l] > 0) {
+                float min = 1.0f;
+                int s = head[l];
+                do {
+                    float p = items[s].getPriority();
+                    if (p < min) min = p;
+                    s = next[s];
+                } while (s != head[l]);
+                return min;
+            }
+        }
+        return 1.0f;
+    }
+
+    @Override
+    public float getMaxPriority() {
+        for (int l = levels - 1; l >= 0; l--) {
+            if (levelSize[l] > 0) {
+                float max = 0.0f;
+                int s = head[l];
+                do {
+                    float p = items[s].getPriority();
+                    if (p > max) max = p;
+                    s = next[s];
+                } while (s != head[l]);
+                return max;
+            }
+        }
+        return 0.0f;
+    }
+
+    /** iterates from the highest level down, each level oldest first */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            int l = levels;
+            int slot = -1;
+
+            @Override
+            public boolean hasNext() {
+                if (slot != -1) {
+                    return true;
+                }
+                while (--l >= 0) {
+                    if (head[l] != -1) {
+                        slot = head[l];
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final E e = items[slot];
+                slot = next[slot];
+                if (slot == head[l]) {
+                    slot = -1;
+                }
+                return e;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    public Collection<E> values() {
+        return new AbstractCollection<E>() {
+            @Override public Iterator<E> iterator() {
+                return ArrayBag.this.iterator();
+            }
+
+            @Override public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override public Iterator<K> iterator() {
+                final Iterator<E> i = ArrayBag.this.iterator();
+                return new Iterator<K>() {
+                    @Override public boolean hasNext() {
+                        return i.hasNext();
+                    }
+
+                    @Override public K next() {
+                        return i.next().name();
+                    }
+
+                    @Override public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override public boolean contains(final Object o) {
+                return (o != null) && (findCell(o, o.hashCode()) != -1);
+            }
+
+            @Override public int size() {
+                return size;
+            }
+        };
+    }
+}
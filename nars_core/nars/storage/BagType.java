@@ -0,0 +1,22 @@
+package nars.storage;
+
+import nars.entity.Item;
+
+/**
+ * Available Bag implementations, chosen per bag in Parameters
+ */
+public enum BagType {
+
+    /** LevelBag: LinkedHashSet levels with a HashMap name table */
+    Level,
+
+    /** ArrayBag: same policy as LevelBag, on primitive arrays without allocation */
+    Array;
+
+    public <E extends Item<K>,K> Bag<E,K> newBag(final int levels, final int capacity) {
+        switch (this) {
+            case Array: return new ArrayBag<>(levels, capacity);
+            default: return new LevelBag<>(levels, capacity);
+        }
+    }
+}
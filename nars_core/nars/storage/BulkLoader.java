@@ -0,0 +1,270 @@
+package nars.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import nars.NAR;
+import nars.config.Parameters;
+import nars.control.DerivationContext;
+import nars.entity.Concept;
+import nars.entity.Sentence;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.io.Narsese;
+import nars.io.Narsese.InvalidInputException;
+import nars.io.Narsese.TaskHandler;
+import nars.language.Term;
+import nars.util.Events;
+
+/**
+ * Loads a large knowledge base of Narsese lines into a stopped reasoner
+ * without going through the input buffer one task per cycle.
+ * <p>
+ * The text is split into line aligned chunks which are parsed in parallel.
+ * The tasks are then added in the order of the text: eternal judgments are
+ * grouped by term, their concept is created once and they are put into its
+ * belief table, after which the task links and, once per concept, the term
+ * links are built.  All other tasks (events, goals, questions and quests)
+ * are input as usual and are processed by the following cycles.
+ * <p>
+ * Unlike the input path, judgments of the same term are not revised against
+ * each other and no IN events are emitted for the loaded judgments.
+ */
+public class BulkLoader {
+
+    private final NAR nar;
+    private final Memory memory;
+    private final TaskHandler handler;
+
+    /**
+     * @param handler receives each task added to the memory and each invalid
+     * line, in the order of the text and on the calling thread, may be null
+     */
+    public BulkLoader(final NAR nar, final TaskHandler handler) {
+        this.nar = nar;
+        this.memory = nar.memory;
+        this.handler = handler;
+    }
+
+    /**
+     * Loads a file of Narsese lines, parsing it with the given number of
+     * threads.
+     *
+     * @return the number of tasks added to the memory
+     */
+    public long load(final Path file, final int threads) throws IOException {
+        final List<ByteBuffer> chunks = new ArrayList<>();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = ch.size();
+            long start = 0;
+            for (int k = 1; k <= threads; k++) {
+                final long end = (k == threads) ? size : nextLine(ch, Math.max(start, size * k / threads));
+                if (end > start) {
+                    chunks.add(ch.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+                }
+                start = end;
+            }
+        }
+        return load(chunks, threads);
+    }
+
+    /**
+     * Loads Narsese lines encoded in UTF-8, parsing them with the given number
+     * of threads.
+     *
+     * @return the number of tasks added to the memory
+     */
+    public long load(final ByteBuffer text, final int threads) {
+        final List<ByteBuffer> chunks = new ArrayList<>();
+        final int size = text.remaining();
+        int start = 0;
+        for (int k = 1; k <= threads; k++) {
+            int end = size;
+            if (k < threads) {
+                end = Math.max(start, (int) ((long) size * k / threads));
+                while ((end < size) && (end > 0) && (text.get(text.position() + end - 1) != '\n')) {
+                    end++;
+                }
+            }
+            if (end > start) {
+                final ByteBuffer chunk = text.duplicate();
+                chunk.position(text.position() + start);
+                chunk.limit(text.position() + end);
+                chunks.add(chunk.slice());
+            }
+            start = end;
+        }
+        return load(chunks, threads);
+    }
+
+    /** the position after the end of the line containing pos */
+    private static long nextLine(final FileChannel ch, long pos) throws IOException {
+        if (pos == 0) {
+            return 0;
+        }
+        //the line of pos starts after pos - 1
+        pos--;
+        final ByteBuffer b = ByteBuffer.allocate(4096);
+        while (true) {
+            b.clear();
+            final int n = ch.read(b, pos);
+            if (n <= 0) {
+                return ch.size();
+            }
+            for (int i = 0; i < n; i++) {
+                if (b.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += n;
+        }
+    }
+
+    /** tasks and invalid lines of one chunk of text, numbered from its start */
+    private static class Chunk implements TaskHandler {
+        final List<Task> tasks = new ArrayList<>();
+        final List<Long> invalidLines = new ArrayList<>();
+        final List<InvalidInputException> invalid = new ArrayList<>();
+        long lines;
+
+        @Override
+        public void task(final Task t) {
+            tasks.add(t);
+        }
+
+        @Override
+        public void invalid(final long line, final InvalidInputException e) {
+            invalidLines.add(line);
+            invalid.add(e);
+        }
+    }
+
+    private long load(final List<ByteBuffer> texts, final int threads) {
+        if (nar.isRunning()) {
+            throw new IllegalStateException("The reasoner has to be stopped during a bulk load");
+        }
+
+        final List<Chunk> chunks = parse(texts, threads);
+
+        long loaded = 0;
+        long lineOffset = 0;
+        final Map<Term, List<Task>> beliefs = new LinkedHashMap<>();
+        final List<Task> others = new ArrayList<>();
+        for (final Chunk c : chunks) {
+            for (int i = 0; i < c.invalid.size(); i++) {
+                if (handler != null) {
+                    handler.invalid(lineOffset + c.invalidLines.get(i), c.invalid.get(i));
+                }
+            }
+            lineOffset += c.lines;
+
+            for (final Task t : c.tasks) {
+                if (!t.budget.aboveThreshold()) {
+                    memory.removeTask(t, "Neglected");
+                    continue;
+                }
+                final Sentence s = t.sentence;
+                if (s.isJudgment() && s.isEternal()) {
+                    List<Task> l = beliefs.get(s.term);
+                    if (l == null) {
+                        l = new ArrayList<>(1);
+                        beliefs.put(s.term, l);
+                    }
+                    l.add(t);
+                } else {
+                    others.add(t);
+                }
+                loaded++;
+                if (handler != null) {
+                    handler.task(t);
+                }
+            }
+        }
+
+        for (final Map.Entry<Term, List<Task>> e : beliefs.entrySet()) {
+            addBeliefs(e.getKey(), e.getValue());
+        }
+        for (final Task t : others) {
+            memory.inputTask(t);
+        }
+        return loaded;
+    }
+
+    /** parses the chunks in parallel, returns them in the order of the text */
+    private List<Chunk> parse(final List<ByteBuffer> texts, final int threads) {
+        final ExecutorService exe = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, texts.size())));
+        try {
+            final List<Future<Chunk>> futures = new ArrayList<>(texts.size());
+            for (final ByteBuffer text : texts) {
+                futures.add(exe.submit(new Callable<Chunk>() {
+                    @Override
+                    public Chunk call() {
+                        final Chunk c = new Chunk();
+                        for (int i = text.position(); i < text.limit(); i++) {
+                            if (text.get(i) == '\n') {
+                                c.lines++;
+                            }
+                        }
+                        new Narsese(memory).parseTasks(text.duplicate(), c);
+                        return c;
+                    }
+                }));
+            }
+            final List<Chunk> chunks = new ArrayList<>(texts.size());
+            for (final Future<Chunk> f : futures) {
+                chunks.add(f.get());
+            }
+            return chunks;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            exe.shutdownNow();
+        }
+    }
+
+    /** creates the concept of the judgments, adds them as its beliefs and links them */
+    private void addBeliefs(final Term term, final List<Task> judgments) {
+        Task strongest = judgments.get(0);
+        for (final Task t : judgments) {
+            if (t.getPriority() > strongest.getPriority()) {
+                strongest = t;
+            }
+        }
+        final Concept c = memory.conceptualize(strongest.budget, term);
+        if (c == null) {
+            for (final Task t : judgments) {
+                memory.inputTask(t, false);
+            }
+            return;
+        }
+        final long now = memory.time();
+        final int duration = memory.param.duration.get();
+        for (final Task t : judgments) {
+            //as in Memory.inputTask, which the beliefs do not go through
+            final Stamp stamp = t.sentence.stamp;
+            if (stamp.getCreationTime() == -1) {
+                stamp.setCreationTime(now, duration);
+            }
+            c.addToTable(t, false, c.beliefs, Parameters.CONCEPT_BELIEFS_MAX, Events.ConceptBeliefAdd.class, Events.ConceptBeliefRemove.class);
+        }
+
+        final DerivationContext cont = new DerivationContext(memory);
+        cont.setCurrentTerm(term);
+        cont.setCurrentConcept(c);
+        c.linkToTasks(judgments, cont);
+    }
+}
@@ -0,0 +1,242 @@
+package nars.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import nars.entity.Concept;
+import nars.entity.Task;
+import nars.io.Narsese;
+import nars.language.Term;
+
+/**
+ * Second tier of concept memory: concepts forgotten from Memory.concepts are
+ * spilled into a memory-mapped file and brought back by Memory.conceptualize
+ * when their term shows up again.
+ * <p>
+ * Each concept is one record in the format of MemorySnapshot, with its terms
+ * and tasks written inline.  Only the index from term to file offset stays on
+ * the heap.  Records are appended; space of reloaded or replaced records is
+ * reclaimed by compacting the file in place once it is more than half garbage.
+ */
+public class ConceptStore implements Closeable {
+
+    /** size of each mapped region of the file; a record never spans two */
+    public static final int SEGMENT_SIZE = 1 << 24;
+
+    private final FileChannel channel;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    /** term -> offset of its record */
+    private final Map<Term,Long> index = new HashMap<>();
+
+    /** end of the last record */
+    private long end = 0;
+
+    /** bytes of records which are no longer indexed */
+    private long garbage = 0;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+    public ConceptStore(final Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /** @return the number of stored concepts */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    public synchronized boolean contains(final Term t) {
+        return index.containsKey(t);
+    }
+
+    /**
+     * Stores a concept, replacing an earlier record of its term
+     *
+     * @return false if the record does not fit into a segment
+     */
+    public synchronized boolean put(final Concept c) {
+        buffer.reset();
+        try {
+            new InlineWriter(c.memory, new DataOutputStream(buffer)).writeConcept(c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final int length = buffer.size();
+        if (length + 4 > SEGMENT_SIZE) {
+            return false;
+        }
+
+        release(c.term);
+        final long at = allocate(length + 4);
+        final MappedByteBuffer seg = segment(at);
+        seg.position(offset(at));
+        seg.putInt(length);
+        seg.put(buffer.toByteArray());
+        index.put(c.term, at);
+        return true;
+    }
+
+    /**
+     * Removes the concept of a term from the store
+     *
+     * @return the restored concept, not yet in memory.concepts, or null if none is stored
+     */
+    public synchronized Concept take(final Term t, final Memory memory) {
+        final Long at = index.get(t);
+        if (at == null) {
+            return null;
+        }
+        final byte[] record = record(at);
+        release(t);
+
+        try {
+            return new InlineDecoder(memory, new DataInputStream(new ByteArrayInputStream(record))).readConcept();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized void clear() {
+        index.clear();
+        end = garbage = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        clear();
+        segments.clear();
+        channel.close();
+    }
+
+    private void release(final Term t) {
+        final Long at = index.remove(t);
+        if (at != null) {
+            garbage += 4 + segment(at).getInt(offset(at));
+        }
+        if (index.isEmpty()) {
+            end = garbage = 0;
+        }
+    }
+
+    /** @return the position for a record of the given size, compacting the file if worthwhile */
+    private long allocate(final int size) {
+        if ((garbage > SEGMENT_SIZE) && (garbage > end / 2)) {
+            compact();
+        }
+        return place(size);
+    }
+
+    private long place(final int size) {
+        long at = end;
+        if (offset(at) + size > SEGMENT_SIZE) {
+            final long next = (at / SEGMENT_SIZE + 1) * SEGMENT_SIZE;
+            garbage += next - at;
+            at = next;
+        }
+        end = at + size;
+        return at;
+    }
+
+    /**
+     * moves the indexed records to the front of the file, in their current order;
+     * no record moves past its old position, so none is overwritten before it is moved
+     */
+    private void compact() {
+        final TreeMap<Long,Term> byOffset = new TreeMap<>();
+        for (final Map.Entry<Term,Long> e : index.entrySet()) {
+            byOffset.put(e.getValue(), e.getKey());
+        }
+        end = garbage = 0;
+        for (final Map.Entry<Long,Term> e : byOffset.entrySet()) {
+            final byte[] record = record(e.getKey());
+            final long at = place(record.length + 4);
+            final MappedByteBuffer seg = segment(at);
+            seg.position(offset(at));
+            seg.putInt(record.length);
+            seg.put(record);
+            index.put(e.getValue(), at);
+        }
+    }
+
+    private byte[] record(final long at) {
+        final MappedByteBuffer seg = segment(at);
+        final int length = seg.getInt(offset(at));
+        final byte[] record = new byte[length];
+        seg.position(offset(at) + 4);
+        seg.get(record);
+        return record;
+    }
+
+    private static int offset(final long at) {
+        return (int) (at % SEGMENT_SIZE);
+    }
+
+    private MappedByteBuffer segment(final long at) {
+        final int s = (int) (at / SEGMENT_SIZE);
+        try {
+            while (segments.size() <= s) {
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) segments.size() * SEGMENT_SIZE, SEGMENT_SIZE));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return segments.get(s);
+    }
+
+    /** writes terms as Narsese and tasks in full where a snapshot refers to its tables */
+    static class InlineWriter extends MemorySnapshot.Writer {
+
+        InlineWriter(final Memory memory, final DataOutputStream out) {
+            super(memory, out);
+        }
+
+        @Override
+        void termRef(final Term t) throws IOException {
+            out.writeUTF(t.toString());
+        }
+
+        @Override
+        void taskRef(final Task t) throws IOException {
+            writeTask(t);
+        }
+    }
+
+    static class InlineDecoder extends MemorySnapshot.Decoder {
+
+        final Narsese narsese;
+
+        InlineDecoder(final Memory memory, final DataInputStream in) {
+            super(memory, in);
+            this.narsese = new Narsese(memory);
+        }
+
+        @Override
+        Term readTerm() throws IOException {
+            final String s = in.readUTF();
+            try {
+                return narsese.parseTerm(s);
+            } catch (Narsese.InvalidInputException e) {
+                return null;
+            }
+        }
+
+        @Override
+        Task readTaskRef() throws IOException {
+            return readTask();
+        }
+    }
+}
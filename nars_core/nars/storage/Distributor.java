@@ -21,8 +21,8 @@
 package nars.storage;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A pseudo-random number generator, used in Bag.
@@ -34,7 +34,7 @@ public final class Distributor {
     /** Capacity of the array */
     public final int capacity;
 
-    private final static Map<Integer,Distributor> distributors = new HashMap(8);
+    private final static Map<Integer,Distributor> distributors = new ConcurrentHashMap(8);
     public static Distributor get(int range) {
         Distributor d = distributors.get(range);
         if (d==null) {
@@ -23,6 +23,9 @@ package nars.storage;
 import nars.control.ConceptProcessing;
 import nars.util.Events;
 import nars.util.EventEmitter;
+import nars.util.EventEmitter.Channel;
+import nars.util.Metrics;
+import nars.util.Metrics.Phase;
 import java.io.Serializable;
 import java.util.ArrayDeque;
 import java.util.Arrays;
@@ -39,6 +42,7 @@ import nars.util.Events.ResetStart;
 import nars.util.Events.TaskRemove;
 import nars.control.DerivationContext;
 import nars.control.GeneralInferenceControl;
+import nars.control.ParallelInferenceControl;
 import nars.control.TemporalInferenceControl;
 import nars.plugin.mental.Emotions;
 import nars.entity.BudgetValue;
@@ -49,12 +53,14 @@ import nars.entity.Stamp;
 import nars.entity.Task;
 import nars.entity.TruthValue;
 import nars.inference.BudgetFunctions;
+import nars.inference.DerivationCache;
 import static nars.inference.BudgetFunctions.truthToQuality;
 import nars.io.Output.IN;
 import nars.io.Output.OUT;
 import nars.io.Symbols;
 import nars.language.Tense;
 import nars.language.Term;
+import nars.language.Unifier;
 import nars.operator.Operation;
 import nars.operator.Operator;
 import nars.io.Echo;
@@ -89,15 +95,18 @@ public class Memory implements Serializable, Iterable<Concept> {
     public Task lastDecision = null;
     public boolean allowExecution = true;
 
-    public static long randomSeed = 1;
-    public static Random randomNumber = new Random(randomSeed);
-    public static void resetStatic() {
-        randomNumber.setSeed(randomSeed);    
-    }
+    /** random number generator of this memory, seeded with param.randomSeed on reset */
+    public final Random randomNumber;
     
     //todo make sense of this class and de-obfuscate
     public final Bag<Concept,Term> concepts;
-    public transient EventEmitter event;
+    public final transient EventEmitter event;
+    
+    /* Channels of the events emitted during inference, resolved once */
+    public final transient Channel cycleStart, cycleEnd, taskAdd, taskRemove, taskDerive,
+            taskImmediateProcess, conceptDirectProcessedTask, conceptNew, conceptForget, conceptFire,
+            termLinkSelect, beliefSelect, beliefReason, taskLinkAdd, taskLinkRemove, termLinkAdd,
+            termLinkRemove, induceSucceedingEvent;
     
     /* InnateOperator registry. Containing all registered operators of the system */
     public final HashMap<CharSequence, Operator> operators;
@@ -113,14 +122,26 @@ public class Memory implements Serializable, Iterable<Concept> {
     public final Deque<Task> newTasks;
     
     /* The remaining number of steps to be carried out (stepLater mode)*/
-    private int inputPausedUntil;
+    int inputPausedUntil;
     
     /* System clock, relatively defined to guarantee the repeatability of behaviors */
-    private long cycle;
+    long cycle;
     
     /* System parameters that can be changed at runtime */
     public final RuntimeParameters param;
     
+    /* Worker threads for concept firing, when param.inferenceThreads > 1 */
+    private transient ParallelInferenceControl parallelInference;
+    
+    /* Optional second tier receiving the concepts forgotten from the concept bag */
+    public transient ConceptStore conceptStore;
+    
+    /* Recent rule applications, while param.derivationCacheSize > 0 */
+    public transient DerivationCache derivationCache;
+    
+    /* Timings and counters, recorded while param.metrics is enabled */
+    public final transient Metrics metrics = new Metrics();
+    
     /* ---------- Constructor ---------- */
     /**
      * Create a new memory
@@ -132,7 +153,26 @@ public class Memory implements Serializable, Iterable<Concept> {
             Bag<Task<Term>,Sentence<Term>> recent_operations) {                
 
         this.param = param;
+        this.randomNumber = new Random(param.randomSeed.get());
         this.event = new EventEmitter();
+        this.cycleStart = event.channel(Events.CycleStart.class);
+        this.cycleEnd = event.channel(Events.CycleEnd.class);
+        this.taskAdd = event.channel(Events.TaskAdd.class);
+        this.taskRemove = event.channel(TaskRemove.class);
+        this.taskDerive = event.channel(Events.TaskDerive.class);
+        this.taskImmediateProcess = event.channel(Events.TaskImmediateProcess.class);
+        this.conceptDirectProcessedTask = event.channel(Events.ConceptDirectProcessedTask.class);
+        this.conceptNew = event.channel(Events.ConceptNew.class);
+        this.conceptForget = event.channel(Events.ConceptForget.class);
+        this.conceptFire = event.channel(Events.ConceptFire.class);
+        this.termLinkSelect = event.channel(Events.TermLinkSelect.class);
+        this.beliefSelect = event.channel(Events.BeliefSelect.class);
+        this.beliefReason = event.channel(Events.BeliefReason.class);
+        this.taskLinkAdd = event.channel(Events.TaskLinkAdd.class);
+        this.taskLinkRemove = event.channel(Events.TaskLinkRemove.class);
+        this.termLinkAdd = event.channel(Events.TermLinkAdd.class);
+        this.termLinkRemove = event.channel(Events.TermLinkRemove.class);
+        this.induceSucceedingEvent = event.channel(Events.InduceSucceedingEvent.class);
         this.concepts = concepts;
         this.novelTasks = novelTasks;                
         this.newTasks = new ArrayDeque<>();
@@ -146,13 +186,17 @@ public class Memory implements Serializable, Iterable<Concept> {
         event.emit(ResetStart.class);
         decisionBlock = 0;
         concepts.clear();
+        if (conceptStore != null) {
+            conceptStore.clear();
+        }
+        derivationCache = null;
         novelTasks.clear();
         newTasks.clear();    
         this.seq_current.clear();
         cycle = 0;
         inputPausedUntil = 0;
         emotion.resetEmotions();
-        resetStatic();
+        randomNumber.setSeed(param.randomSeed.get());
         event.emit(ResetEnd.class);
     }
 
@@ -170,7 +214,12 @@ public class Memory implements Serializable, Iterable<Concept> {
      * @return a Concept or null
      */
     public Concept concept(final Term t) {
-        return concepts.get(CompoundTerm.replaceIntervals(t));
+        final Term key = CompoundTerm.replaceIntervals(t);
+        final Concept c = concepts.get(key);
+        if ((c == null) && (parallelInference != null)) {
+            return parallelInference.firing(key);
+        }
+        return c;
     }
 
     /**
@@ -194,12 +243,16 @@ public class Memory implements Serializable, Iterable<Concept> {
         term = CompoundTerm.replaceIntervals(term);
         //see if concept is active
         Concept concept = concepts.take(term);
+        if ((concept == null) && (conceptStore != null)) {
+            //bring back a forgotten concept, activated below like an existing one
+            concept = conceptStore.take(term, this);
+        }
         if (concept == null) {                            
             //create new concept, with the applied budget
             concept = new Concept(budget, term, this);
             //if (memory.logic!=null)
             //    memory.logic.CONCEPT_NEW.commit(term.getComplexity());
-            emit(Events.ConceptNew.class, concept);                
+            conceptNew.emit(concept);                
         }
         else if (concept!=null) {            
             //apply budget to existing concept
@@ -231,9 +284,11 @@ public class Memory implements Serializable, Iterable<Concept> {
      * add new task that waits to be processed in the next cycleMemory
      */
     public void addNewTask(final Task t, final String reason) {
-        newTasks.add(t);
+        synchronized (newTasks) {
+            newTasks.add(t);
+        }
       //  logic.TASK_ADD_NEW.commit(t.getPriority());
-        emit(Events.TaskAdd.class, t, reason);
+        taskAdd.emit(t, reason);
         output(t);
     }
     
@@ -295,7 +350,7 @@ public class Memory implements Serializable, Iterable<Concept> {
         }
         else if (t instanceof Echo) {
             Echo e = (Echo)t;
-            if(!isjUnit) {
+            if(!isjUnit && !param.testMode.get()) {
                 emit(OUT.class,((Echo) t).signal);
             }
             emit(e.channel, e.signal);
@@ -318,7 +373,7 @@ public class Memory implements Serializable, Iterable<Concept> {
     }
 
     public void removeTask(final Task task, final String reason) {        
-        emit(TaskRemove.class, task, reason);
+        taskRemove.emit(task, reason);
         task.end();        
     }
     
@@ -366,32 +421,80 @@ public class Memory implements Serializable, Iterable<Concept> {
     }
     
     public void conceptRemoved(Concept c) {
-        emit(Events.ConceptForget.class, c);
+        conceptForget.emit(c);
+        if (conceptStore != null) {
+            conceptStore.put(c);
+        }
     }
     
     public void cycle(final NAR inputs) {
+        final boolean measure = param.metrics.get();
+        final long started = measure ? System.nanoTime() : 0;
+        long t = started;
+        Unifier.use(randomNumber);
     
-        event.emit(Events.CycleStart.class);                
+        cycleStart.emit();                
+        if (measure) t = metrics.phase(Phase.Events, t);
         
         /** adds input tasks to newTasks */
-        for(int i=0; i<1 && isProcessingInput(); i++) {
-            Item t = inputs.nextTask();                    
-            if (t!=null) 
-                inputTask(t);            
+        final int batch = param.inputsPerCycle.get();
+        for(int i=0; i<batch && isProcessingInput(); i++) {
+            Item input = inputs.nextTask();                    
+            if (input!=null) 
+                inputTask(input);            
         }
+        if (measure) t = metrics.phase(Phase.Input, t);
         
         this.processNewTasks();
+        if (measure) t = metrics.phase(Phase.NewTasks, t);
     //if(noResult()) //newTasks empty
         this.processNovelTask();
+        if (measure) t = metrics.phase(Phase.NovelTask, t);
     //if(noResult()) //newTasks empty
-        GeneralInferenceControl.selectConceptForInference(this);
+        updateDerivationCache();
+        final int threads = param.inferenceThreads.get();
+        if (threads > 1) {
+            if ((parallelInference == null) || (parallelInference.threads != threads)) {
+                stopParallelInference();
+                parallelInference = new ParallelInferenceControl(this, threads);
+            }
+            parallelInference.selectConceptsForInference();
+        }
+        else {
+            stopParallelInference();
+            GeneralInferenceControl.selectConceptForInference(this);
+        }
+        if (measure) t = metrics.phase(Phase.Inference, t);
         
-        event.emit(Events.CycleEnd.class);
+        cycleEnd.emit();
         event.synch();
         
+        if (measure) {
+            metrics.phase(Phase.Events, t);
+            metrics.phase(Phase.Cycle, started);
+            metrics.cycleEnd(cycle);
+        }
         cycle++;
     }
     
+    private void updateDerivationCache() {
+        final int size = param.derivationCacheSize.get();
+        final int horizon = param.derivationCacheHorizon.get();
+        if (size <= 0) {
+            derivationCache = null;
+        }
+        else if ((derivationCache == null) || (derivationCache.capacity < size) || (derivationCache.capacity >= 2 * size) || (derivationCache.horizon != horizon)) {
+            derivationCache = new DerivationCache(size, horizon);
+        }
+    }
+    
+    private void stopParallelInference() {
+        if (parallelInference != null) {
+            parallelInference.stop();
+            parallelInference = null;
+        }
+    }
+    
     public void localInference(Task task) {
         DerivationContext cont = new DerivationContext(this);
         cont.setCurrentTask(task);
@@ -400,7 +503,7 @@ public class Memory implements Serializable, Iterable<Concept> {
         if (cont.getCurrentConcept() != null) {
             boolean processed = ConceptProcessing.processTask(cont.getCurrentConcept(), cont, task);
             if (processed) {
-                event.emit(Events.ConceptDirectProcessedTask.class, task);
+                conceptDirectProcessedTask.emit(task);
             }
         }
         
@@ -409,7 +512,7 @@ public class Memory implements Serializable, Iterable<Concept> {
         }
         
         //memory.logic.TASK_IMMEDIATE_PROCESS.commit();
-        emit(Events.TaskImmediateProcess.class, task, cont);
+        taskImmediateProcess.emit(task, cont);
     }
     
     /**
@@ -469,8 +572,8 @@ public class Memory implements Serializable, Iterable<Concept> {
          return operators.remove(op.name());
      }
 
-    private long currentStampSerial = 0;
-    public long newStampSerial() {
+    long currentStampSerial = 0;
+    public synchronized long newStampSerial() {
         return currentStampSerial++;
     }
 
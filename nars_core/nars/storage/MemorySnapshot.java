@@ -0,0 +1,670 @@
+package nars.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import nars.NAR;
+import nars.config.RuntimeParameters;
+import nars.entity.BudgetValue;
+import nars.entity.Concept;
+import nars.entity.Sentence;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.entity.TaskLink;
+import nars.entity.TermLink;
+import nars.entity.TruthValue;
+import nars.config.Parameters;
+import nars.io.Narsese;
+import nars.language.Interval.PortableDouble;
+import nars.language.Interval.PortableInteger;
+import nars.language.Term;
+import nars.util.EventEmitter.EventObserver;
+import nars.util.Events.CycleEnd;
+
+/**
+ * Versioned binary snapshot of a Memory.
+ * <p>
+ * Stores the clock, stamp serial, emotion, runtime parameters, the names of the
+ * registered operators and all concepts with their beliefs, desires, questions,
+ * quests, task links and term links, plus the novel task and event bags.
+ * Terms are written once, as Narsese, into a dictionary section and are
+ * referenced by index afterwards; tasks shared between tables and links are
+ * written once as well.  Concepts come last so that a Reader can add them to
+ * a running reasoner a few at a time.
+ * <p>
+ * Not stored: operator and plugin state (operators are restored by the plugins
+ * of the loading NAR and only checked by name), task link novelty records and
+ * tasks waiting in Memory.newTasks.
+ */
+public class MemorySnapshot {
+
+    public static final int MAGIC = 0x4E415253; // "NARS"
+    public static final int VERSION = 1;
+
+    static final int SECTION_PARAMS = 1;
+    static final int SECTION_OPERATORS = 2;
+    static final int SECTION_TERMS = 3;
+    static final int SECTION_TASKS = 4;
+    static final int SECTION_BAGS = 5;
+    static final int SECTION_CONCEPTS = 6;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /** writes the memory to a file, replacing it only once the snapshot is complete */
+    public static void write(final Memory memory, final Path file) throws IOException {
+        final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch), BUFFER_SIZE))) {
+            new Writer(memory, out).write();
+            out.flush();
+            ch.force(false);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** reads a whole snapshot into the memory of a NAR */
+    public static void read(final NAR nar, final Path file) throws IOException {
+        try (Reader r = new Reader(nar, file)) {
+            r.readConcepts(Integer.MAX_VALUE);
+        }
+    }
+
+    static class Writer {
+
+        final Memory memory;
+        final DataOutputStream out;
+
+        final Map<Term,Integer> termIDs = new HashMap<>();
+        final List<Term> terms = new ArrayList<>();
+        final Map<Task,Integer> taskIDs = new IdentityHashMap<>();
+        final List<Task> tasks = new ArrayList<>();
+
+        Writer(final Memory memory, final DataOutputStream out) {
+            this.memory = memory;
+            this.out = out;
+        }
+
+        void write() throws IOException {
+            for (final Concept c : memory.concepts) {
+                term(c.term);
+                tasks(c.beliefs);
+                tasks(c.executable_preconditions);
+                tasks(c.desires);
+                tasks(c.questions);
+                tasks(c.quests);
+                for (final TaskLink l : c.taskLinks) {
+                    task(l.targetTask);
+                }
+                for (final TermLink l : c.termLinks) {
+                    term(l.target);
+                }
+            }
+            bagTasks(memory.novelTasks);
+            bagTasks(memory.seq_current);
+            bagTasks(memory.recent_operations);
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(memory.cycle);
+            out.writeLong(memory.currentStampSerial);
+            out.writeLong(memory.decisionBlock);
+            out.writeInt(memory.inputPausedUntil);
+            out.writeFloat(memory.emotion.happy());
+            out.writeFloat(memory.emotion.busy());
+
+            writeParams();
+
+            out.writeInt(SECTION_OPERATORS);
+            out.writeInt(memory.operators.size());
+            for (final CharSequence op : memory.operators.keySet()) {
+                out.writeUTF(op.toString());
+            }
+
+            out.writeInt(SECTION_TERMS);
+            out.writeInt(terms.size());
+            for (final Term t : terms) {
+                out.writeUTF(t.toString());
+            }
+
+            out.writeInt(SECTION_TASKS);
+            out.writeInt(tasks.size());
+            for (final Task t : tasks) {
+                writeTask(t);
+            }
+
+            out.writeInt(SECTION_BAGS);
+            writeBag(memory.novelTasks);
+            writeBag(memory.seq_current);
+            writeBag(memory.recent_operations);
+
+            out.writeInt(SECTION_CONCEPTS);
+            out.writeInt(memory.concepts.size());
+            for (final Concept c : memory.concepts) {
+                writeConcept(c);
+            }
+        }
+
+        void writeParams() throws IOException {
+            final List<Field> fields = params();
+            out.writeInt(SECTION_PARAMS);
+            out.writeInt(fields.size());
+            for (final Field f : fields) {
+                final Object v = get(f, memory.param);
+                out.writeUTF(f.getName());
+                if (v instanceof PortableInteger) {
+                    out.writeByte('I');
+                    out.writeDouble(((PortableInteger) v).get());
+                } else {
+                    out.writeByte('D');
+                    out.writeDouble(((PortableDouble) v).get());
+                }
+            }
+        }
+
+        void term(final Term t) {
+            if (!termIDs.containsKey(t)) {
+                termIDs.put(t, terms.size());
+                terms.add(t);
+            }
+        }
+
+        void task(final Task t) {
+            if (!taskIDs.containsKey(t)) {
+                taskIDs.put(t, tasks.size());
+                tasks.add(t);
+                term(t.sentence.term);
+                if (t.getParentBelief() != null) {
+                    term(t.getParentBelief().term);
+                }
+                if (t.getBestSolution() != null) {
+                    term(t.getBestSolution().term);
+                }
+            }
+        }
+
+        void tasks(final Collection<Task> list) {
+            for (final Task t : list) {
+                task(t);
+            }
+        }
+
+        void bagTasks(final Bag<Task<Term>,Sentence<Term>> bag) {
+            if (bag != null) {
+                for (final Task t : bag) {
+                    task(t);
+                }
+            }
+        }
+
+        void writeBudget(final BudgetValue b) throws IOException {
+            out.writeFloat(b.getPriority());
+            out.writeFloat(b.getDurability());
+            out.writeFloat(b.getQuality());
+            out.writeLong(b.getLastForgetTime());
+        }
+
+        void writeSentence(final Sentence s) throws IOException {
+            termRef(s.term);
+            out.writeChar(s.punctuation);
+            out.writeBoolean(s.truth != null);
+            if (s.truth != null) {
+                out.writeFloat(s.truth.getFrequency());
+                out.writeFloat(s.truth.getConfidence());
+                out.writeBoolean(s.truth.getAnalytic());
+            }
+            final Stamp st = s.stamp;
+            out.writeInt(st.evidentialBase.length);
+            for (final long e : st.evidentialBase) {
+                out.writeLong(e);
+            }
+            out.writeBoolean(st.evidenceIsCyclic());
+            out.writeLong(st.getCreationTime());
+            out.writeLong(st.getOccurrenceTime());
+            out.writeBoolean(s.getRevisible());
+            out.writeBoolean(s.producedByTemporalInduction);
+        }
+
+        void writeOptionalSentence(final Sentence s) throws IOException {
+            out.writeBoolean(s != null);
+            if (s != null) {
+                writeSentence(s);
+            }
+        }
+
+        void writeTask(final Task t) throws IOException {
+            writeSentence(t.sentence);
+            writeBudget(t.budget);
+            out.writeBoolean(t.isInput());
+            out.writeBoolean(t.isElemOfSequenceBuffer());
+            out.writeBoolean(t.isObservablePrediction());
+            writeOptionalSentence(t.getParentBelief());
+            writeOptionalSentence(t.getBestSolution());
+        }
+
+        void termRef(final Term t) throws IOException {
+            out.writeInt(termIDs.get(t));
+        }
+
+        void taskRef(final Task t) throws IOException {
+            out.writeInt(taskIDs.get(t));
+        }
+
+        void writeTaskList(final Collection<Task> list) throws IOException {
+            out.writeInt(list.size());
+            for (final Task t : list) {
+                taskRef(t);
+            }
+        }
+
+        void writeBag(final Bag<Task<Term>,Sentence<Term>> bag) throws IOException {
+            if (bag == null) {
+                out.writeInt(0);
+                return;
+            }
+            out.writeInt(bag.size());
+            for (final Task t : bag) {
+                taskRef(t);
+            }
+        }
+
+        void writeIndex(final short[] index) throws IOException {
+            if (index == null) {
+                out.writeShort(-1);
+                return;
+            }
+            out.writeShort(index.length);
+            for (final short i : index) {
+                out.writeShort(i);
+            }
+        }
+
+        void writeConcept(final Concept c) throws IOException {
+            termRef(c.term);
+            writeBudget(c.budget);
+            out.writeBoolean(c.observable);
+            writeTaskList(c.beliefs);
+            writeTaskList(c.executable_preconditions);
+            writeTaskList(c.desires);
+            writeTaskList(c.questions);
+            writeTaskList(c.quests);
+
+            out.writeInt(c.taskLinks.size());
+            for (final TaskLink l : c.taskLinks) {
+                taskRef(l.targetTask);
+                out.writeShort(l.type);
+                writeIndex(l.index);
+                writeBudget(l.budget);
+            }
+
+            out.writeInt(c.termLinks.size());
+            for (final TermLink l : c.termLinks) {
+                termRef(l.target);
+                out.writeShort(l.type);
+                writeIndex(l.index);
+                writeBudget(l.budget);
+            }
+        }
+    }
+
+    /** decodes the records written by a Writer; terms and tasks are referenced as the subclass wrote them */
+    abstract static class Decoder {
+
+        final Memory memory;
+        final DataInputStream in;
+
+        Decoder(final Memory memory, final DataInputStream in) {
+            this.memory = memory;
+            this.in = in;
+        }
+
+        abstract Term readTerm() throws IOException;
+
+        abstract Task readTaskRef() throws IOException;
+
+        BudgetValue readBudget() throws IOException {
+            final BudgetValue b = new BudgetValue(in.readFloat(), in.readFloat(), in.readFloat());
+            b.setLastForgetTime(in.readLong());
+            return b;
+        }
+
+        /** @return the sentence, or null if its term could not be restored */
+        Sentence readSentence() throws IOException {
+            final Term term = readTerm();
+            final char punctuation = in.readChar();
+            TruthValue truth = null;
+            if (in.readBoolean()) {
+                truth = new TruthValue(in.readFloat(), in.readFloat(), in.readBoolean());
+            }
+            final long[] base = new long[in.readInt()];
+            for (int i = 0; i < base.length; i++) {
+                base[i] = in.readLong();
+            }
+            final boolean cyclic = in.readBoolean();
+            final long creationTime = in.readLong();
+            final long occurrenceTime = in.readLong();
+            final boolean revisible = in.readBoolean();
+            final boolean temporalInduction = in.readBoolean();
+            if (term == null) {
+                return null;
+            }
+            final Sentence s = new Sentence(term, punctuation, truth, new Stamp(base, cyclic, creationTime, occurrenceTime));
+            s.setRevisible(revisible);
+            s.producedByTemporalInduction = temporalInduction;
+            return s;
+        }
+
+        Sentence readOptionalSentence() throws IOException {
+            return in.readBoolean() ? readSentence() : null;
+        }
+
+        Task readTask() throws IOException {
+            final Sentence s = readSentence();
+            final BudgetValue b = readBudget();
+            final boolean isInput = in.readBoolean();
+            final boolean sequenceBuffer = in.readBoolean();
+            final boolean observablePrediction = in.readBoolean();
+            final Sentence parentBelief = readOptionalSentence();
+            final Sentence solution = readOptionalSentence();
+            if (s == null) {
+                return null;
+            }
+            final Task t = new Task(s, b, parentBelief, solution, isInput);
+            t.setElemOfSequenceBuffer(sequenceBuffer);
+            t.setObservablePrediction(observablePrediction);
+            return t;
+        }
+
+        void readTaskList(final List<Task> table) throws IOException {
+            for (int n = in.readInt(); n > 0; n--) {
+                final Task t = readTaskRef();
+                if (t != null) {
+                    table.add(t);
+                }
+            }
+        }
+
+        void readBag(final Bag<Task<Term>,Sentence<Term>> bag) throws IOException {
+            for (int n = in.readInt(); n > 0; n--) {
+                final Task t = readTaskRef();
+                if ((t != null) && (bag != null)) {
+                    bag.putIn(t);
+                }
+            }
+        }
+
+        short[] readIndex() throws IOException {
+            final short length = in.readShort();
+            if (length < 0) {
+                return null;
+            }
+            final short[] index = new short[length];
+            for (int i = 0; i < length; i++) {
+                index[i] = in.readShort();
+            }
+            return index;
+        }
+
+        /** @return the concept, or null if its term could not be restored or it already exists */
+        Concept readConcept() throws IOException {
+            final Term term = readTerm();
+            final BudgetValue budget = readBudget();
+            final boolean skip = (term == null) || (memory.concept(term) != null);
+            final Concept c = skip ? null : new Concept(budget, term, memory);
+            final List<Task> scratch = new ArrayList<>();
+
+            final boolean observable = in.readBoolean();
+            readTaskList(skip ? scratch : c.beliefs);
+            readTaskList(skip ? scratch : c.executable_preconditions);
+            readTaskList(skip ? scratch : c.desires);
+            readTaskList(skip ? scratch : c.questions);
+            readTaskList(skip ? scratch : c.quests);
+
+            for (int n = in.readInt(); n > 0; n--) {
+                final Task t = readTaskRef();
+                final short type = in.readShort();
+                final short[] index = readIndex();
+                final BudgetValue b = readBudget();
+                if (!skip && (t != null)) {
+                    c.taskLinks.putIn(new TaskLink(t, type, index, b, Parameters.TERM_LINK_RECORD_LENGTH));
+                }
+            }
+
+            for (int n = in.readInt(); n > 0; n--) {
+                final Term target = readTerm();
+                final short type = in.readShort();
+                final short[] index = readIndex();
+                final BudgetValue b = readBudget();
+                if (!skip && (target != null)) {
+                    c.termLinks.putIn(new TermLink(target, type, index, b));
+                }
+            }
+
+            if (skip) {
+                return null;
+            }
+            c.observable = observable;
+            return c;
+        }
+    }
+
+    /**
+     * Reads a snapshot into the memory of a NAR.  Everything but the concepts is
+     * applied on construction; the concepts follow through readConcepts, all at
+     * once or spread over several cycles with loadDuringCycles.
+     */
+    public static class Reader extends Decoder implements Closeable {
+
+        public final NAR nar;
+
+        /** operators which were registered when the snapshot was written, but not in this NAR */
+        public final List<String> missingOperators = new ArrayList<>();
+
+        private final Term[] terms;
+        private final Task[] tasks;
+        private int conceptsRemaining;
+        private EventObserver loader;
+
+        public Reader(final NAR nar, final Path file) throws IOException {
+            super(nar.memory, new DataInputStream(new BufferedInputStream(Channels.newInputStream(FileChannel.open(file, StandardOpenOption.READ)), BUFFER_SIZE)));
+            this.nar = nar;
+
+            boolean ok = false;
+            try {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException(file + " is not a memory snapshot");
+                }
+                final int version = in.readInt();
+                if (version > VERSION) {
+                    throw new IOException("Unsupported memory snapshot version " + version);
+                }
+
+                memory.cycle = in.readLong();
+                memory.currentStampSerial = in.readLong();
+                memory.decisionBlock = in.readLong();
+                memory.inputPausedUntil = in.readInt();
+                final float happy = in.readFloat();
+                final float busy = in.readFloat();
+                memory.emotion.set(happy, busy);
+
+                readParams();
+
+                section(SECTION_OPERATORS);
+                for (int n = in.readInt(); n > 0; n--) {
+                    final String op = in.readUTF();
+                    if (memory.getOperator(op) == null) {
+                        missingOperators.add(op);
+                    }
+                }
+
+                section(SECTION_TERMS);
+                final Narsese narsese = new Narsese(nar);
+                terms = new Term[in.readInt()];
+                for (int i = 0; i < terms.length; i++) {
+                    final String s = in.readUTF();
+                    try {
+                        terms[i] = narsese.parseTerm(s);
+                    } catch (Narsese.InvalidInputException e) {
+                        //records referring to it are skipped
+                    }
+                }
+
+                section(SECTION_TASKS);
+                tasks = new Task[in.readInt()];
+                for (int i = 0; i < tasks.length; i++) {
+                    tasks[i] = readTask();
+                }
+
+                section(SECTION_BAGS);
+                readBag(memory.novelTasks);
+                readBag(memory.seq_current);
+                readBag(memory.recent_operations);
+
+                section(SECTION_CONCEPTS);
+                conceptsRemaining = in.readInt();
+                ok = true;
+            } finally {
+                if (!ok) {
+                    in.close();
+                }
+            }
+        }
+
+        public boolean isDone() {
+            return conceptsRemaining == 0;
+        }
+
+        /**
+         * Adds up to max of the remaining concepts to the memory.  A concept
+         * which already exists in the memory keeps its current state.
+         *
+         * @return the number of concepts read
+         */
+        public int readConcepts(final int max) throws IOException {
+            int n = 0;
+            while ((conceptsRemaining > 0) && (n < max)) {
+                conceptsRemaining--;
+                n++;
+                final Concept c = readConcept();
+                if (c != null) {
+                    final Concept displaced = memory.concepts.putIn(c);
+                    if (displaced != null) {
+                        memory.conceptRemoved(displaced);
+                    }
+                }
+            }
+            if (conceptsRemaining == 0) {
+                close();
+            }
+            return n;
+        }
+
+        /**
+         * Continues loading at the end of every cycle, conceptsPerCycle concepts at
+         * a time, so that a large memory becomes usable before it is complete.
+         */
+        public void loadDuringCycles(final int conceptsPerCycle) {
+            loader = new EventObserver() {
+                @Override
+                public void event(final Class event, final Object[] args) {
+                    try {
+                        readConcepts(conceptsPerCycle);
+                    } catch (IOException e) {
+                        conceptsRemaining = 0;
+                        memory.event.off(CycleEnd.class, this);
+                        throw new RuntimeException(e);
+                    }
+                    if (isDone()) {
+                        memory.event.off(CycleEnd.class, this);
+                    }
+                }
+            };
+            memory.event.on(CycleEnd.class, loader);
+        }
+
+        @Override
+        Term readTerm() throws IOException {
+            return terms[in.readInt()];
+        }
+
+        @Override
+        Task readTaskRef() throws IOException {
+            return tasks[in.readInt()];
+        }
+
+        @Override
+        public void close() throws IOException {
+            conceptsRemaining = 0;
+            in.close();
+        }
+
+        void section(final int expected) throws IOException {
+            final int s = in.readInt();
+            if (s != expected) {
+                throw new IOException("Corrupt memory snapshot: expected section " + expected + ", found " + s);
+            }
+        }
+
+        void readParams() throws IOException {
+            section(SECTION_PARAMS);
+            final Map<String,Field> fields = new HashMap<>();
+            for (final Field f : params()) {
+                fields.put(f.getName(), f);
+            }
+            for (int n = in.readInt(); n > 0; n--) {
+                final String name = in.readUTF();
+                final byte kind = in.readByte();
+                final double value = in.readDouble();
+                final Field f = fields.get(name);
+                if (f == null) {
+                    continue;
+                }
+                final Object v = get(f, memory.param);
+                if ((kind == 'I') && (v instanceof PortableInteger)) {
+                    ((PortableInteger) v).set((int) value);
+                } else if ((kind == 'D') && (v instanceof PortableDouble)) {
+                    ((PortableDouble) v).set(value);
+                }
+            }
+        }
+    }
+
+    /** the adjustable PortableInteger / PortableDouble fields of RuntimeParameters */
+    static List<Field> params() {
+        final List<Field> fields = new ArrayList<>();
+        for (final Field f : RuntimeParameters.class.getFields()) {
+            if (Modifier.isStatic(f.getModifiers())) {
+                continue;
+            }
+            final Class<?> type = f.getType();
+            if (PortableInteger.class.isAssignableFrom(type) || PortableDouble.class.isAssignableFrom(type)) {
+                fields.add(f);
+            }
+        }
+        return fields;
+    }
+
+    static Object get(final Field f, final RuntimeParameters param) {
+        try {
+            return f.get(param);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -9,6 +9,8 @@ public abstract class AbstractObserver implements EventEmitter.EventObserver {
     protected final EventEmitter source;
     protected boolean active = false;
     private final Class[] events;
+    /** delivers the events on its own thread, after setAsync */
+    private AsyncObserver async = null;
 
     
     public AbstractObserver(NAR n, boolean active, Class... events) {
@@ -26,7 +28,33 @@ public abstract class AbstractObserver implements EventEmitter.EventObserver {
         if (this.active == b) return;
         
         this.active = b;
-        source.set(this, b, events);
+        if (async != null)
+            async.setActive(b);
+        else
+            source.set(this, b, events);
+    }
+
+    /**
+     * Has the events delivered to this observer by an AsyncObserver, on a
+     * thread of its own, instead of on the emitting (reasoning) thread.  For
+     * observers the reasoning does not depend on, such as outputs and logs.
+     *
+     * @param capacity maximum number of queued events
+     * @param overflow what to do with events when the queue is full
+     */
+    public void setAsync(final NAR n, final int capacity, final AsyncObserver.Overflow overflow) {
+        if (async != null) return;
+        
+        if (active)
+            source.set(this, false, events);
+        async = new AsyncObserver(source, n.memory.metrics, n.param.metrics, this, capacity, events).overflow(overflow);
+        if (!active)
+            async.setActive(false);
+    }
+
+    /** the AsyncObserver delivering the events, null while they are delivered synchronously */
+    public AsyncObserver getAsync() {
+        return async;
     }
 
     public boolean isActive() {
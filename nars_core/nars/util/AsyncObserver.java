@@ -0,0 +1,278 @@
+package nars.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import nars.NAR;
+import nars.util.EventEmitter.EventObserver;
+
+/**
+ * Runs an EventObserver on its own thread instead of the reasoning thread.
+ * <p>
+ * Events are queued in a bounded ring buffer owned by this subscriber and
+ * delivered in order by a daemon thread, so a slow observer (GUI, text output,
+ * lab plugins) no longer slows down Memory.cycle.  What happens when the
+ * buffer is full is chosen per channel (Overflow); by default emitting waits
+ * for room, which loses nothing.  Observers the reasoning depends on should
+ * stay synchronous, registered with EventEmitter.on as usual; the others can
+ * be moved to an AsyncObserver with AbstractObserver.setAsync.
+ * <p>
+ * With a Metrics, the delay from emit to delivery is recorded per channel in
+ * the histogram "event.Channel.lag", and dropped or coalesced events in the
+ * counters "event.Channel.dropped" and "event.Channel.coalesced".
+ * <p>
+ * An exception thrown by the observer does not stop the delivery of the
+ * following events; it is counted (failures, and "event.Channel.failed"),
+ * and the first one is printed.
+ */
+public class AsyncObserver extends AbstractObserver {
+
+    /** what to do with an event of a channel when the buffer is full */
+    public enum Overflow {
+        /** wait for the observer thread to make room */
+        Block,
+        /** drop the new event */
+        DropNewest,
+        /** drop the oldest queued event to make room */
+        DropOldest,
+        /**
+         * while an event of the channel is queued, replace its arguments
+         * instead of queueing another one; when full, as DropOldest
+         */
+        Coalesce
+    }
+
+    public final EventObserver target;
+
+    private final Metrics metrics;
+    private final AtomicBoolean measure;
+
+    private final Class[] channels;
+    private final Object[][] args;
+    private final long[] times;
+    private final int mask;
+    /* sequence numbers of the oldest queued and of the next event */
+    private long head = 0, tail = 0;
+    /** whether the observer thread is delivering an event */
+    private boolean delivering = false;
+    /** number of events whose delivery threw */
+    private long failures = 0;
+
+    private final Map<Class,Overflow> overflow = new HashMap<>();
+    private Overflow defaultOverflow = Overflow.Block;
+    /** sequence number of the latest queued event per coalesced channel */
+    private final Map<Class,Long> latest = new HashMap<>();
+
+    private Thread thread = null;
+
+    /** observer thread, recording metrics in the NAR's Memory while its metrics parameter is enabled */
+    public AsyncObserver(final NAR n, final EventObserver target, final int capacity, final Class... events) {
+        this(n.memory.event, n.memory.metrics, n.param.metrics, target, capacity, events);
+    }
+
+    /**
+     * @param metrics where to record lag and losses, may be null
+     * @param measure whether to record, may be null for always
+     * @param capacity maximum number of queued events, rounded up to a power of two
+     */
+    public AsyncObserver(final EventEmitter source, final Metrics metrics, final AtomicBoolean measure, final EventObserver target, final int capacity, final Class... events) {
+        super(source, false, events);
+        this.target = target;
+        this.metrics = metrics;
+        this.measure = measure;
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.channels = new Class[size];
+        this.args = new Object[size][];
+        this.times = new long[size];
+        this.mask = size - 1;
+        setActive(true);
+    }
+
+    /** sets the overflow policy of a channel */
+    public synchronized AsyncObserver overflow(final Class channel, final Overflow o) {
+        overflow.put(channel, o);
+        return this;
+    }
+
+    /** sets the overflow policy of the channels without one of their own */
+    public synchronized AsyncObserver overflow(final Overflow o) {
+        defaultOverflow = o;
+        return this;
+    }
+
+    @Override
+    public void setActive(final boolean b) {
+        super.setActive(b);
+        synchronized (this) {
+            if (b && (thread == null)) {
+                thread = new Thread(new Runnable() {
+                    @Override public void run() {
+                        deliver(Thread.currentThread());
+                    }
+                }, "AsyncObserver " + target);
+                thread.setDaemon(true);
+                thread.start();
+            } else if (!b && (thread != null)) {
+                //the thread ends once it has delivered what is queued
+                thread = null;
+                notifyAll();
+            }
+        }
+    }
+
+    /** number of events whose delivery threw an exception */
+    public synchronized long failures() {
+        return failures;
+    }
+
+    /** number of queued events */
+    public synchronized int lag() {
+        return (int) (tail - head);
+    }
+
+    /**
+     * Waits until every event queued so far has been delivered
+     *
+     * @return false if the timeout (ms, 0 for none) elapsed first
+     */
+    public synchronized boolean flush(final long timeout) throws InterruptedException {
+        final long end = System.currentTimeMillis() + timeout;
+        final long until = tail;
+        while ((head < until) || delivering) {
+            final long wait = (timeout == 0) ? 0 : end - System.currentTimeMillis();
+            if ((timeout != 0) && (wait <= 0)) {
+                return false;
+            }
+            wait(wait);
+        }
+        return true;
+    }
+
+    /** called by the emitting thread */
+    @Override
+    public void event(final Class event, final Object[] a) {
+        if (Thread.currentThread() == thread) {
+            //emitted by the observer itself, waiting for room would never end
+            target.event(event, a);
+            return;
+        }
+        final boolean record = (metrics != null) && ((measure == null) || measure.get());
+        synchronized (this) {
+            final Overflow o = overflow.getOrDefault(event, defaultOverflow);
+            if (o == Overflow.Coalesce) {
+                final Long l = latest.get(event);
+                if ((l != null) && (l >= head)) {
+                    final int i = (int) (long) l & mask;
+                    args[i] = a;
+                    if (record) {
+                        metrics.counter(metric(event, "coalesced")).increment();
+                    }
+                    return;
+                }
+            }
+            if (tail - head > mask) {
+                switch (o) {
+                    case Block:
+                        while ((tail - head > mask) && (thread != null)) {
+                            try {
+                                wait();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                return;
+                            }
+                        }
+                        if (tail - head > mask) {
+                            //deactivated meanwhile
+                            return;
+                        }
+                        break;
+                    case DropNewest:
+                        if (record) {
+                            metrics.counter(metric(event, "dropped")).increment();
+                        }
+                        return;
+                    default:
+                        if (record) {
+                            metrics.counter(metric(channels[(int) head & mask], "dropped")).increment();
+                        }
+                        take();
+                }
+            }
+            final int i = (int) tail & mask;
+            channels[i] = event;
+            args[i] = a;
+            times[i] = record ? System.nanoTime() : 0;
+            if (o == Overflow.Coalesce) {
+                latest.put(event, tail);
+            }
+            tail++;
+            notifyAll();
+        }
+    }
+
+    /** removes the oldest queued event, while locked */
+    private void take() {
+        final int i = (int) head & mask;
+        channels[i] = null;
+        args[i] = null;
+        head++;
+    }
+
+    private void deliver(final Thread self) {
+        while (true) {
+            final Class event;
+            final Object[] a;
+            final long time;
+            synchronized (this) {
+                while ((head == tail) && (thread == self)) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (head == tail) {
+                    return;
+                }
+                final int i = (int) head & mask;
+                event = channels[i];
+                a = args[i];
+                time = times[i];
+                take();
+                delivering = true;
+                notifyAll();
+            }
+            if ((time != 0) && (metrics != null)) {
+                metrics.histogram(metric(event, "lag")).record(System.nanoTime() - time);
+            }
+            Throwable failure = null;
+            try {
+                target.event(event, a);
+            } catch (Throwable ex) {
+                failure = ex;
+            }
+            final boolean first;
+            synchronized (this) {
+                delivering = false;
+                first = (failure != null) && (failures++ == 0);
+                notifyAll();
+            }
+            if (failure != null) {
+                if (metrics != null) {
+                    metrics.counter(metric(event, "failed")).increment();
+                }
+                if (first) {
+                    System.err.println("AsyncObserver " + target + ": " + event.getSimpleName() + " failed, further failures are only counted");
+                    failure.printStackTrace();
+                }
+            }
+        }
+    }
+
+    static String metric(final Class event, final String what) {
+        return "event." + event.getSimpleName() + '.' + what;
+    }
+}
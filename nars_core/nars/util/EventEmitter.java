@@ -3,10 +3,9 @@ package nars.util;
 
 import java.io.Serializable;
 import java.util.ArrayDeque;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -21,11 +20,89 @@ public class EventEmitter {
         public void event(Class<? extends C> event, Object[] args);
     }
 
-    private final Map<Class<?>, List<EventObserver>> events;
+    private final Map<Class<?>, Channel> events;
             
     
     private Deque<Object[]> pendingOps = new ArrayDeque();
     
+    private static final EventObserver[] NO_OBSERVERS = new EventObserver[0];
+    private static final Object[] NO_ARGS = new Object[0];
+    
+    /**
+     * Handle of one event class, resolved once with channel(Class) and kept by
+     * the emitting code.  Its emit methods only read the observer array when
+     * nobody listens, without a map lookup or a varargs array.
+     */
+    public final class Channel {
+        public final Class event;
+        
+        /** replaced, never modified, on every on/off */
+        private volatile EventObserver[] observers = NO_OBSERVERS;
+
+        Channel(final Class event) {
+            this.event = event;
+        }
+        
+        public boolean isActive() {
+            return observers.length != 0;
+        }
+        
+        public void emit() {
+            final EventObserver[] o = observers;
+            if (o.length != 0) emitTo(o, event, NO_ARGS);
+        }
+        
+        public void emit(final Object a) {
+            final EventObserver[] o = observers;
+            if (o.length != 0) emitTo(o, event, new Object[] { a });
+        }
+        
+        public void emit(final Object a, final Object b) {
+            final EventObserver[] o = observers;
+            if (o.length != 0) emitTo(o, event, new Object[] { a, b });
+        }
+        
+        public void emit(final Object a, final Object b, final Object c) {
+            final EventObserver[] o = observers;
+            if (o.length != 0) emitTo(o, event, new Object[] { a, b, c });
+        }
+        
+        public void emit(final Object a, final Object b, final Object c, final Object d) {
+            final EventObserver[] o = observers;
+            if (o.length != 0) emitTo(o, event, new Object[] { a, b, c, d });
+        }
+        
+        /** emits an argument array as is */
+        public void emitArray(final Object[] args) {
+            final EventObserver[] o = observers;
+            if (o.length != 0) emitTo(o, event, args);
+        }
+        
+        synchronized void add(final EventObserver x) {
+            final EventObserver[] o = Arrays.copyOf(observers, observers.length + 1);
+            o[o.length - 1] = x;
+            observers = o;
+        }
+        
+        synchronized void remove(final EventObserver x) {
+            final EventObserver[] o = observers;
+            for (int i = 0; i < o.length; i++) {
+                if (o[i].equals(x)) {
+                    final EventObserver[] r = new EventObserver[o.length - 1];
+                    System.arraycopy(o, 0, r, 0, i);
+                    System.arraycopy(o, i + 1, r, i, r.length - i);
+                    observers = r;
+                    return;
+                }
+            }
+        }
+        
+        @Override
+        public String toString() {
+            return event.getSimpleName() + Arrays.toString(observers);
+        }
+    }
+    
     /** EventEmitter that allows unknown events; must use concurrent collection
      *  for multithreading since new event classes may be added at any time.
      */
@@ -42,21 +119,22 @@ public class EventEmitter {
     public EventEmitter(Class... knownEventClasses) {
         events = new HashMap(knownEventClasses.length);
         for (Class c : knownEventClasses) {
-            events.put(c, newObserverList());
+            events.put(c, new Channel(c));
         }
     }
 
-    protected List<EventObserver> newObserverList() {
-        return new ArrayList();
-        /*return Parameters.THREADS == 1 ? 
-                new ArrayList() : Collections.synchronizedList(new ArrayList());*/
+    /** the handle of an event class, created on first use */
+    public synchronized Channel channel(final Class<?> event) {
+        Channel c = events.get(event);
+        if (c == null) {
+            events.put(event, c = new Channel(event));
+        }
+        return c;
     }
     
     public final boolean isActive(final Class event) {
-        if (events.get(event)!=null)
-            if (!events.get(event).isEmpty())
-                return true;
-        return false;
+        final Channel c = events.get(event);
+        return (c != null) && c.isActive();
     }
     
     //apply pending on/off changes when synchronizing, ex: in-between memory cycles
@@ -78,13 +156,7 @@ public class EventEmitter {
         }
     }  
     public void on(final Class<?> event, final EventObserver o) {
-        if (events.containsKey(event))
-            events.get(event).add(o);
-        else {
-            List<EventObserver> a = newObserverList();
-            a.add(o);
-            events.put(event, a);
-        }       
+        channel(event).add(o);
     }
  
     /**
@@ -99,9 +171,7 @@ public class EventEmitter {
         if (!events.containsKey(event))
             throw new RuntimeException("Unknown event: " + event);
         
-        try {
         events.get(event).remove(o);
-        } catch(Exception ex) { }
         /*if (!removed) {
             throw new RuntimeException("EventObserver " + o + " was not registered for events");
         }*/        
@@ -118,18 +188,37 @@ public class EventEmitter {
     }
     
 
+    /** while true, observers are called by one thread at a time, ex: during parallel inference */
+    private volatile boolean concurrent = false;
+    
+    public void setConcurrent(final boolean c) {
+        this.concurrent = c;
+    }
+    
     public void emit(final Class eventClass, final Object... params) {
-        List<EventObserver> observers = events.get(eventClass);
-        
-        if ((observers == null) || (observers.isEmpty())) return;
-
-        int n = observers.size();
-        for (int i = 0; i < n; i++) {
+        final Channel c = events.get(eventClass);
+        if (c != null) {
+            c.emitArray(params);
+        }
+    }
+    
+    private void emitTo(final EventObserver[] observers, final Class eventClass, final Object[] params) {
+        if (concurrent) {
+            synchronized (this) {
+                deliver(observers, eventClass, params);
+            }
+        }
+        else {
+            deliver(observers, eventClass, params);
+        }
+    }
+    
+    private static void deliver(final EventObserver[] observers, final Class eventClass, final Object[] params) {
+        for (int i = 0; i < observers.length; i++) {
             try{
-            EventObserver m = observers.get(i);
-            m.event(eventClass, params);
+            observers[i].event(eventClass, params);
             }catch(Exception ex){}
         }
         
     }
-}
\ No newline at end of file
+}
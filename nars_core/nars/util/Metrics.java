@@ -0,0 +1,221 @@
+package nars.util;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import nars.entity.TermLink;
+
+/**
+ * Counters and timing histograms of a Memory, recorded while
+ * RuntimeParameters.metrics is enabled.
+ * <p>
+ * Memory.cycle times its phases (Phase), GeneralInferenceControl times each
+ * RuleTables.reason call and counts its derivations per rule group, which is
+ * the pair of TaskLink and TermLink types RuleTables dispatches on.  All of it
+ * can be read or reported from another thread while the reasoner runs, and
+ * reportEvery writes a report periodically at the end of a cycle.
+ */
+public class Metrics {
+
+    public enum Format { Text, CSV, JSON }
+
+    /** the parts of Memory.cycle, in order */
+    public enum Phase {
+        Input("cycle.input"),
+        NewTasks("cycle.newTasks"),
+        NovelTask("cycle.novelTask"),
+        Inference("cycle.inference"),
+        Events("cycle.events"),
+        Cycle("cycle.total");
+
+        public final String metric;
+
+        Phase(final String metric) {
+            this.metric = metric;
+        }
+    }
+
+    /** TermLink types are below this */
+    static final int LINK_TYPES = 10;
+
+    private final Map<String,LongAdder> counters = new ConcurrentSkipListMap<>();
+    private final Map<String,Histogram> histograms = new ConcurrentSkipListMap<>();
+
+    private final Histogram[] phases = new Histogram[Phase.values().length];
+    private final AtomicReferenceArray<Histogram> ruleTimes = new AtomicReferenceArray<>(LINK_TYPES * LINK_TYPES);
+    private final AtomicReferenceArray<LongAdder> ruleDerivations = new AtomicReferenceArray<>(LINK_TYPES * LINK_TYPES);
+
+    private int reportPeriod = 0;
+    private Format reportFormat = Format.Text;
+    private Appendable reportOut = null;
+
+    public Metrics() {
+        for (final Phase p : Phase.values()) {
+            phases[p.ordinal()] = histogram(p.metric);
+        }
+    }
+
+    public LongAdder counter(final String name) {
+        LongAdder c = counters.get(name);
+        if (c == null) {
+            synchronized (counters) {
+                c = counters.get(name);
+                if (c == null) {
+                    counters.put(name, c = new LongAdder());
+                }
+            }
+        }
+        return c;
+    }
+
+    public Histogram histogram(final String name) {
+        Histogram h = histograms.get(name);
+        if (h == null) {
+            synchronized (histograms) {
+                h = histograms.get(name);
+                if (h == null) {
+                    histograms.put(name, h = new Histogram());
+                }
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Records the time since start for a phase
+     *
+     * @return the current time, the start of the next phase
+     */
+    public long phase(final Phase p, final long start) {
+        final long now = System.nanoTime();
+        phases[p.ordinal()].record(now - start);
+        return now;
+    }
+
+    /** records one RuleTables.reason call */
+    public void rule(final short taskLinkType, final short termLinkType, final long nanos, final int derivations) {
+        final int i = taskLinkType * LINK_TYPES + termLinkType;
+        Histogram h = ruleTimes.get(i);
+        if (h == null) {
+            final String name = "rule." + linkName(taskLinkType) + "/" + linkName(termLinkType);
+            ruleTimes.compareAndSet(i, null, histogram(name + ".nanos"));
+            ruleDerivations.compareAndSet(i, null, counter(name + ".derived"));
+            h = ruleTimes.get(i);
+        }
+        h.record(nanos);
+        ruleDerivations.get(i).add(derivations);
+    }
+
+    public static String linkName(final short type) {
+        switch (type) {
+            case TermLink.SELF: return "SELF";
+            case TermLink.COMPONENT: return "COMPONENT";
+            case TermLink.COMPOUND: return "COMPOUND";
+            case TermLink.COMPONENT_STATEMENT: return "COMPONENT_STATEMENT";
+            case TermLink.COMPOUND_STATEMENT: return "COMPOUND_STATEMENT";
+            case TermLink.COMPONENT_CONDITION: return "COMPONENT_CONDITION";
+            case TermLink.COMPOUND_CONDITION: return "COMPOUND_CONDITION";
+            case TermLink.TRANSFORM: return "TRANSFORM";
+            case TermLink.TEMPORAL: return "TEMPORAL";
+            default: return Short.toString(type);
+        }
+    }
+
+    /** clears all values, keeping the registered names */
+    public void reset() {
+        for (final LongAdder c : counters.values()) {
+            c.reset();
+        }
+        for (final Histogram h : histograms.values()) {
+            h.reset();
+        }
+    }
+
+    /**
+     * Writes a report every period cycles while metrics are enabled
+     *
+     * @param out receives the reports, null or a period of 0 stop reporting
+     */
+    public synchronized void reportEvery(final int period, final Format format, final Appendable out) {
+        this.reportPeriod = (out == null) ? 0 : period;
+        this.reportFormat = format;
+        this.reportOut = out;
+    }
+
+    /** called by Memory at the end of each measured cycle */
+    public synchronized void cycleEnd(final long cycle) {
+        if ((reportPeriod > 0) && (cycle % reportPeriod == 0)) {
+            try {
+                report(reportOut, reportFormat, cycle);
+                if (reportOut instanceof Flushable) {
+                    ((Flushable) reportOut).flush();
+                }
+            } catch (IOException e) {
+                reportPeriod = 0;
+            }
+        }
+    }
+
+    public String report(final Format format, final long cycle) {
+        final StringBuilder sb = new StringBuilder();
+        try {
+            report(sb, format, cycle);
+        } catch (IOException e) {
+            //not thrown by StringBuilder
+        }
+        return sb.toString();
+    }
+
+    public void report(final Appendable out, final Format format, final long cycle) throws IOException {
+        switch (format) {
+            case CSV:
+                out.append("cycle,name,count,sum,mean,p50,p90,p99,max\n");
+                for (final Map.Entry<String,LongAdder> e : counters.entrySet()) {
+                    out.append(cycle + "," + e.getKey() + "," + e.getValue().sum() + ",,,,,,\n");
+                }
+                for (final Map.Entry<String,Histogram> e : histograms.entrySet()) {
+                    final Histogram h = e.getValue();
+                    out.append(cycle + "," + e.getKey() + "," + h.count() + "," + h.sum() + "," + format(h.mean()) + ","
+                            + h.quantile(0.5) + "," + h.quantile(0.9) + "," + h.quantile(0.99) + "," + h.max() + "\n");
+                }
+                break;
+            case JSON:
+                out.append("{\"cycle\":" + cycle + ",\"counters\":{");
+                String sep = "";
+                for (final Map.Entry<String,LongAdder> e : counters.entrySet()) {
+                    out.append(sep + "\"" + e.getKey() + "\":" + e.getValue().sum());
+                    sep = ",";
+                }
+                out.append("},\"histograms\":{");
+                sep = "";
+                for (final Map.Entry<String,Histogram> e : histograms.entrySet()) {
+                    final Histogram h = e.getValue();
+                    out.append(sep + "\"" + e.getKey() + "\":{\"count\":" + h.count() + ",\"sum\":" + h.sum()
+                            + ",\"mean\":" + format(h.mean()) + ",\"p50\":" + h.quantile(0.5) + ",\"p90\":" + h.quantile(0.9)
+                            + ",\"p99\":" + h.quantile(0.99) + ",\"max\":" + h.max() + "}");
+                    sep = ",";
+                }
+                out.append("}}\n");
+                break;
+            default:
+                out.append("metrics at cycle " + cycle + "\n");
+                for (final Map.Entry<String,LongAdder> e : counters.entrySet()) {
+                    out.append("  " + e.getKey() + " " + e.getValue().sum() + "\n");
+                }
+                for (final Map.Entry<String,Histogram> e : histograms.entrySet()) {
+                    final Histogram h = e.getValue();
+                    out.append("  " + e.getKey() + " count=" + h.count() + " mean=" + format(h.mean())
+                            + " p50=" + h.quantile(0.5) + " p90=" + h.quantile(0.9) + " p99=" + h.quantile(0.99)
+                            + " max=" + h.max() + "\n");
+                }
+        }
+    }
+
+    static String format(final double d) {
+        return String.format(Locale.US, "%.1f", d);
+    }
+}
@@ -0,0 +1,284 @@
+package nars.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import nars.NAR;
+import nars.entity.Concept;
+
+/**
+ * Runs many NARs on a fixed number of worker threads instead of one
+ * inference thread each.
+ * <p>
+ * A session runs cyclesPerQuantum times its weight cycles at a time
+ * (NAR.frame) and then goes to the back of the queue, waiting at least
+ * minQuantumPeriodMS before its next quantum, so each session gets its
+ * share of the cycles in proportion to its weight.  A session which had no
+ * input for parkAfterIdleCycles cycles is parked, taking no worker time
+ * until the next input; pause keeps it from running until resume.
+ * <p>
+ * Input is queued by the session and handed to its NAR by the worker
+ * before a quantum, so that a NAR is only ever used by one thread.  After
+ * every ACCOUNT_QUANTA quanta the worker also estimates the memory used by
+ * the concepts of the NAR.
+ */
+public class NARHost {
+
+    /** rough sizes of the parts of a memory, in bytes, for getMemoryEstimate */
+    public static int CONCEPT_BYTES = 2048, LINK_BYTES = 64, TASK_BYTES = 256;
+
+    /** quanta between memory estimates of a session */
+    public static int ACCOUNT_QUANTA = 16;
+
+    public final int cyclesPerQuantum;
+    public final long minQuantumPeriodMS;
+    /** cycles without input after which a session is parked, 0 to never park */
+    public final long parkAfterIdleCycles;
+
+    private final DelayQueue<Session> ready = new DelayQueue<>();
+    private final List<Session> sessions = new CopyOnWriteArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean closed = false;
+
+    public class Session implements Delayed {
+
+        public final NAR nar;
+
+        private final ConcurrentLinkedQueue<String> inbox = new ConcurrentLinkedQueue<>();
+        private volatile int weight = 1;
+        private volatile long cycles = 0;
+        private volatile long memoryEstimate = 0;
+        private long idleCycles = 0;
+        private int quanta = 0;
+        /** whether the session is in the ready queue or being run */
+        private boolean scheduled = false;
+        private boolean paused = false, closed = false;
+        private Throwable error = null;
+        private long nextRun;
+
+        Session(final NAR nar) {
+            this.nar = nar;
+        }
+
+        /** queues Narsese (or other) input for the NAR, waking the session if it is parked */
+        public void input(final String text) {
+            inbox.add(text);
+            schedule();
+        }
+
+        /** runs the session without waiting for input */
+        public void wake() {
+            schedule();
+        }
+
+        /** keeps the session from running until resume */
+        public synchronized void pause() {
+            paused = true;
+        }
+
+        public void resume() {
+            synchronized (this) {
+                paused = false;
+            }
+            schedule();
+        }
+
+        /** stops running the session and removes it from the host */
+        public void close() {
+            synchronized (this) {
+                closed = true;
+            }
+            sessions.remove(this);
+        }
+
+        /** closes the session after an error while running it */
+        void fail(final Throwable error) {
+            synchronized (this) {
+                this.error = error;
+                scheduled = false;
+            }
+            close();
+        }
+
+        /** the error which closed the session, or null */
+        public synchronized Throwable getError() {
+            return error;
+        }
+
+        /** sets the share of the cycles of the session relative to the others, 1 by default */
+        public void setWeight(final int weight) {
+            this.weight = Math.max(1, weight);
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        /** the number of cycles run by the host */
+        public long getCycles() {
+            return cycles;
+        }
+
+        /** whether the session waits for input */
+        public synchronized boolean isParked() {
+            return !scheduled && !paused && !closed;
+        }
+
+        public synchronized boolean isPaused() {
+            return paused;
+        }
+
+        /** rough number of bytes used by the concepts of the NAR, as of its last estimate */
+        public long getMemoryEstimate() {
+            return memoryEstimate;
+        }
+
+        private void schedule() {
+            synchronized (this) {
+                if (scheduled || paused || closed || NARHost.this.closed) {
+                    return;
+                }
+                scheduled = true;
+                nextRun = System.nanoTime();
+            }
+            ready.offer(this);
+        }
+
+        /** runs one quantum, on a worker */
+        void run() {
+            synchronized (this) {
+                if (paused || closed) {
+                    scheduled = false;
+                    return;
+                }
+            }
+
+            String in;
+            while ((in = inbox.poll()) != null) {
+                nar.addInput(in);
+                idleCycles = 0;
+            }
+
+            final long start = nar.time();
+            nar.frame(cyclesPerQuantum * weight);
+            final long ran = nar.time() - start;
+            cycles += ran;
+            idleCycles += ran;
+
+            if ((quanta++ % ACCOUNT_QUANTA) == 0) {
+                account();
+            }
+
+            synchronized (this) {
+                final boolean idle = (parkAfterIdleCycles > 0) && (idleCycles >= parkAfterIdleCycles)
+                        && inbox.isEmpty() && nar.inputChannels.isEmpty();
+                if (paused || closed || idle || NARHost.this.closed) {
+                    scheduled = false;
+                    return;
+                }
+                nextRun = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(minQuantumPeriodMS);
+            }
+            ready.offer(this);
+        }
+
+        /** estimates the memory used by the concepts, on the worker running the NAR */
+        void account() {
+            long concepts = 0, links = 0, tasks = 0;
+            for (final Concept c : nar.memory.concepts) {
+                concepts++;
+                links += c.taskLinks.size() + c.termLinks.size();
+                tasks += c.beliefs.size() + c.desires.size() + c.questions.size() + c.quests.size();
+            }
+            memoryEstimate = concepts * CONCEPT_BYTES + links * LINK_BYTES + tasks * TASK_BYTES;
+        }
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(nextRun - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(final Delayed o) {
+            return Long.compare(nextRun, ((Session) o).nextRun);
+        }
+    }
+
+    /**
+     * @param threads the number of worker threads
+     * @param cyclesPerQuantum the cycles a session of weight 1 runs at a time
+     * @param minQuantumPeriodMS the time from the end of a quantum of a session to its next one
+     * @param parkAfterIdleCycles cycles without input after which a session is parked, 0 to never park
+     */
+    public NARHost(final int threads, final int cyclesPerQuantum, final long minQuantumPeriodMS, final long parkAfterIdleCycles) {
+        this.cyclesPerQuantum = cyclesPerQuantum;
+        this.minQuantumPeriodMS = minQuantumPeriodMS;
+        this.parkAfterIdleCycles = parkAfterIdleCycles;
+        for (int i = 0; i < threads; i++) {
+            final Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    work();
+                }
+            }, "NARHost worker " + i);
+            t.setDaemon(true);
+            workers.add(t);
+            t.start();
+        }
+    }
+
+    private void work() {
+        while (!closed) {
+            final Session s;
+            try {
+                s = ready.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                s.run();
+            } catch (Throwable e) {
+                //an error in one NAR (even an Error such as a StackOverflowError)
+                //ends its session, the worker goes on with the others
+                System.err.println("NARHost: closing a session after " + e);
+                e.printStackTrace();
+                s.fail(e);
+            }
+        }
+    }
+
+    /**
+     * Adds a NAR to the host.  It is not started by NAR.start, and stays
+     * parked until it gets input or is woken.
+     */
+    public Session open(final NAR nar) {
+        final Session s = new Session(nar);
+        sessions.add(s);
+        return s;
+    }
+
+    public List<Session> getSessions() {
+        return Collections.unmodifiableList(sessions);
+    }
+
+    /** the sum of the memory estimates of the sessions */
+    public long getMemoryEstimate() {
+        long m = 0;
+        for (final Session s : sessions) {
+            m += s.getMemoryEstimate();
+        }
+        return m;
+    }
+
+    /** stops the workers, after the quanta they are running */
+    public void close() {
+        closed = true;
+        for (final Thread t : workers) {
+            t.interrupt();
+        }
+    }
+}
@@ -611,8 +611,6 @@ public class NARControls extends JPanel implements ActionListener, EventObserver
                         parent.mainWindow.dispose();
                     } catch (IOException ex) {
                         Logger.getLogger(NARControls.class.getName()).log(Level.SEVERE, null, ex);
-                    } catch (ClassNotFoundException ex) {
-                        Logger.getLogger(NARControls.class.getName()).log(Level.SEVERE, null, ex);
                     }
                     break;
                 } 
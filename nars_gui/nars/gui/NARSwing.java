@@ -38,6 +38,7 @@ import nars.NAR;
 import nars.io.CommandLineNARBuilder;
 import nars.io.TextInput;
 import nars.io.TextOutput;
+import nars.util.AsyncObserver.Overflow;
 
 /**
  * The main Swing GUI class of the open-nars project.  
@@ -180,7 +181,7 @@ public class NARSwing  {
            // nw.setVisible(true);
         }
         else {
-            new TextOutput(nar, System.out);
+            new TextOutput(nar, System.out).setAsync(nar, 1024, Overflow.Block);
             //new Log4JOutput(nar, false);            
         }
         
@@ -33,6 +33,7 @@ import nars.gui.InferenceLogger.LogOutput;
 import nars.gui.NARControls;
 import nars.gui.WrapLayout;
 import nars.util.AbstractObserver;
+import nars.util.AsyncObserver.Overflow;
 import nars.io.Output;
 import nars.io.Output.ERR;
 import nars.io.Output.EXE;
@@ -86,6 +87,8 @@ abstract public class LogPanel extends NPanel implements LogOutput {
                 LogPanel.this.output(event, arguments.length > 1 ? arguments : arguments[0]);
             }
         };
+        //display only: the newest lines matter, and the reasoner does not wait for the panel
+        out.setAsync(nar, 1024, Overflow.DropOldest);
                 
         //JPanel menuBottom = new JPanel(new WrapLayout(FlowLayout.RIGHT, 0, 0));
         JPanel menuTop = new JPanel(new WrapLayout(FlowLayout.LEFT, 0, 0));
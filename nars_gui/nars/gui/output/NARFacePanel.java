@@ -2,7 +2,6 @@ package nars.gui.output;
 
 import automenta.vivisect.face.HumanoidFacePanel;
 import nars.NAR;
-import nars.config.Parameters;
 
 
 
@@ -29,8 +28,8 @@ public class NARFacePanel extends HumanoidFacePanel  {
 
     @Override
     public void update(double t) {
-        happy = nar.memory.emotion.happy() > Parameters.HAPPY_EVENT_HIGHER_THRESHOLD;
-        unhappy = nar.memory.emotion.happy() < Parameters.HAPPY_EVENT_LOWER_THRESHOLD;
+        happy = nar.memory.emotion.happy() > nar.param.happyEventHigherThreshold.floatValue();
+        unhappy = nar.memory.emotion.happy() < nar.param.happyEventLowerThreshold.floatValue();
         float conceptPriority = 0.5f; //((Number)nar.memory.logic.get("concept.priority.mean")).floatValue();
         float taskNewPriority = 0.5f; //((Number)nar.memory.logic.get("task.new.priority.mean")).floatValue();        
         
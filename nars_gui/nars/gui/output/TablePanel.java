@@ -10,6 +10,7 @@ import javax.swing.JTable;
 import javax.swing.table.DefaultTableModel;
 import nars.NAR;
 import nars.io.Output;
+import nars.util.AsyncObserver.Overflow;
 
 
 public abstract class TablePanel extends NPanel  {
@@ -34,6 +35,7 @@ public abstract class TablePanel extends NPanel  {
             }
             
         };        
+        out.setAsync(nar, 1024, Overflow.DropOldest);
     }
 
     abstract public void output(Class c, Object s);
@@ -0,0 +1,146 @@
+package nars.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import nars.NAR;
+import nars.config.Parameters;
+import nars.config.Plugins;
+import nars.entity.BeliefTable;
+import nars.entity.BudgetValue;
+import nars.entity.Concept;
+import nars.entity.Sentence;
+import nars.entity.Stamp;
+import nars.entity.Task;
+import nars.entity.TruthValue;
+import nars.io.Narsese;
+import nars.language.Term;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class BeliefTableTest {
+
+    final Term term;
+    long serial = 0;
+
+    public BeliefTableTest() throws Narsese.InvalidInputException {
+        term = new Narsese(new NAR(new Plugins())).parseTerm("<a --> b>");
+    }
+
+    Task belief(float f, float c, long occurrence) {
+        Stamp s = new Stamp(new long[] { serial++ }, false, 0, occurrence);
+        return new Task(new Sentence(term, '.', new TruthValue(f, c), s), new BudgetValue(0.5f, 0.5f, 0.5f), null, null, true);
+    }
+
+    @Test
+    public void testRankedInsert() {
+        Random r = new Random(1);
+        for (boolean expectation : new boolean[] { false, true }) {
+            BeliefTable table = new BeliefTable(expectation);
+            List<Task> list = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                //few distinct values, to exercise equal ranks
+                Task t = belief(r.nextInt(5) / 4f, 0.1f + r.nextInt(4) / 5f, r.nextBoolean() ? Stamp.ETERNAL : r.nextInt(100));
+                Task removed1 = Concept.addToTable(t, table, 20, expectation);
+                Task removed2 = Concept.addToTable(t, list, 20, expectation);
+                assertEquals(removed1, removed2);
+                assertEquals(list, table);
+            }
+        }
+    }
+
+    @Test
+    public void testRankOrder() {
+        BeliefTable table = new BeliefTable(false);
+        Task high = belief(1f, 0.9f, Stamp.ETERNAL);
+        Task low = belief(1f, 0.3f, Stamp.ETERNAL);
+        table.add(high);
+        table.add(low);
+        table.add(1, belief(1f, 0.5f, Stamp.ETERNAL));
+        table.set(1, belief(0f, 0.5f, 10));
+        for (Task t : new Task[] { belief(1f, 0.95f, Stamp.ETERNAL), belief(1f, 0.1f, Stamp.ETERNAL) }) {
+            try {
+                table.add(1, t);
+                assertTrue("inserted out of rank order", false);
+            } catch (IllegalArgumentException e) {
+            }
+            try {
+                table.set(1, t);
+                assertTrue("replaced out of rank order", false);
+            } catch (IllegalArgumentException e) {
+            }
+        }
+        assertEquals(3, table.size());
+        assertTrue((table.get(0) == high) && (table.get(2) == low));
+    }
+
+    @Test
+    public void testSelectCandidate() {
+        NAR n = new NAR(new Plugins());
+        n.run(50);
+        Concept c = n.memory.conceptualize(new BudgetValue(0.5f, 0.5f, 0.5f), term);
+        Random r = new Random(2);
+        for (int i = 0; i < 30; i++) {
+            Concept.addToTable(belief(r.nextInt(5) / 4f, 0.1f + r.nextInt(8) / 10f, r.nextInt(3) == 0 ? Stamp.ETERNAL : r.nextInt(100)), c.beliefs, 20, false);
+        }
+        //the indexed selection finds the candidate of the full scan, with and without the DEBUG checks of Stamp
+        List<Task> list = new ArrayList<>(c.beliefs);
+        final boolean debug = Parameters.DEBUG;
+        try {
+            for (boolean d : new boolean[] { false, true }) {
+                Parameters.DEBUG = d;
+                int temporal = 0;
+                for (int i = 0; i < 200; i++) {
+                    //questions are made eternal, goals keep their occurrence time for the nearest bound
+                    Stamp s = new Stamp(new long[] { serial++ }, false, 0, r.nextInt(4) == 0 ? Stamp.ETERNAL : r.nextInt(120));
+                    Sentence q = s.isEternal() ? new Sentence(term, '?', null, s) : new Sentence(term, '!', new TruthValue(1f, 0.9f), s);
+                    Task query = new Task(q, new BudgetValue(0.5f, 0.5f, 0.5f), null, null, true);
+                    if (!query.sentence.isEternal()) {
+                        temporal++;
+                    }
+                    Task expected = c.selectCandidate(query, list);
+                    assertTrue(expected != null);
+                    assertTrue(c.selectCandidate(query, c.beliefs) == expected);
+                }
+                assertTrue(temporal > 100);
+            }
+        } finally {
+            Parameters.DEBUG = debug;
+        }
+    }
+
+    @Test
+    public void testIndexes() {
+        BeliefTable table = new BeliefTable(false);
+        Task e1 = belief(1f, 0.9f, Stamp.ETERNAL);
+        Task e2 = belief(1f, 0.5f, Stamp.ETERNAL);
+        Task t10 = belief(1f, 0.8f, 10);
+        Task t20 = belief(1f, 0.7f, 20);
+        Task t20b = belief(1f, 0.6f, 20);
+        for (Task t : new Task[] { e2, t20b, t10, e1, t20 }) {
+            table.insert(t, 10);
+        }
+        assertEquals(5, table.size());
+        assertTrue(table.get(0) == e1);
+
+        assertEquals(2, table.eternalSize());
+        assertTrue(table.topEternal() == e1);
+        assertTrue(table.eternal(1) == e2);
+
+        assertEquals(3, table.temporalSize());
+        assertTrue(table.nearest(0) == t10);
+        assertTrue(table.nearest(14) == t10);
+        assertTrue("equally close, better rank", table.nearest(15) == t10);
+        assertTrue(table.nearest(16) == t20);
+        assertTrue(table.nearest(100) == t20);
+
+        table.remove(table.indexOf(t10));
+        assertTrue(table.nearest(0) == t20);
+
+        Sentence p = table.projection(t20, 25, 30);
+        assertTrue(p == table.projection(t20, 25, 30));
+        assertTrue(p != table.projection(t20, 25, 31));
+        assertEquals(t20.sentence.projection(25, 30).truth, p.truth);
+    }
+}
@@ -0,0 +1,124 @@
+package nars.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import nars.NAR;
+import nars.config.Plugins;
+import nars.entity.Concept;
+import nars.entity.Task;
+import nars.io.Narsese;
+import nars.io.Narsese.InvalidInputException;
+import nars.io.Narsese.TaskHandler;
+import nars.storage.BulkLoader;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class BulkLoaderTest {
+
+    static final int N = 40;
+
+    static String knowledge() {
+        StringBuilder text = new StringBuilder("//knowledge\n");
+        for (int i = 0; i < N; i++) {
+            text.append("<a").append(i).append(" --> b>.\n");
+        }
+        text.append("<b --> >.\n"); //line N + 2
+        text.append("<b --> c>. %0.9;0.8%\n");
+        text.append("<b --> c>. %0.6;0.5%\n");
+        text.append("<a1 --> c>?\n");
+        return text.toString();
+    }
+
+    final List<Task> tasks = new ArrayList<>();
+    final List<Long> invalid = new ArrayList<>();
+    final TaskHandler h = new TaskHandler() {
+        @Override public void task(Task t) {
+            tasks.add(t);
+        }
+        @Override public void invalid(long line, InvalidInputException e) {
+            invalid.add(line);
+        }
+    };
+
+    @Test
+    public void testLoad() throws InvalidInputException {
+        NAR n = new NAR(new Plugins());
+        ByteBuffer text = ByteBuffer.wrap(knowledge().getBytes(StandardCharsets.UTF_8));
+        assertEquals(N + 3, new BulkLoader(n, h).load(text, 4));
+        assertEquals("[" + (N + 2) + "]", invalid.toString());
+        assertEquals("<a0 --> b>", tasks.get(0).sentence.term.toString());
+        assertEquals('?', tasks.get(N + 2).sentence.punctuation);
+        assertEquals(0, n.time());
+
+        //concepts, beliefs and links are in place before the first cycle
+        Narsese p = new Narsese(n);
+        Concept a5b = n.memory.concept(p.parseTerm("<a5 --> b>"));
+        assertEquals(1, a5b.beliefs.size());
+        assertTrue(a5b.taskLinks.size() > 0);
+        assertTrue(a5b.termLinks.size() > 0);
+        Concept bc = n.memory.concept(p.parseTerm("<b --> c>"));
+        assertEquals(2, bc.beliefs.size());
+        assertTrue(n.memory.concept(p.parseTerm("b")).termLinks.size() > 0);
+        assertTrue(n.memory.concept(p.parseTerm("<a1 --> c>")) == null);
+    }
+
+    @Test
+    public void testCreationTime() throws InvalidInputException {
+        NAR n = new NAR(new Plugins());
+        n.run(10);
+        new BulkLoader(n, null).load(ByteBuffer.wrap(knowledge().getBytes(StandardCharsets.UTF_8)), 2);
+
+        //the loaded beliefs are stamped like input tasks
+        Concept bc = n.memory.concept(new Narsese(n).parseTerm("<b --> c>"));
+        for (Task t : bc.beliefs) {
+            assertEquals(n.time(), t.sentence.stamp.getCreationTime());
+            assertTrue(t.sentence.isEternal());
+        }
+        assertEquals(10, n.memory.concept(new Narsese(n).parseTerm("<a5 --> b>")).beliefs.get(0).sentence.stamp.getCreationTime());
+    }
+
+    @Test
+    public void testReasoning() throws InvalidInputException {
+        NAR n = new NAR(new Plugins());
+        String text = "<a --> b>.\n<b --> c>.\n<a --> c>?\n";
+        new BulkLoader(n, null).load(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), 2);
+
+        //the question takes the input path and is answered from the loaded beliefs
+        Concept ac = null;
+        for (int i = 0; (i < 20) && ((ac == null) || ac.beliefs.isEmpty()); i++) {
+            n.run(50);
+            ac = n.memory.concept(new Narsese(n).parseTerm("<a --> c>"));
+        }
+        assertTrue(ac != null);
+        assertTrue(!ac.beliefs.isEmpty());
+    }
+
+    @Test
+    public void testLoadFile() throws IOException, InvalidInputException {
+        File f = File.createTempFile("knowledge", ".nal");
+        f.deleteOnExit();
+        Files.write(f.toPath(), knowledge().getBytes(StandardCharsets.UTF_8));
+
+        //the result does not depend on how the file is split
+        for (int threads = 1; threads <= 8; threads *= 2) {
+            tasks.clear();
+            invalid.clear();
+            NAR n = new NAR(new Plugins());
+            assertEquals(N + 3, new BulkLoader(n, h).load(f.toPath(), threads));
+            assertEquals("[" + (N + 2) + "]", invalid.toString());
+            for (int i = 0; i < N; i++) {
+                assertEquals("<a" + i + " --> b>", tasks.get(i).sentence.term.toString());
+                assertTrue(n.memory.concept(new Narsese(n).parseTerm("<a" + i + " --> b>")) != null);
+            }
+        }
+
+        NAR n = new NAR(new Plugins());
+        assertEquals(N + 3, n.loadKnowledge(f.getPath()));
+    }
+}
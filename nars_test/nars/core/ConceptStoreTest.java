@@ -0,0 +1,52 @@
+package nars.core;
+
+import java.io.File;
+import java.io.IOException;
+import nars.NAR;
+import nars.config.Plugins;
+import nars.entity.BudgetValue;
+import nars.entity.Concept;
+import nars.io.Narsese;
+import nars.language.Term;
+import nars.storage.ConceptStore;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class ConceptStoreTest {
+
+    @Test
+    public void testForgetAndReload() throws IOException, Narsese.InvalidInputException {
+        File f = File.createTempFile("concepts", ".store");
+        f.deleteOnExit();
+
+        NAR n = new NAR(new Plugins());
+        try (ConceptStore store = new ConceptStore(f.toPath())) {
+            n.memory.conceptStore = store;
+            n.addInput("<a --> b>.");
+            n.addInput("<b --> c>.");
+            n.run(20);
+
+            Term ab = new Narsese(n).parseTerm("<a --> b>");
+            Concept c = n.memory.concepts.take(ab);
+            int beliefs = c.beliefs.size();
+            int termLinks = c.termLinks.size();
+            assertTrue(beliefs > 0);
+
+            n.memory.conceptRemoved(c);
+            assertEquals(1, store.size());
+            assertTrue(n.memory.concept(ab) == null);
+
+            Concept d = n.memory.conceptualize(new BudgetValue(0.5f, 0.5f, 0.5f), ab);
+            assertTrue(d != c);
+            assertEquals(0, store.size());
+            assertEquals(beliefs, d.beliefs.size());
+            assertEquals(c.beliefs.get(0).sentence, d.beliefs.get(0).sentence);
+            assertEquals(termLinks, d.termLinks.size());
+            assertEquals(c.termLinkTemplates.size(), d.termLinkTemplates.size());
+            assertTrue(n.memory.concept(ab) == d);
+
+            n.run(10);
+        }
+    }
+}
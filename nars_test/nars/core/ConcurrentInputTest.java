@@ -0,0 +1,66 @@
+package nars.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import nars.NAR;
+import nars.config.Plugins;
+import nars.io.ConcurrentInput;
+import nars.io.Narsese;
+import nars.io.Output.IN;
+import nars.util.EventEmitter.EventObserver;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class ConcurrentInputTest {
+
+    @Test
+    public void testProducers() throws InterruptedException, Narsese.InvalidInputException {
+        final int producers = 4, perProducer = 300;
+
+        final NAR n = new NAR(new Plugins());
+        n.param.inputsPerCycle.set(16);
+
+        final AtomicInteger received = new AtomicInteger();
+        n.memory.event.on(IN.class, new EventObserver() {
+            @Override public void event(Class event, Object[] args) {
+                received.incrementAndGet();
+            }
+        });
+
+        final ConcurrentInput in = new ConcurrentInput(n, 64);
+        n.addInput(in);
+
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            final int id = p;
+            threads[p] = new Thread(new Runnable() {
+                @Override public void run() {
+                    try {
+                        for (int i = 0; i < perProducer; i++) {
+                            in.put("<p" + id + " --> x" + i + ">.");
+                        }
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+            threads[p].start();
+        }
+
+        //the reasoner drains while the producers are blocked on the full queue
+        boolean producing = true;
+        while (producing) {
+            n.step(1);
+            producing = false;
+            for (Thread t : threads) {
+                producing |= t.isAlive();
+            }
+        }
+        in.close();
+        n.run(producers * perProducer / 16 + 10);
+
+        assertTrue(in.finished(false));
+        assertEquals(0, in.size());
+        assertEquals(producers * perProducer, received.get());
+    }
+}
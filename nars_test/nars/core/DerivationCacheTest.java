@@ -0,0 +1,50 @@
+package nars.core;
+
+import nars.NAR;
+import nars.config.Plugins;
+import nars.entity.Sentence;
+import nars.inference.DerivationCache;
+import nars.inference.RuleTables;
+import nars.inference.RuleTables.Rule;
+import nars.io.Narsese;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class DerivationCacheTest {
+
+    @Test
+    public void testLookup() throws Narsese.InvalidInputException {
+        Narsese p = new Narsese(new NAR(new Plugins()));
+        Sentence ab = p.parseTask("<a --> b>.").sentence;
+        Sentence bc = p.parseTask("<b --> c>.").sentence;
+        Rule r1 = RuleTables.rules().get(0), r2 = RuleTables.rules().get(1);
+
+        DerivationCache c = new DerivationCache(100, 10);
+        assertEquals(128, c.capacity);
+        assertTrue(!c.contains(ab, bc, r1, 0));
+        c.put(ab, bc, r1, 0, 2);
+        assertTrue(c.contains(ab, bc, r1, 5));
+        assertTrue("other rule", !c.contains(ab, bc, r2, 5));
+        assertTrue("other order", !c.contains(bc, ab, r1, 5));
+        assertTrue("expired", !c.contains(ab, bc, r1, 10));
+        assertEquals(2, c.skippedDerivations.sum());
+        assertEquals(0.2, c.hitRate(), 0.0);
+
+        c.clear();
+        assertTrue(!c.contains(ab, bc, r1, 5));
+    }
+
+    @Test
+    public void testReasoning() {
+        NAR n = new NAR(new Plugins());
+        n.param.derivationCacheSize.set(1024);
+        n.addInput("<a --> b>.");
+        n.addInput("<b --> c>.");
+        n.addInput("<c --> d>.");
+        n.run(200);
+        DerivationCache c = n.memory.derivationCache;
+        assertTrue(c.misses.sum() > 0);
+        assertTrue(c.hits.sum() > 0);
+    }
+}
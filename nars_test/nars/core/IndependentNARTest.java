@@ -0,0 +1,93 @@
+package nars.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import nars.NAR;
+import nars.config.Plugins;
+import nars.io.Output.OUT;
+import nars.io.TextInput;
+import nars.lab.ioutils.ExampleFileInput;
+import nars.plugin.misc.RuntimeNARSettings;
+import nars.util.EventEmitter.EventObserver;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class IndependentNARTest {
+
+    static final String script = "nal/test/nal6.27.nal";
+
+    /** runs the script in a new NAR, returning its output */
+    static List<String> run(final String example) {
+        final NAR n = new NAR(new Plugins());
+        //the JUnit check of Memory does not see JUnit on the threads started here
+        n.param.testMode.set(true);
+        final List<String> out = new ArrayList<>();
+        n.memory.event.on(OUT.class, new EventObserver() {
+            @Override public void event(Class event, Object[] args) {
+                out.add(args[0].toString());
+            }
+        });
+        n.addInput(new TextInput(example));
+        n.run(500);
+        return out;
+    }
+
+    @Test
+    public void testRandomPerMemory() {
+        NAR a = new NAR(new Plugins());
+        NAR b = new NAR(new Plugins());
+        b.param.randomSeed.set(7);
+        b.memory.reset();
+        a.memory.randomNumber.nextInt();
+
+        assertEquals(new Random(7).nextInt(), b.memory.randomNumber.nextInt());
+        a.memory.reset();
+        assertEquals(new Random(1).nextInt(), a.memory.randomNumber.nextInt());
+    }
+
+    @Test
+    public void testSettingsPerNAR() {
+        NAR a = new NAR(new Plugins());
+        NAR b = new NAR(new Plugins());
+        RuntimeNARSettings settings = new RuntimeNARSettings();
+        a.addPlugin(settings);
+        settings.setDerivationPriorityLeak(0.9);
+        settings.setCuriosityForOperatorOnly(!b.param.curiosityForOperatorOnly.get());
+
+        assertEquals(0.9f, a.param.derivationPriorityLeak.floatValue(), 0);
+        assertEquals(0.4f, b.param.derivationPriorityLeak.floatValue(), 0);
+        assertTrue(a.param.curiosityForOperatorOnly.get() != b.param.curiosityForOperatorOnly.get());
+    }
+
+    @Test
+    public void testConcurrentRunsRepeat() throws Exception {
+        final String example = ExampleFileInput.load(script);
+        final List<String> expected = run(example);
+        assertTrue(expected.size() > 0);
+
+        final int n = 4;
+        final List<List<String>> outputs = new ArrayList<>();
+        Thread[] threads = new Thread[n];
+        for (int i = 0; i < n; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override public void run() {
+                    List<String> out = IndependentNARTest.run(example);
+                    synchronized (outputs) {
+                        outputs.add(out);
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertEquals(n, outputs.size());
+        for (List<String> out : outputs) {
+            assertEquals(expected, out);
+        }
+    }
+}
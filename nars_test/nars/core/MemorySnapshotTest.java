@@ -0,0 +1,79 @@
+package nars.core;
+
+import com.google.common.collect.Iterables;
+import java.io.File;
+import java.io.IOException;
+import nars.NAR;
+import nars.config.Plugins;
+import nars.entity.Concept;
+import nars.io.Narsese;
+import nars.language.Term;
+import nars.storage.MemorySnapshot;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class MemorySnapshotTest {
+
+    NAR prepare() {
+        NAR n = new NAR(new Plugins());
+        n.addInput("<a --> b>.");
+        n.addInput("<b --> c>. %0.8;0.7%");
+        n.addInput("<c --> d>!");
+        n.addInput("<a --> ?x>?");
+        n.run(50);
+        return n;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException, Narsese.InvalidInputException {
+        NAR n = prepare();
+        n.param.decisionThreshold.set(0.6);
+
+        File f = File.createTempFile("memory", ".nars");
+        f.deleteOnExit();
+        n.SaveToFile(f.getPath());
+
+        NAR m = NAR.LoadFromFile(f.getPath());
+        assertEquals(n.time(), m.time());
+        assertEquals(0.6, m.param.decisionThreshold.get(), 0.0);
+        assertEquals(Iterables.size(n.memory.concepts), Iterables.size(m.memory.concepts));
+
+        Term ab = new Narsese(m).parseTerm("<a --> b>");
+        Concept before = n.memory.concept(ab);
+        Concept after = m.memory.concept(ab);
+        assertTrue(after != null);
+        assertEquals(before.beliefs.size(), after.beliefs.size());
+        assertEquals(before.beliefs.get(0).sentence, after.beliefs.get(0).sentence);
+        assertEquals(before.taskLinks.size(), after.taskLinks.size());
+        assertEquals(before.termLinks.size(), after.termLinks.size());
+        assertEquals(before.getPriority(), after.getPriority(), 0.0001f);
+
+        Concept cd = m.memory.concept(new Narsese(m).parseTerm("<c --> d>"));
+        assertEquals(1, cd.desires.size());
+
+        //the restored memory keeps reasoning
+        m.run(10);
+        assertEquals(n.time() + 10, m.time());
+    }
+
+    @Test
+    public void testIncrementalLoad() throws IOException {
+        NAR n = prepare();
+        File f = File.createTempFile("memory", ".nars");
+        f.deleteOnExit();
+        n.SaveToFile(f.getPath());
+        int concepts = Iterables.size(n.memory.concepts);
+
+        NAR m = new NAR(new Plugins());
+        MemorySnapshot.Reader r = m.LoadFromFile(f.getPath(), 2);
+        assertEquals(0, Iterables.size(m.memory.concepts));
+        m.run(1);
+        assertTrue(!r.isDone());
+        m.run(concepts);
+        assertTrue(r.isDone());
+        for (Concept c : n.memory.concepts) {
+            assertTrue(c.term.toString(), m.memory.concept(c.term) != null);
+        }
+    }
+}
@@ -3,7 +3,6 @@ package nars.core;
 import nars.NAR;
 import nars.config.Parameters;
 import nars.lab.ioutils.ExampleFileInput;
-import nars.storage.Memory;
 import nars.lab.testutils.OutputCondition;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -30,7 +29,6 @@ public class NALTest  {
         
 
     static {
-        Memory.randomNumber.setSeed(1);
         Parameters.DEBUG = true;
     }
 
@@ -178,7 +176,6 @@ public class NALTest  {
     }
     
     protected double testNAL(final String path) {               
-        Memory.resetStatic();
         
         final List<OutputCondition> expects = new ArrayList();
         
@@ -0,0 +1,355 @@
+package nars.core;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import nars.NAR;
+import nars.config.Parameters;
+import nars.config.Plugins;
+import nars.io.TextInput;
+import nars.lab.ioutils.ExampleFileInput;
+import nars.lab.testutils.OutputCondition;
+import nars.util.EventEmitter.EventObserver;
+import nars.util.Events.CycleEnd;
+
+/**
+ * Runs the NAL test scripts concurrently, one worker JVM per core.
+ * <p>
+ * Each worker runs the scripts it is handed one after the other, each in a
+ * new NAR in test mode (RuntimeParameters.testMode), as NALTest does.  Since
+ * the random number generator and the settings belong to each NAR, a script
+ * gives the same result as in NALTest; separate JVMs also keep the static
+ * flags of Parameters and a script which exhausts the heap or the stack
+ * from affecting the others.  Unless -full is given, a script stops as soon
+ * as all its expected outputs were seen, unless it also has conditions which
+ * could still fail later (outputMustNotContain).  NALTest always runs every
+ * script for its full number of cycles.
+ * <p>
+ * Reports, per script, the cycle of the last expected output and the wall
+ * time, then the success rate per NAL level.  Exits with 1 if a script failed.
+ * <pre>
+ *   ant test-nal -Dnal.args="-j 4 nal1 nal2"
+ *   java -cp ... nars.core.NALTestRunner [-j workers] [-cycles n] [-full] [path filter...]
+ * </pre>
+ */
+public class NALTestRunner {
+
+    /** prefix of the result lines a worker writes to its standard output */
+    static final String RESULT = "@result\t";
+
+    /** outcome of one script */
+    public static class Outcome {
+        public final String path;
+        public final boolean success;
+        /** cycle of the last expected output, -1 if not solved */
+        public final long solvedAt;
+        /** cycles run */
+        public final long cycles;
+        public final long wallNanos;
+
+        public Outcome(final String path, final boolean success, final long solvedAt, final long cycles, final long wallNanos) {
+            this.path = path;
+            this.success = success;
+            this.solvedAt = solvedAt;
+            this.cycles = cycles;
+            this.wallNanos = wallNanos;
+        }
+
+        String encode() {
+            return RESULT + path + '\t' + success + '\t' + solvedAt + '\t' + cycles + '\t' + wallNanos;
+        }
+
+        static Outcome decode(final String line) {
+            final String[] f = line.substring(RESULT.length()).split("\t");
+            return new Outcome(f[0], Boolean.parseBoolean(f[1]), Long.parseLong(f[2]), Long.parseLong(f[3]), Long.parseLong(f[4]));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%4s  %-60s solved @ %5s  ran %5d cycles  %6d ms",
+                    success ? "ok" : "FAIL", path, (solvedAt == -1) ? "-" : Long.toString(solvedAt),
+                    cycles, wallNanos / 1000000);
+        }
+    }
+
+    /**
+     * Stops a NAR at the end of the first cycle in which all the conditions
+     * are true, if none of them can become false again
+     *
+     * @return the observer, registered on CycleEnd; null if the conditions
+     * never allow stopping early
+     */
+    public static EventObserver stopWhenSolved(final NAR n, final List<OutputCondition> conditions) {
+        for (final OutputCondition c : conditions) {
+            //true from the start: watches for an output which must not occur
+            if (c.isInverse() || c.succeeded) {
+                return null;
+            }
+        }
+        if (conditions.isEmpty()) {
+            return null;
+        }
+        final OutputCondition[] cc = conditions.toArray(new OutputCondition[conditions.size()]);
+        final EventObserver o = new EventObserver() {
+            @Override public void event(final Class event, final Object[] args) {
+                for (final OutputCondition c : cc) {
+                    if (!c.succeeded) {
+                        return;
+                    }
+                }
+                n.stop();
+            }
+        };
+        n.on(CycleEnd.class, o);
+        return o;
+    }
+
+    /** runs one script in a new NAR, as NALTest.testNAL */
+    public static Outcome run(final String path, final int maxCycles, final boolean stopEarly) {
+        final long start = System.nanoTime();
+
+        final List<OutputCondition> expects = new ArrayList<>();
+        NAR n = null;
+        boolean error = false;
+        try {
+            n = new NAR(new Plugins());
+            n.param.testMode.set(true);
+            final String example = ExampleFileInput.load(path);
+            expects.addAll(OutputCondition.getConditions(n, example, NALTest.similarsToSave));
+            if (stopEarly) {
+                stopWhenSolved(n, expects);
+            }
+            n.addInput(new TextInput(example));
+            n.run(maxCycles);
+        } catch (Throwable e) {
+            System.err.println(path + ": " + e);
+            if (Parameters.DEBUG) {
+                e.printStackTrace();
+            }
+            error = true;
+        }
+
+        boolean success = !expects.isEmpty() && !error;
+        long solvedAt = -1;
+        for (final OutputCondition e : expects) {
+            if (!e.succeeded) {
+                success = false;
+            }
+            solvedAt = Math.max(solvedAt, e.getTrueTime());
+        }
+        if (!success) {
+            solvedAt = -1;
+            if (NALTest.showFail) {
+                final StringBuilder sb = new StringBuilder().append('\n').append(path);
+                if (n != null) {
+                    sb.append(" @").append(n.time());
+                }
+                for (final OutputCondition e : expects) {
+                    sb.append("\n  ").append(e);
+                }
+                System.err.println(sb);
+            }
+        }
+        return new Outcome(path, success, solvedAt, (n != null) ? n.time() : 0, System.nanoTime() - start);
+    }
+
+    /** worker process: runs the script paths read from standard input */
+    static void work(final int maxCycles, final boolean stopEarly) throws IOException {
+        //only result lines go to the parent's pipe
+        final PrintStream results = System.out;
+        System.setOut(System.err);
+
+        final BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+        String path;
+        while ((path = in.readLine()) != null) {
+            results.println(run(path, maxCycles, stopEarly).encode());
+            results.flush();
+        }
+    }
+
+    /** feeds scripts from a shared queue to one worker process, restarting it if it dies */
+    static class Worker implements Runnable {
+        final List<String> command;
+        final ConcurrentLinkedQueue<String> queue;
+        final List<Outcome> outcomes;
+        final PrintStream log;
+
+        Process process;
+        PrintWriter toWorker;
+        BufferedReader fromWorker;
+
+        Worker(final List<String> command, final ConcurrentLinkedQueue<String> queue, final List<Outcome> outcomes, final PrintStream log) {
+            this.command = command;
+            this.queue = queue;
+            this.outcomes = outcomes;
+            this.log = log;
+        }
+
+        void start() throws IOException {
+            process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+            toWorker = new PrintWriter(process.getOutputStream(), true);
+            fromWorker = new BufferedReader(new InputStreamReader(process.getInputStream()));
+        }
+
+        @Override
+        public void run() {
+            String path;
+            while ((path = queue.poll()) != null) {
+                Outcome o;
+                try {
+                    if (process == null) {
+                        start();
+                    }
+                    final long start = System.nanoTime();
+                    toWorker.println(path);
+                    String line;
+                    while (((line = fromWorker.readLine()) != null) && !line.startsWith(RESULT)) { }
+                    if (line == null) {
+                        throw new IOException("worker exited with " + process.waitFor());
+                    }
+                    o = Outcome.decode(line);
+                } catch (IOException | InterruptedException e) {
+                    System.err.println(path + ": " + e);
+                    if (process != null) {
+                        process.destroy();
+                        process = null;
+                    }
+                    o = new Outcome(path, false, -1, 0, 0);
+                }
+                synchronized (outcomes) {
+                    outcomes.add(o);
+                    log.println(o);
+                }
+            }
+            if (process != null) {
+                toWorker.close();
+                try {
+                    process.waitFor();
+                } catch (InterruptedException e) {
+                    process.destroy();
+                }
+            }
+        }
+    }
+
+    /** command line starting a worker JVM with this JVM's classpath and memory settings */
+    static List<String> workerCommand(final int maxCycles, final boolean stopEarly) {
+        final List<String> c = new ArrayList<>();
+        c.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        for (final String a : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (a.startsWith("-Xm") || a.startsWith("-Xs") || a.startsWith("-D")) {
+                c.add(a);
+            }
+        }
+        c.add("-cp");
+        c.add(System.getProperty("java.class.path"));
+        c.add(NALTestRunner.class.getName());
+        c.add("-worker");
+        c.add("-cycles");
+        c.add(Integer.toString(maxCycles));
+        if (!stopEarly) {
+            c.add("-full");
+        }
+        return c;
+    }
+
+    /** runs the scripts whose paths contain one of the filters (all if none) on a number of workers */
+    public static List<Outcome> runAll(final List<String> filters, final int workers, final int maxCycles, final boolean stopEarly, final PrintStream log) throws InterruptedException {
+        final ConcurrentLinkedQueue<String> queue = new ConcurrentLinkedQueue<>();
+        final URI dir = new File(".").getAbsoluteFile().toURI();
+        for (final Object script : ExampleFileInput.getUnitTests().values()) {
+            final String path = dir.relativize(new File((String) ((Object[]) script)[0]).toURI()).getPath();
+            boolean include = filters.isEmpty();
+            for (final String f : filters) {
+                include |= path.contains(f);
+            }
+            if (include) {
+                queue.add(path);
+            }
+        }
+
+        final List<Outcome> outcomes = new ArrayList<>();
+        final List<String> command = workerCommand(maxCycles, stopEarly);
+        final Thread[] threads = new Thread[Math.max(1, Math.min(workers, queue.size()))];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Worker(command, queue, outcomes, log), "NALTestRunner worker " + i);
+            threads[i].start();
+        }
+        for (final Thread t : threads) {
+            t.join();
+        }
+        return outcomes;
+    }
+
+    /** prints the success rate per NAL level and the totals */
+    public static void report(final List<Outcome> outcomes, final long wallNanos, final PrintStream out) {
+        final Map<String, int[]> levels = new TreeMap<>(); //level -> {succeeded, total}
+        int succeeded = 0;
+        long solvedCycles = 0, scriptNanos = 0;
+        for (final Outcome o : outcomes) {
+            final String name = new File(o.path).getName();
+            final String level = ((name.length() > 3) && name.startsWith("nal") && Character.isDigit(name.charAt(3)))
+                    ? "NAL" + name.charAt(3) : "Other";
+            int[] l = levels.get(level);
+            if (l == null) {
+                levels.put(level, l = new int[2]);
+            }
+            l[1]++;
+            if (o.success) {
+                l[0]++;
+                succeeded++;
+                solvedCycles += o.solvedAt;
+            }
+            scriptNanos += o.wallNanos;
+        }
+        for (final Map.Entry<String, int[]> e : levels.entrySet()) {
+            final int[] l = e.getValue();
+            out.println(e.getKey() + ": " + (100f * l[0] / l[1]) + "%  (" + l[0] + "/" + l[1] + ")");
+        }
+        out.println(succeeded + " / " + outcomes.size());
+        out.println("Score: " + solvedCycles + " cycles");
+        out.println("Time: " + (wallNanos / 1000000) + " ms, " + (scriptNanos / 1000000) + " ms in scripts");
+    }
+
+    public static void main(final String[] args) throws Exception {
+        int workers = Runtime.getRuntime().availableProcessors();
+        int maxCycles = 1550;
+        boolean stopEarly = true, worker = false;
+        final List<String> filters = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-j": workers = Integer.parseInt(args[++i]); break;
+                case "-cycles": maxCycles = Integer.parseInt(args[++i]); break;
+                case "-full": stopEarly = false; break;
+                case "-worker": worker = true; break;
+                default: filters.add(args[i]);
+            }
+        }
+
+        Parameters.DEBUG = true;
+        if (worker) {
+            work(maxCycles, stopEarly);
+            return;
+        }
+
+        final long start = System.nanoTime();
+        final List<Outcome> outcomes = runAll(filters, workers, maxCycles, stopEarly, System.out);
+        report(outcomes, System.nanoTime() - start, System.out);
+
+        for (final Outcome o : outcomes) {
+            if (!o.success) {
+                System.exit(1);
+            }
+        }
+    }
+}
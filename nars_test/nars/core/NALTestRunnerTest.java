@@ -0,0 +1,35 @@
+package nars.core;
+
+import java.util.Arrays;
+import java.util.List;
+import nars.core.NALTestRunner.Outcome;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class NALTestRunnerTest {
+
+    static final String script = "nal/test/nal1.0.nal";
+
+    @Test
+    public void testStopEarly() {
+        Outcome full = NALTestRunner.run(script, 1550, false);
+        Outcome early = NALTestRunner.run(script, 1550, true);
+        assertTrue(full.success);
+        assertTrue(early.success);
+        assertEquals("same solution as a full run", full.solvedAt, early.solvedAt);
+        assertEquals(1550, full.cycles);
+        assertTrue(early.cycles < full.cycles);
+        assertTrue(early.cycles >= early.solvedAt);
+    }
+
+    @Test
+    public void testWorkers() throws InterruptedException {
+        List<Outcome> outcomes = NALTestRunner.runAll(Arrays.asList("nal1.0.nal", "nal1.1.nal"), 2, 1550, true, System.out);
+        assertEquals(2, outcomes.size());
+        for (Outcome o : outcomes) {
+            assertTrue(o.path, o.success);
+            assertEquals(NALTestRunner.run(o.path, 1550, true).solvedAt, o.solvedAt);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package nars.core;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import nars.NAR;
+import nars.config.Plugins;
+import nars.entity.Task;
+import nars.io.Narsese;
+import nars.io.Narsese.InvalidInputException;
+import nars.io.Narsese.TaskHandler;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+public class NarseseTest {
+
+    final NAR n = new NAR(new Plugins());
+    final Narsese np = new Narsese(n);
+
+    @Test
+    public void testTask() throws InvalidInputException {
+        Task t = np.parseNarsese("IN: $0.6;0.4$ <(*,a,{b}) --> [c]>. :|: %0.8;0.7%");
+        assertEquals("<(*,a,{b}) --> [c]>", t.sentence.term.toString());
+        assertEquals('.', t.sentence.punctuation);
+        assertEquals(0.8f, t.sentence.truth.getFrequency(), 0.001f);
+        assertEquals(0.7f, t.sentence.truth.getConfidence(), 0.001f);
+        assertEquals(0.6f, t.budget.getPriority(), 0.001f);
+        assertEquals(0.4f, t.budget.getDurability(), 0.001f);
+        assertTrue(!t.sentence.isEternal());
+
+        t = np.parseTask("<<$1 --> bird> ==> <$1 --> animal>>?");
+        assertEquals('?', t.sentence.punctuation);
+        assertNull(t.sentence.truth);
+        assertTrue(t.sentence.isEternal());
+
+        assertNull(np.parseNarsese("OUT: <a --> b>."));
+
+        //in place, within a longer text
+        String text = "xx <a --> b>! yy";
+        t = np.parseNarsese(text, 3, 13);
+        assertEquals("<a --> b>", t.sentence.term.toString());
+        assertEquals('!', t.sentence.punctuation);
+    }
+
+    @Test
+    public void testTerms() throws InvalidInputException {
+        assertEquals("<a --> b>", np.parseTerm("<a-->b>").toString());
+        assertEquals("(&&,<a --> b>,<c --> d>)", np.parseTerm(" (&&, <a --> b>, <c-->d>) ").toString());
+        assertEquals("(/,a,_,b)", np.parseTerm("(/,a,_,b)").toString());
+        assertEquals("<{a} --> [b]>", np.parseTerm("<{a}-->[b]>").toString());
+        assertEquals(np.parseTerm("<{a} --> b>"), np.parseTerm("<a {-- b>"));
+        assertNull(np.parseTerm("  "));
+    }
+
+    @Test
+    public void testErrorPositions() {
+        assertError("<a --> b", 8);
+        assertError("<a b>", 3);
+        assertError("(*,a,b", 0);
+        assertError("(&&)", 0);
+        assertError("<a --> b> c", 10);
+        assertError("{a b}", 3);
+    }
+
+    void assertError(String term, int position) {
+        try {
+            np.parseTerm(term);
+            fail(term);
+        } catch (InvalidInputException e) {
+            assertEquals(term + ": " + e.getMessage(), position, e.position);
+        }
+    }
+
+    @Test
+    public void testStream() throws IOException {
+        String text = "//comment\n"
+                + "<a --> b>.\n"
+                + "\n"
+                + "10\n"
+                + "'echo\n"
+                + "  <b --> c>. %0.5%\r\n"
+                + "<c --> >.\n"
+                + "<c --> d>?";
+
+        final List<Task> tasks = new ArrayList<>();
+        final List<String> invalid = new ArrayList<>();
+        TaskHandler h = new TaskHandler() {
+            @Override public void task(Task t) {
+                tasks.add(t);
+            }
+            @Override public void invalid(long line, InvalidInputException e) {
+                invalid.add(line + " " + e.position);
+            }
+        };
+
+        assertEquals(3, np.parseTasks(new StringReader(text), h));
+        assertEquals("[<a --> b>. %1.00;0.90%, <b --> c>. %0.50;0.90%, <c --> d>?]", sentences(tasks));
+        assertEquals("[7 7]", invalid.toString());
+
+        tasks.clear();
+        invalid.clear();
+        assertEquals(3, np.parseTasks(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), h));
+        assertEquals(3, tasks.size());
+        assertEquals("[7 7]", invalid.toString());
+    }
+
+    @Test
+    public void testStreamLongLines() throws IOException {
+        //lines longer than the buffer, and more of them than fit in it
+        StringBuilder text = new StringBuilder();
+        StringBuilder conjunction = new StringBuilder("(&&");
+        for (int i = 0; i < 2000; i++) {
+            conjunction.append(",<a").append(i).append(" --> b>");
+        }
+        conjunction.append(')');
+        for (int i = 0; i < 3; i++) {
+            text.append(conjunction).append(". :|:\n");
+        }
+        for (int i = 0; i < 2000; i++) {
+            text.append("<x").append(i).append(" --> y>.\n");
+        }
+
+        final int[] count = new int[2];
+        TaskHandler h = new TaskHandler() {
+            @Override public void task(Task t) {
+                count[0]++;
+            }
+            @Override public void invalid(long line, InvalidInputException e) {
+                count[1]++;
+            }
+        };
+        assertEquals(2003, np.parseTasks(new StringReader(text.toString()), h));
+        assertEquals(2003, count[0]);
+        assertEquals(0, count[1]);
+    }
+
+    static String sentences(List<Task> tasks) {
+        List<String> s = new ArrayList<>();
+        for (Task t : tasks) {
+            s.add(t.sentence.toString().trim());
+        }
+        return s.toString();
+    }
+}
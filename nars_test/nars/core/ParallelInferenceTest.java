@@ -0,0 +1,71 @@
+package nars.core;
+
+import java.util.HashSet;
+import java.util.Set;
+import nars.NAR;
+import nars.config.Plugins;
+import nars.entity.Concept;
+import nars.entity.Task;
+import nars.io.Narsese;
+import nars.language.CompoundTerm;
+import nars.language.Term;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class ParallelInferenceTest {
+
+    static final String input =
+            "<a --> b>.\n<b --> c>.\n<a --> c>?\n"
+            + "<x1 --> y>. :|:\n5\n<x2 --> y>. :|:\n5\n<x3 --> y>. :|:\n5\n<x1 --> y>. :|:\n";
+
+    /** runs the input with parallel inference, checking the results afterwards */
+    static void run(final NAR n) throws Narsese.InvalidInputException {
+        n.param.inferenceThreads.set(3);
+        n.addInput(input);
+
+        Concept ac = null;
+        for (int i = 0; (i < 40) && ((ac == null) || ac.beliefs.isEmpty()); i++) {
+            n.run(50);
+            ac = n.memory.concept(new Narsese(n).parseTerm("<a --> c>"));
+        }
+        assertTrue(ac != null);
+        assertTrue(!ac.beliefs.isEmpty());
+
+        //the workers did not add an event to the sequence bag twice
+        Set<Term> events = new HashSet<>();
+        for (Task t : n.memory.seq_current) {
+            assertTrue(t.toString(), events.add(CompoundTerm.replaceIntervals(t.getTerm())));
+        }
+        assertTrue(!events.isEmpty());
+    }
+
+    @Test
+    public void testParallelNARs() throws InterruptedException {
+        //NARs with parallel workers do not share (or wait on) each other's locks
+        final NAR[] nars = { new NAR(new Plugins()), new NAR(new Plugins()) };
+        final Throwable[] errors = new Throwable[nars.length];
+        Thread[] threads = new Thread[nars.length];
+        for (int i = 0; i < nars.length; i++) {
+            final int id = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override public void run() {
+                    try {
+                        ParallelInferenceTest.run(nars[id]);
+                    } catch (Throwable e) {
+                        errors[id] = e;
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (int i = 0; i < nars.length; i++) {
+            threads[i].join(120000);
+            assertTrue(!threads[i].isAlive());
+            assertTrue(String.valueOf(errors[i]), errors[i] == null);
+        }
+        for (NAR n : nars) {
+            n.param.inferenceThreads.set(1);
+            n.step(1);
+        }
+    }
+}
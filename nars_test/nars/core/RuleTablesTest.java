@@ -0,0 +1,57 @@
+package nars.core;
+
+import java.util.HashSet;
+import java.util.Set;
+import nars.NAR;
+import nars.config.Plugins;
+import nars.entity.TermLink;
+import nars.inference.RuleTables;
+import nars.io.Narsese;
+import nars.inference.RuleTables.Rule;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class RuleTablesTest {
+
+    static Rule syllogisms() {
+        for (Rule r : RuleTables.rules()) {
+            if ((r.taskLinkType == TermLink.COMPOUND_STATEMENT) && (r.termLinkType == TermLink.COMPOUND_STATEMENT)) {
+                return r;
+            }
+        }
+        return null;
+    }
+
+    static NAR deduce() {
+        NAR n = new NAR(new Plugins());
+        n.addInput("<a --> b>.");
+        n.addInput("<b --> c>.");
+        n.run(100);
+        return n;
+    }
+
+    @Test
+    public void testDispatch() throws Exception {
+        Set<String> names = new HashSet<>();
+        for (Rule r : RuleTables.rules()) {
+            assertTrue(r.toString(), names.add(r.toString()));
+        }
+
+        Rule s = syllogisms();
+        long before = s.hits.sum();
+        NAR n = deduce();
+        assertTrue(s.hits.sum() > before);
+        assertTrue(n.memory.concept(new Narsese(n).parseTerm("<a --> c>")) != null);
+
+        s.enabled = false;
+        try {
+            before = s.hits.sum();
+            n = deduce();
+            assertEquals(before, s.hits.sum());
+            assertTrue(n.memory.concept(new Narsese(n).parseTerm("<a --> c>")) == null);
+        } finally {
+            s.enabled = true;
+        }
+    }
+}
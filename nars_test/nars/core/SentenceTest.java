@@ -0,0 +1,31 @@
+package nars.core;
+
+import java.util.Objects;
+import nars.NAR;
+import nars.config.Plugins;
+import nars.entity.Sentence;
+import nars.io.Narsese;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class SentenceTest {
+
+    @Test
+    public void testIdentity() throws Narsese.InvalidInputException {
+        NAR n = new NAR(new Plugins());
+        Narsese p = new Narsese(n);
+        for (String s : new String[] { "<a --> b>.", "<a --> b>. :|:", "<a --> b>?", "<(*,$1,c) --> b>! %0.3;0.6%" }) {
+            Sentence x = p.parseTask(s).sentence;
+            assertEquals(s, Objects.hash(x.term, x.punctuation, x.truth, x.stamp.getOccurrenceTime()), x.hashCode());
+
+            Sentence y = x.clone();
+            assertTrue(x != y);
+            assertEquals(x.hashCode(), y.hashCode());
+            assertTrue(x.equals(y));
+        }
+        Sentence a = p.parseTask("<a --> b>.").sentence;
+        assertTrue("other evidence", !a.equals(p.parseTask("<a --> b>.").sentence));
+        assertTrue(!a.equals(a.clone(true).projection(5, 0)));
+    }
+}
@@ -0,0 +1,49 @@
+package nars.core;
+
+import nars.NAR;
+import nars.config.Parameters;
+import nars.config.Plugins;
+import nars.entity.BudgetValue;
+import nars.entity.Task;
+import nars.entity.TaskLink;
+import nars.entity.TermLink;
+import nars.io.Narsese;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class TaskLinkTest {
+
+    @Test
+    public void testNovelty() throws Narsese.InvalidInputException {
+        NAR n = new NAR(new Plugins());
+        Narsese p = new Narsese(n);
+        Task task = p.parseTask("<a --> b>.");
+        //keeps recordLength - 1 = 3 records
+        TaskLink link = new TaskLink(task, null, new BudgetValue(0.5f, 0.5f, 0.5f), 4);
+
+        TermLink t1 = new TermLink(p.parseTerm("c"), TermLink.COMPONENT, new short[] { 0 }, new BudgetValue(0.5f, 0.5f, 0.5f));
+        TermLink t2 = new TermLink(p.parseTerm("d"), TermLink.COMPONENT, new short[] { 0 }, new BudgetValue(0.5f, 0.5f, 0.5f));
+        TermLink t3 = new TermLink(p.parseTerm("e"), TermLink.COMPONENT, new short[] { 0 }, new BudgetValue(0.5f, 0.5f, 0.5f));
+        TermLink t4 = new TermLink(p.parseTerm("f"), TermLink.COMPONENT, new short[] { 0 }, new BudgetValue(0.5f, 0.5f, 0.5f));
+        TermLink own = new TermLink(p.parseTerm("<a --> b>"), TermLink.COMPONENT, new short[] { 0 }, new BudgetValue(0.5f, 0.5f, 0.5f));
+
+        assertTrue("the task's own term is never novel", !link.novel(own, 0));
+
+        long h = Parameters.NOVELTY_HORIZON;
+        assertTrue(link.novel(t1, 0));
+        assertTrue("recent", !link.novel(t1, 1));
+        assertTrue("forgotten after the horizon", link.novel(t1, h));
+        assertTrue(link.novel(t2, h));
+        assertTrue(link.novel(t3, h));
+        assertTrue(!link.novel(t1, h + 1));
+
+        //replaces the least recently used record, t1
+        assertTrue(link.novel(t4, h + 1));
+        assertTrue(link.novel(t1, h + 2));
+        assertTrue(!link.novel(t3, h + 2));
+        assertTrue(!link.novel(t4, h + 2));
+
+        link.end();
+        assertTrue(link.novel(t4, h + 3));
+    }
+}
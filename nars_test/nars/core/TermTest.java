@@ -161,7 +161,42 @@ public class TermTest {
        assertTrue(cterm1.term[0].equals(cterm2.term[0])); //'a'
 
     }
-    
+
+    @Test
+    public void testCompoundTermInterning() throws Narsese.InvalidInputException {
+       Term term1 = np.parseTerm("<(*,a,b) --> c>");
+       Term term2 = np.parseTerm("<(*,a,b) --> c>");
+
+       //ground compounds are shared, including their subterms
+       assertTrue(term1 == term2);
+       assertTrue(((CompoundTerm)term1).term[0] == np.parseTerm("(*,a,b)"));
+
+       //compounds with variables may be renamed in place, so they are not
+       Term term3 = np.parseTerm("<$1 --> c>");
+       Term term4 = np.parseTerm("<$1 --> c>");
+       assertTrue(term3.equals(term4));
+       assertTrue(term3 != term4);
+    }
+
+    @Test
+    public void testStructuralEquality() throws Narsese.InvalidInputException {
+       Term a = np.parseTerm("<(&&,<$1 --> x>,<$1 --> y>) ==> <$1 --> z>>");
+       Term b = np.parseTerm("<(&&,<$1 --> x>,<$1 --> y>) ==> <$1 --> z>>");
+       assertTrue(a.equals(b));
+       assertEquals(a.hashCode(), b.hashCode());
+
+       //images differ by the position of the placeholder only
+       Term i1 = np.parseTerm("(/,a,_,b)");
+       Term i2 = np.parseTerm("(/,a,b,_)");
+       assertTrue(!i1.equals(i2));
+
+       //temporal order is part of the structure
+       Term c1 = np.parseTerm("<a =/> b>");
+       Term c2 = np.parseTerm("<a ==> b>");
+       assertTrue(!c1.equals(c2));
+       assertEquals(c1.equals(c2), c1.toString().equals(c2.toString()));
+    }
+
     @Test
     public void testConceptInstancing() throws Narsese.InvalidInputException {
        NAR n = new NAR(new Plugins());
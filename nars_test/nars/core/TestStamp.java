@@ -2,7 +2,9 @@ package nars.core;
 
 import java.util.Arrays;
 import static junit.framework.TestCase.assertTrue;
+import nars.entity.Stamp;
 import static nars.entity.Stamp.toSetArray;
+import nars.language.Tense;
 import org.junit.Test;
 
 /**
@@ -30,4 +32,49 @@ public class TestStamp {
                 Arrays.hashCode(toSetArray(new long[] { 1,1,3 }))
         );    
     }
+
+    static Stamp stamp(final long serial) {
+        return new Stamp(0, Tense.Eternal, serial, 5);
+    }
+    
+    static Stamp stamp(final long... serials) {
+        Stamp s = stamp(serials[0]);
+        for (int i = 1; i < serials.length; i++)
+            s = new Stamp(s, stamp(serials[i]), 0);
+        return s;
+    }
+
+    @Test
+    public void testStampMerge() {
+        Stamp a = stamp(5, 1, 3);
+        Stamp b = stamp(4, 2);
+        Stamp ab = new Stamp(a, b, 0);
+        
+        assertTrue(Arrays.equals(new long[] { 1, 3, 5 }, a.evidentialBase));
+        assertTrue(Arrays.equals(new long[] { 1, 2, 3, 4, 5 }, ab.evidentialBase));
+        assertTrue(ab.baseLength == 5);
+        assertTrue(!ab.evidenceIsCyclic());
+        
+        //merging overlapping bases keeps each serial once, but remembers the overlap
+        Stamp cyclic = new Stamp(ab, a, 0);
+        assertTrue(Arrays.equals(ab.evidentialBase, cyclic.evidentialBase));
+        assertTrue(cyclic.evidenceIsCyclic());
+        assertTrue(new Stamp(cyclic, stamp(7), 0).evidenceIsCyclic());
+    }
+
+    @Test
+    public void testStampOverlap() {
+        Stamp a = stamp(1, 3, 5);
+        
+        assertTrue(!Stamp.baseOverlap(a, stamp(2, 4, 6)));
+        assertTrue(Stamp.baseOverlap(a, stamp(6, 5)));
+        assertTrue(Stamp.baseOverlap(stamp(6, 5), a));
+        assertTrue(Stamp.baseOverlap(new Stamp(a, a, 0), stamp(7)));
+        for (long i = 6; i < 1000; i++)
+            assertTrue(!Stamp.baseOverlap(a, stamp(i)));
+
+        assertTrue(!Stamp.baseOverlap(new long[] { 3, 1 }, new long[] { 4, 2 }));
+        assertTrue(Stamp.baseOverlap(new long[] { 3, 1 }, new long[] { 4, 3 }));
+        assertTrue(Stamp.baseOverlap(new long[] { 3, 3 }, new long[] { 4 }));
+    }
 }
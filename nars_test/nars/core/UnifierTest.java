@@ -0,0 +1,73 @@
+package nars.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import nars.NAR;
+import nars.config.Plugins;
+import nars.io.Narsese;
+import nars.io.Symbols;
+import nars.language.CompoundTerm;
+import nars.language.Term;
+import nars.language.Unifier;
+import nars.language.Variables;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class UnifierTest {
+
+    final Narsese p = new Narsese(new NAR(new Plugins()));
+
+    Term t(String s) throws Narsese.InvalidInputException {
+        return p.parseTerm(s);
+    }
+
+    @Test
+    public void testBindings() throws Narsese.InvalidInputException {
+        Term a = t("<(*,$x,b) --> r>"), b = t("<(*,c,b) --> r>");
+        Unifier u = Unifier.get();
+        u.clear();
+        assertTrue(u.unify(Symbols.VAR_INDEPENDENT, a, b, false));
+        assertEquals(1, u.size(0));
+        assertEquals(0, u.size(1));
+        assertEquals(t("c"), u.get(0, t("$x")));
+        assertEquals(b, u.apply(0, (CompoundTerm) a));
+        assertTrue("nothing to apply", b == u.apply(1, (CompoundTerm) b));
+
+        int mark = u.mark();
+        assertTrue(!u.unify(Symbols.VAR_INDEPENDENT, t("<(*,$y,b) --> r>"), t("<(*,c,d) --> r>"), false));
+        u.undo(mark);
+        assertEquals(1, u.size(0));
+        assertTrue(u.get(0, t("$y")) == null);
+
+        assertTrue(!Variables.hasSubstitute(Symbols.VAR_INDEPENDENT, t("<a --> b>"), t("<a --> c>")));
+        assertTrue(Variables.hasSubstitute(Symbols.VAR_DEPENDENT, t("(&&,<#1 --> b>,<c --> d>)"), t("(&&,<c --> d>,<a --> b>)")));
+    }
+
+    @Test
+    public void testPartial() throws Narsese.InvalidInputException {
+        Term a = t("(&/,<$1 --> x>,<$2 --> y>)");
+        Term b = t("(&/,<a --> x>,<b --> y>,<c --> z>)");
+        Unifier u = Unifier.get();
+        u.clear();
+        assertTrue(!u.unify(Symbols.VAR_INDEPENDENT, a, b, false));
+        u.clear();
+        assertTrue(u.unify(Symbols.VAR_INDEPENDENT, a, b, true));
+        assertEquals(t("a"), u.get(0, t("$1")));
+        assertEquals(t("b"), u.get(0, t("$2")));
+    }
+
+    @Test
+    public void testMaps() throws Narsese.InvalidInputException {
+        Map<Term, Term> m1 = new HashMap<>(), m2 = new HashMap<>();
+        m1.put(t("$z"), t("q"));
+        assertTrue(Variables.findSubstitute(Symbols.VAR_INDEPENDENT, t("<$x --> $z>"), t("<c --> q>"), m1, m2));
+        assertEquals(2, m1.size());
+        assertEquals(t("c"), m1.get(t("$x")));
+        assertTrue(m2.isEmpty());
+
+        Term[] u = new Term[] { t("<<$x --> a> ==> <$x --> b>>"), t("<c --> a>") };
+        assertTrue(Variables.unify(Symbols.VAR_INDEPENDENT, t("<$x --> a>"), u[1], u));
+        assertEquals(t("<<c --> a> ==> <c --> b>>"), u[0]);
+    }
+}
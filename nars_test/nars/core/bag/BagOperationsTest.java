@@ -5,10 +5,13 @@
 package nars.core.bag;
 
 import nars.NAR;
+import nars.config.Parameters;
 import nars.entity.BudgetValue;
 import nars.entity.Concept;
 import nars.entity.Item;
+import nars.inference.BudgetFunctions;
 import nars.language.Term;
+import nars.storage.ArrayBag;
 import nars.storage.Bag;
 import nars.storage.LevelBag;
 import static org.junit.Assert.assertEquals;
@@ -31,6 +34,7 @@ public class BagOperationsTest {
     @Test
     public void testConcept() {
         testBagSequence(new LevelBag(2, 2));    
+        testBagSequence(new ArrayBag(2, 2));
     }
     
     public static void testBagSequence(Bag b) {
@@ -76,9 +80,32 @@ public class BagOperationsTest {
         assertEquals(null, b.putIn(makeConcept("a", 0.2f)));
         assertEquals(null, b.putIn(makeConcept("b", 0.3f)));
         
-        if (b instanceof LevelBag) {
+        if ((b instanceof LevelBag) || (b instanceof ArrayBag)) {
             assertEquals("a", b.putIn(makeConcept("c", 0.1f)).name().toString()); //replaces item on level
         }
         
     }
+    
+    @Test
+    public void testForgetting() {
+        testForgetting(new LevelBag(10, 10));
+        testForgetting(new ArrayBag(10, 10));
+    }
+    
+    /** every putBack decays the budget once by the per-access rule, however many cycles passed */
+    public static void testForgetting(Bag b) {
+        NAR n = new NAR();
+        Concept c = new Concept(new BudgetValue(0.8f, 0.5f, 0.3f), new Term("a"), n.memory);
+        b.putIn(c);
+        BudgetValue expected = c.budget.clone();
+        for (int i = 0; i < 3; i++) {
+            b.putBack(b.takeNext(), 10, n.memory);
+            BudgetFunctions.applyForgetting(expected, 10, Parameters.FORGET_QUALITY_RELATIVE);
+            assertEquals(expected.getPriority(), c.getPriority(), 0);
+        }
+        n.run(10);
+        b.putBack(b.takeNext(), 10, n.memory);
+        BudgetFunctions.applyForgetting(expected, 10, Parameters.FORGET_QUALITY_RELATIVE);
+        assertEquals(expected.getPriority(), c.getPriority(), 0);
+    }
 }
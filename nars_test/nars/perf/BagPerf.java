@@ -23,14 +23,15 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.StringJoiner;
-import nars.storage.Memory;
 import nars.NAR;
 import nars.config.Parameters;
 import nars.config.Plugins;
 import nars.entity.BudgetValue;
 import nars.entity.Item;
 import nars.language.Interval.PortableDouble;
+import nars.storage.ArrayBag;
 import nars.storage.Bag;
 import nars.storage.LevelBag;
 
@@ -97,13 +98,14 @@ public class BagPerf {
     }
             
     public static int itemID = 0;
+    static final Random random = new Random(1);
     
     /** Empty Item implementation useful for testing */
     public static class NullItem extends Item.StringKeyItem {
         public String key;
     
         public NullItem() {
-            this(Memory.randomNumber.nextFloat() * (1.0f - Parameters.TRUTH_EPSILON));
+            this(random.nextFloat() * (1.0f - Parameters.TRUTH_EPSILON));
         }
 
         public NullItem(float priority) {
@@ -120,7 +122,7 @@ public class BagPerf {
     
     public static void randomBagIO(Bag<NullItem,CharSequence> b, int accesses, double insertProportion) {
         for (int i = 0; i < accesses; i++) {
-            if (Memory.randomNumber.nextFloat() > insertProportion) {
+            if (random.nextFloat() > insertProportion) {
                 //remove
                 b.takeNext();
             }
@@ -149,7 +151,7 @@ public class BagPerf {
     //final boolean first, final int levels, final int levelCapacity, 
     public static double getTime(String label, BagBuilder b, final int iterations, final int randomAccesses, final float insertRatio, int repeats, int warmups) {
         
-        Memory.resetStatic();
+        random.setSeed(1);
         
         Performance p = new Performance(label, repeats, warmups) {
 
@@ -234,7 +236,8 @@ public class BagPerf {
                 int randomAccesses = accessesPerItem * items;
                         
                 Bag[] bags = new Bag[] { 
-                    new LevelBag(levels, items)                        
+                    new LevelBag(levels, items),
+                    new ArrayBag(levels, items)
                 };
                 
                 Map<Bag, Double> t = BagPerf.compare(                    
@@ -0,0 +1,184 @@
+package nars.util;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import nars.NAR;
+import nars.config.Plugins;
+import nars.io.Output.OUT;
+import nars.io.TextOutput;
+import nars.util.AsyncObserver.Overflow;
+import nars.util.EventEmitter.EventObserver;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class AsyncObserverTest {
+
+    static class A { }
+    static class B { }
+
+    /** records the first argument of each event, after the gate opens */
+    static class Recorder implements EventObserver {
+        final List<Object> received = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch gate = new CountDownLatch(1);
+        @Override public void event(Class event, Object[] args) {
+            try {
+                gate.await();
+            } catch (InterruptedException e) { }
+            received.add(args[0]);
+        }
+    }
+
+    @Test
+    public void testBlockKeepsEverything() throws InterruptedException {
+        EventEmitter e = new EventEmitter();
+        Recorder r = new Recorder();
+        r.gate.countDown();
+        AsyncObserver o = new AsyncObserver(e, null, null, r, 4, A.class);
+        for (int i = 0; i < 1000; i++) {
+            e.emit(A.class, i);
+        }
+        assertTrue(o.flush(10000));
+        assertEquals(1000, r.received.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, r.received.get(i));
+        }
+        o.setActive(false);
+    }
+
+    @Test
+    public void testDropAndCoalesce() throws InterruptedException {
+        EventEmitter e = new EventEmitter();
+        Metrics m = new Metrics();
+        Recorder r = new Recorder();
+        AsyncObserver o = new AsyncObserver(e, m, null, r, 4, A.class, B.class)
+                .overflow(Overflow.DropOldest)
+                .overflow(B.class, Overflow.Coalesce);
+
+        //the observer thread takes the first event and waits at the gate
+        e.emit(A.class, 0);
+        while (o.lag() > 0) {
+            Thread.sleep(1);
+        }
+        e.emit(B.class, "b1");
+        for (int i = 1; i <= 4; i++) {
+            e.emit(A.class, i);
+            e.emit(B.class, "b" + (i + 1));
+        }
+        assertEquals(4, o.lag());
+        r.gate.countDown();
+        assertTrue(o.flush(10000));
+
+        //b2 .. b4 replaced b1, which was then dropped for 4; 1 was dropped for b5
+        assertEquals(Arrays.<Object>asList(0, 2, 3, 4, "b5"), r.received);
+        assertEquals(2, m.counter("event.A.dropped").sum() + m.counter("event.B.dropped").sum());
+        assertEquals(3, m.counter("event.B.coalesced").sum());
+        assertEquals(r.received.size(), m.histogram("event.A.lag").count() + m.histogram("event.B.lag").count());
+        o.setActive(false);
+    }
+
+    @Test
+    public void testFailures() throws InterruptedException {
+        EventEmitter e = new EventEmitter();
+        Metrics m = new Metrics();
+        final List<Object> received = new ArrayList<>();
+        AsyncObserver o = new AsyncObserver(e, m, null, new EventObserver() {
+            @Override public void event(Class event, Object[] args) {
+                if (args[0].equals(1)) {
+                    throw new RuntimeException("failing observer");
+                }
+                if (args[0].equals(2)) {
+                    throw new StackOverflowError();
+                }
+                received.add(args[0]);
+            }
+        }, 4, A.class);
+        for (int i = 0; i < 4; i++) {
+            e.emit(A.class, i);
+        }
+        assertTrue(o.flush(10000));
+
+        //the failures are counted and the delivery goes on
+        assertEquals(Arrays.<Object>asList(0, 3), received);
+        assertEquals(2, o.failures());
+        assertEquals(2, m.counter("event.A.failed").sum());
+        o.setActive(false);
+    }
+
+    @Test
+    public void testSetAsync() throws InterruptedException {
+        EventEmitter e = new EventEmitter();
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        AbstractObserver o = new AbstractObserver(e, false, A.class) {
+            @Override public void event(Class event, Object[] args) {
+                threads.add(Thread.currentThread());
+            }
+        };
+        o.setAsync(new NAR(new Plugins()), 16, Overflow.Block);
+
+        //inactive observers stay inactive
+        e.emit(A.class, 0);
+        o.setActive(true);
+        e.emit(A.class, 1);
+        assertTrue(o.getAsync().flush(10000));
+        assertEquals(1, threads.size());
+        assertTrue(threads.get(0) != Thread.currentThread());
+
+        o.setActive(false);
+        e.emit(A.class, 2);
+        assertEquals(1, threads.size());
+    }
+
+    @Test
+    public void testTextOutput() throws InterruptedException {
+        NAR n = new NAR(new Plugins());
+        StringWriter sync = new StringWriter(), async = new StringWriter();
+        new TextOutput(n, sync);
+        TextOutput a = new TextOutput(n, async);
+        a.setAsync(n, 4, Overflow.Block);
+        n.addInput("<a --> b>.\n<b --> c>.\n<a --> c>?\n<e --> f>. :|:");
+        n.run(100);
+        n.emit(OUT.class, "done");
+        a.flush();
+
+        //the same text, formatted when it was output
+        assertEquals(sync.toString(), async.toString());
+        assertTrue(sync.toString().contains("done"));
+    }
+
+    /** live threads writing the lines of a TextOutput */
+    static int writerThreads() {
+        int count = 0;
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.isAlive() && t.getName().startsWith("AsyncObserver " + TextOutput.class.getName())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testTextOutputStop() throws InterruptedException {
+        NAR n = new NAR(new Plugins());
+        StringWriter sync = new StringWriter(), async = new StringWriter();
+        new TextOutput(n, sync);
+        int writers = writerThreads();
+        TextOutput a = new TextOutput(n, async);
+        a.setAsync(n, 1024, Overflow.Block);
+        assertEquals(writers + 1, writerThreads());
+        n.addInput("<a --> b>.\n<b --> c>.\n<a --> c>?");
+        n.run(100);
+
+        //stopping writes the queued lines, then ends the writer thread
+        a.stop();
+        assertEquals(sync.toString(), async.toString());
+        for (int i = 0; (i < 100) && (writerThreads() > writers); i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(writers, writerThreads());
+    }
+}
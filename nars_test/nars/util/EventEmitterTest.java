@@ -0,0 +1,45 @@
+package nars.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import nars.util.EventEmitter.Channel;
+import nars.util.EventEmitter.EventObserver;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class EventEmitterTest {
+
+    static class A { }
+
+    @Test
+    public void testChannel() {
+        EventEmitter e = new EventEmitter();
+        Channel a = e.channel(A.class);
+        assertTrue(a == e.channel(A.class));
+        assertTrue(!a.isActive());
+        a.emit("unobserved");
+
+        final List<Object> received = new ArrayList<>();
+        EventObserver o = new EventObserver() {
+            @Override public void event(Class event, Object[] args) {
+                assertTrue(event == A.class);
+                received.add(Arrays.asList(args));
+            }
+        };
+        e.on(A.class, o);
+        assertTrue(a.isActive());
+        assertTrue(e.isActive(A.class));
+
+        a.emit();
+        a.emit(1, 2);
+        e.emit(A.class, 3);
+        assertEquals(Arrays.asList(Arrays.asList(), Arrays.asList(1, 2), Arrays.asList(3)), received);
+
+        e.off(A.class, o);
+        assertTrue(!a.isActive());
+        a.emit(4);
+        assertEquals(3, received.size());
+    }
+}
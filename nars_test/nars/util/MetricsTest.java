@@ -0,0 +1,54 @@
+package nars.util;
+
+import nars.NAR;
+import nars.config.Plugins;
+import nars.util.Metrics.Format;
+import nars.util.Metrics.Phase;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+
+public class MetricsTest {
+
+    @Test
+    public void testHistogram() {
+        Histogram h = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i);
+        }
+        assertEquals(1000, h.count());
+        assertEquals(1000, h.max());
+        assertEquals(500.5, h.mean(), 0.001);
+
+        //within one sub-bucket, 1/8 of the magnitude
+        long p50 = h.quantile(0.5);
+        assertTrue(p50 >= 500 && p50 <= 500 + 500 / 8);
+        long p99 = h.quantile(0.99);
+        assertTrue(p99 >= 990 && p99 <= 1000);
+        assertEquals(1, h.quantile(0));
+    }
+
+    @Test
+    public void testCycleMetrics() {
+        NAR n = new NAR(new Plugins());
+        n.addInput("<a --> b>.");
+        n.addInput("<b --> c>.");
+        n.run(10);
+        assertEquals("disabled by default", 0, n.memory.metrics.histogram(Phase.Cycle.metric).count());
+
+        StringBuilder reports = new StringBuilder();
+        n.param.metrics.set(true);
+        n.memory.metrics.reportEvery(5, Format.CSV, reports);
+        n.run(20);
+
+        assertEquals(20, n.memory.metrics.histogram(Phase.Cycle.metric).count());
+        assertEquals(20, n.memory.metrics.histogram(Phase.Inference.metric).count());
+        assertTrue(reports.toString().contains("rule.COMPOUND_STATEMENT/COMPOUND_STATEMENT.derived"));
+        assertEquals(4, reports.toString().split("cycle,name").length - 1);
+
+        String json = n.memory.metrics.report(Format.JSON, n.time());
+        assertTrue(json.startsWith("{\"cycle\":"));
+        assertTrue(json.contains("\"cycle.total\":{\"count\":20,"));
+    }
+}
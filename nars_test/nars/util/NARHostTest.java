@@ -0,0 +1,120 @@
+package nars.util;
+
+import nars.NAR;
+import nars.config.Plugins;
+import nars.io.Narsese;
+import nars.io.Narsese.InvalidInputException;
+import nars.util.EventEmitter.EventObserver;
+import nars.util.NARHost.Session;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Test;
+
+public class NARHostTest {
+
+    NARHost host;
+
+    @After
+    public void close() {
+        if (host != null) {
+            host.close();
+        }
+    }
+
+    static void await(Session s) throws InterruptedException {
+        for (int i = 0; (i < 1000) && !s.isParked(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(s.isParked());
+    }
+
+    @Test
+    public void testFairShare() throws InterruptedException {
+        host = new NARHost(1, 10, 0, 0);
+        Session a = host.open(new NAR(new Plugins()));
+        Session b = host.open(new NAR(new Plugins()));
+        b.setWeight(3);
+        a.input("<a --> b>.");
+        b.input("<a --> b>.");
+        for (int i = 0; (i < 1000) && (a.getCycles() < 300); i++) {
+            Thread.sleep(10);
+        }
+        a.pause();
+        b.pause();
+        double ratio = ((double) b.getCycles()) / a.getCycles();
+        assertTrue("ratio " + ratio, (ratio > 2) && (ratio < 4));
+    }
+
+    @Test
+    public void testParking() throws InterruptedException, InvalidInputException {
+        host = new NARHost(2, 5, 0, 50);
+        Session s = host.open(new NAR(new Plugins()));
+        assertTrue(s.isParked());
+        s.input("<a --> b>.");
+        await(s);
+        long cycles = s.getCycles();
+        assertTrue(cycles >= 50);
+        Thread.sleep(50);
+        assertEquals(cycles, s.getCycles());
+
+        //input wakes it up again
+        s.input("<b --> c>.");
+        await(s);
+        assertTrue(s.getCycles() >= cycles + 50);
+        assertTrue(s.nar.memory.concept(new Narsese(s.nar).parseTerm("<b --> c>")) != null);
+
+        //paused sessions do not run, even with input
+        s.pause();
+        cycles = s.getCycles();
+        s.input("<c --> d>.");
+        Thread.sleep(50);
+        assertEquals(cycles, s.getCycles());
+        assertTrue(!s.isParked());
+        s.resume();
+        await(s);
+        assertTrue(s.getCycles() > cycles);
+    }
+
+    @Test
+    public void testError() throws InterruptedException {
+        host = new NARHost(1, 5, 0, 50);
+        Session failing = host.open(new NAR(new Plugins()));
+        failing.nar.memory.event.on(Events.FrameEnd.class, new EventObserver() {
+            @Override public void event(Class event, Object[] args) {
+                throw new StackOverflowError();
+            }
+        });
+        failing.input("<a --> b>.");
+        for (int i = 0; (i < 1000) && (failing.getError() == null); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(failing.getError() instanceof StackOverflowError);
+        assertTrue(!host.getSessions().contains(failing));
+
+        //the only worker survives and runs the other sessions
+        Session s = host.open(new NAR(new Plugins()));
+        s.input("<a --> b>.");
+        await(s);
+        assertTrue(s.getCycles() >= 50);
+    }
+
+    @Test
+    public void testManySessions() throws InterruptedException {
+        host = new NARHost(2, 10, 0, 100);
+        for (int i = 0; i < 50; i++) {
+            host.open(new NAR(new Plugins())).input("<a" + i + " --> b>.\n<b --> c>.");
+        }
+        long memory = 0;
+        for (Session s : host.getSessions()) {
+            await(s);
+            assertTrue(s.getCycles() >= 100);
+            assertTrue(s.getMemoryEstimate() > 0);
+            memory += s.getMemoryEstimate();
+        }
+        assertEquals(memory, host.getMemoryEstimate());
+
+        host.getSessions().get(0).close();
+        assertEquals(49, host.getSessions().size());
+    }
+}
@@ -0,0 +1,166 @@
+package nars.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Test;
+
+public class HTTPServerTest {
+
+    HTTPServer server;
+
+    final CountDownLatch congested = new CountDownLatch(1);
+    final CountDownLatch relieved = new CountDownLatch(1);
+
+    final WebSocket.Handler echo = new WebSocket.Handler() {
+        @Override public void onOpen(WebSocket ws) {
+        }
+        @Override public void onMessage(WebSocket ws, String message) {
+            if (message.equals("flood")) {
+                ws.maxPending = 1000;
+                for (int i = 0; (i < 1000000) && ws.send("0123456789012345678901234567890123456789"); i++) {
+                }
+                return;
+            }
+            ws.send(message.toUpperCase());
+            ws.send(message);
+        }
+        @Override public void onBackpressure(WebSocket ws, boolean c) {
+            (c ? congested : relieved).countDown();
+        }
+        @Override public void onClose(WebSocket ws) {
+        }
+    };
+
+    void start() throws IOException {
+        server = new HTTPServer(0, 2) {
+            @Override public Response serve(String uri, String method, Properties header, Properties parms) {
+                return new Response(HTTP_OK, MIME_PLAINTEXT, method + " " + uri + " " + parms.getProperty("a"));
+            }
+            @Override protected WebSocket.Handler openWebSocket(String uri, Properties header) {
+                return uri.equals("/ws") ? echo : null;
+            }
+        };
+    }
+
+    @After
+    public void stop() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void testRequest() throws IOException {
+        start();
+        HttpURLConnection c = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + "/x%20y?a=b").openConnection();
+        assertEquals(200, c.getResponseCode());
+        assertEquals("GET /x y b", read(c.getInputStream()));
+    }
+
+    @Test
+    public void testWebSocket() throws IOException {
+        start();
+        try (Socket s = handshake()) {
+            sendText(s, "hello");
+            List<String> lines = new ArrayList<>();
+            while (lines.size() < 2) {
+                lines.addAll(Arrays.asList(readText(s).split("\n")));
+            }
+            assertEquals("[HELLO, hello]", lines.toString());
+        }
+    }
+
+    @Test
+    public void testBackpressure() throws IOException, InterruptedException {
+        start();
+        try (Socket s = new Socket()) {
+            s.setReceiveBufferSize(4096);
+            s.connect(new java.net.InetSocketAddress("127.0.0.1", server.getPort()));
+            handshake(s);
+            sendText(s, "flood");
+            assertTrue(congested.await(10, TimeUnit.SECONDS));
+
+            //reading catches up and is told about the dropped lines
+            String last = "";
+            while (!last.contains("dropped")) {
+                String[] lines = readText(s).split("\n");
+                last = lines[lines.length - 1];
+            }
+            assertTrue(relieved.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    Socket handshake() throws IOException {
+        Socket s = new Socket("127.0.0.1", server.getPort());
+        handshake(s);
+        return s;
+    }
+
+    void handshake(Socket s) throws IOException {
+        String key = "dGhlIHNhbXBsZSBub25jZQ==";
+        s.getOutputStream().write(("GET /ws HTTP/1.1\r\nHost: localhost\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                + "Sec-WebSocket-Key: " + key + "\r\nSec-WebSocket-Version: 13\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        String head = "";
+        InputStream in = s.getInputStream();
+        while (!head.endsWith("\r\n\r\n")) {
+            head += (char) in.read();
+        }
+        assertTrue(head, head.startsWith("HTTP/1.1 101"));
+        //the example of RFC 6455
+        assertTrue(head, head.contains("Sec-WebSocket-Accept: s3pPLMBiTxaQ9kYGzzhZRbK+xOo="));
+    }
+
+    static void sendText(Socket s, String text) throws IOException {
+        byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+        byte[] mask = { 1, 2, 3, 4 };
+        OutputStream out = s.getOutputStream();
+        out.write(0x81);
+        out.write(0x80 | payload.length);
+        out.write(mask);
+        for (int i = 0; i < payload.length; i++) {
+            out.write(payload[i] ^ mask[i & 3]);
+        }
+        out.flush();
+    }
+
+    static String readText(Socket s) throws IOException {
+        DataInputStream in = new DataInputStream(s.getInputStream());
+        int op = in.readUnsignedByte() & 0x0f;
+        long len = in.readUnsignedByte() & 0x7f;
+        if (len == 126) {
+            len = in.readUnsignedShort();
+        } else if (len == 127) {
+            len = in.readLong();
+        }
+        byte[] payload = new byte[(int) len];
+        in.readFully(payload);
+        assertEquals(1, op);
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+
+    static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream b = new ByteArrayOutputStream();
+        byte[] buf = new byte[1024];
+        int n;
+        while ((n = in.read(buf)) > 0) {
+            b.write(buf, 0, n);
+        }
+        return b.toString("UTF-8");
+    }
+}
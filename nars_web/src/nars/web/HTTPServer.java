@@ -26,24 +26,39 @@ package nars.web;
  "(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE\n"+
  "OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.";
  */
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
-import java.net.ServerSocket;
-import java.net.Socket;
+import java.net.InetSocketAddress;
 import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Base64;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.Hashtable;
+import java.util.Iterator;
 import java.util.Locale;
 import java.util.Properties;
 import java.util.StringTokenizer;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A simple, tiny, nicely embeddable HTTP 1.0 server in Java
@@ -56,15 +71,15 @@ import java.util.TimeZone;
  * <b>Features + limitations: </b>
  * <ul>
  *
- * <li> Only one Java file </li>
- * <li> Java 1.1 compatible </li>
  * <li> Released as open source, Modified BSD licence </li>
  * <li> No fixed config files, logging, authorization etc. (Implement yourself
  * if you need them.) </li>
  * <li> Supports parameter parsing of GET and POST methods </li>
  * <li> Supports both dynamic content and file serving </li>
  * <li> Never caches anything </li>
- * <li> Doesn't limit bandwidth, request time or simultaneous connections </li>
+ * <li> Serves all connections from one selector thread and a bounded pool of
+ * worker threads, answers 503 when too many requests wait for a worker </li>
+ * <li> Accepts WebSocket connections, see openWebSocket() </li>
  * <li> Default code serves files and shows all HTTP parameters and headers</li>
  * <li> File server supports directory listing, index.html and index.htm </li>
  * <li> File server does the 301 redirection trick for directories without
@@ -195,7 +210,7 @@ abstract public class HTTPServer {
     public static final String HTTP_OK = "200 OK", HTTP_REDIRECT = "301 Moved Permanently",
             HTTP_FORBIDDEN = "403 Forbidden", HTTP_NOTFOUND = "404 Not Found",
             HTTP_BADREQUEST = "400 Bad Request", HTTP_INTERNALERROR = "500 Internal Server Error",
-            HTTP_NOTIMPLEMENTED = "501 Not Implemented";
+            HTTP_NOTIMPLEMENTED = "501 Not Implemented", HTTP_UNAVAILABLE = "503 Service Unavailable";
 
     /**
      * Common mime types for dynamic content
@@ -212,24 +227,87 @@ abstract public class HTTPServer {
      * Throws an IOException if the socket is already in use
      */
     public HTTPServer(int port) throws IOException {
-        myTcpPort = port;        
+        this(port, DEFAULT_WORKERS);
+    }
+
+    /**
+     * Starts a HTTP server to given port, serving the requests and the
+     * WebSocket messages with the given number of worker threads.
+     * <p>
+     * Throws an IOException if the socket is already in use
+     */
+    public HTTPServer(int port, int workers) throws IOException {
+        selector = Selector.open();
+        this.workers = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "HTTPServer worker");
+                t.setDaemon(true);
+                return t;
+            }
+        });
+
+        myTcpPort = listen(port);
 
-        final ServerSocket ss = new ServerSocket(myTcpPort);
         Thread t = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                select();
+            }
+        }, "HTTPServer");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Accepts connections on another port too.
+     *
+     * @return the port, which is chosen by the system when port is 0
+     */
+    public int listen(int port) throws IOException {
+        final ServerSocketChannel server = ServerSocketChannel.open();
+        server.socket().setReuseAddress(true);
+        server.socket().bind(new InetSocketAddress(port));
+        server.configureBlocking(false);
+        onSelector(new Runnable() {
             @Override
             public void run() {
                 try {
-                    while (true) {
-                        new HTTPSession(ss.accept());
-                    }
-                } catch (IOException ioe) {
+                    server.register(selector, SelectionKey.OP_ACCEPT);
+                } catch (ClosedChannelException e) {
                 }
             }
         });
-        t.setDaemon(true);
-        t.start();
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * The port given to the constructor, or chosen by the system when it was 0
+     */
+    public int getPort() {
+        return myTcpPort;
     }
 
+    /**
+     * Stops accepting connections and closes the open ones.
+     */
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        workers.shutdown();
+    }
+
+    /**
+     * Override this to accept WebSocket connections.
+     *
+     * @parm uri Percent-decoded URI without parameters
+     * @parm header Header entries of the upgrade request
+     * @return the handler of the new connection, or null to answer 404
+     */
+    protected WebSocket.Handler openWebSocket(String uri, Properties header) {
+        return null;
+    }
     /**
      * Starts as a standalone file server and waits for Enter.
      */
@@ -273,228 +351,547 @@ abstract public class HTTPServer {
      ;
      }*/
     /**
-     * Handles one session, i.e. parses the HTTP request and returns the
-     * response.
+     * Selector loop: accepts connections, reads requests and WebSocket frames
+     * and writes responses and frames, without ever blocking on a client.
      */
-    public class HTTPSession implements Runnable {
+    private void select() {
+        while (!closed) {
+            try {
+                selector.select();
+            } catch (IOException e) {
+                break;
+            }
 
-        public HTTPSession(Socket s) {
-            mySocket = s;
-            Thread t = new Thread(this);
-            t.setDaemon(true);
-            t.start();
-        }
+            Runnable task;
+            while ((task = selectorTasks.poll()) != null) {
+                task.run();
+            }
 
-        @Override
-        public void run() {
-            try {
-                InputStream is = mySocket.getInputStream();
-                if (is == null) {
-                    return;
+            Iterator<SelectionKey> i = selector.selectedKeys().iterator();
+            while (i.hasNext()) {
+                SelectionKey key = i.next();
+                i.remove();
+                if (!key.isValid()) {
+                    continue;
                 }
-                BufferedReader in = new BufferedReader(new InputStreamReader(is));
-                String rline = in.readLine();
-                if (rline==null)
-                    return;
-                
-                // Read the request line
-                StringTokenizer st = new StringTokenizer(rline);
-                if (!st.hasMoreTokens()) {
-                    sendError(HTTP_BADREQUEST, "BAD REQUEST: Syntax error. Usage: GET /example/file.html");
+                if (key.isAcceptable()) {
+                    accept((ServerSocketChannel) key.channel());
+                    continue;
                 }
+                Connection c = (Connection) key.attachment();
+                try {
+                    if (key.isReadable()) {
+                        c.read();
+                    }
+                    if (key.isValid() && key.isWritable()) {
+                        c.write();
+                    }
+                } catch (IOException | CancelledKeyException e) {
+                    c.close();
+                }
+            }
+        }
 
-                String method = st.nextToken();
-
-                if (!st.hasMoreTokens()) {
-                    sendError(HTTP_BADREQUEST, "BAD REQUEST: Missing URI. Usage: GET /example/file.html");
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection) {
+                ((Connection) key.attachment()).close();
+            } else {
+                try {
+                    key.channel().close();
+                } catch (IOException e) {
                 }
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+        }
+    }
 
-                String uri = decodePercent(st.nextToken());
+    private void accept(ServerSocketChannel server) {
+        try {
+            SocketChannel ch = server.accept();
+            if (ch == null) {
+                return;
+            }
+            ch.configureBlocking(false);
+            ch.socket().setTcpNoDelay(true);
+            Connection c = new Connection(ch);
+            c.key = ch.register(selector, SelectionKey.OP_READ, c);
+        } catch (IOException e) {
+        }
+    }
 
-                // Decode parameters from the URI
-                Properties parms = new Properties();
-                int qmi = uri.indexOf('?');
-                if (qmi >= 0) {
-                    decodeParms(uri.substring(qmi + 1), parms);
-                    uri = decodePercent(uri.substring(0, qmi));
-                }
+    /**
+     * Runs the task on the selector thread.
+     */
+    private void onSelector(Runnable task) {
+        selectorTasks.add(task);
+        selector.wakeup();
+    }
 
-        // If there's another token, it's protocol version,
-                // followed by HTTP headers. Ignore version but parse headers.
-                // NOTE: this now forces header names uppercase since they are
-                // case insensitive and vary by client.
-                Properties header = new Properties();
-                if (st.hasMoreTokens()) {
-                    String line = in.readLine();
-                    while (line.trim().length() > 0) {
-                        int p = line.indexOf(':');
-                        header.put(line.substring(0, p).trim().toLowerCase(), line.substring(p + 1).trim());
-                        line = in.readLine();
+    /**
+     * Handles one connection: reads the HTTP request and writes the response,
+     * or, after an upgrade, reads and writes WebSocket frames.  Only used by
+     * the selector thread.
+     */
+    private class Connection {
+
+        final SocketChannel channel;
+        SelectionKey key;
+        ByteBuffer in = ByteBuffer.allocate(4096);
+        final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+        /** rest of the response body, written after out */
+        InputStream body;
+        boolean requested = false;
+        boolean closeWhenWritten = false;
+        boolean closed = false;
+        WebSocket webSocket;
+
+        final Runnable flush = new Runnable() {
+            @Override
+            public void run() {
+                if (!closed) {
+                    try {
+                        write();
+                    } catch (IOException | CancelledKeyException e) {
+                        close();
                     }
                 }
+            }
+        };
 
-        // If the method is POST, there may be parameters
-                // in data section, too, read it:
-                if (method.equalsIgnoreCase("POST")) {
-                    long size = 0x7FFFFFFFFFFFFFFFl;
-                    String contentLength = header.getProperty("content-length");
-                    if (contentLength != null) {
-                        try {
-                            size = Integer.parseInt(contentLength);
-                        } catch (NumberFormatException ex) {
-                        }
-                    }
-                    String postLine = "";
-                    char buf[] = new char[512];
-                    int read = in.read(buf);
-                    while (read >= 0 && size > 0 && !postLine.endsWith("\r\n")) {
-                        size -= read;
-                        postLine += String.valueOf(buf, 0, read);
-                        if (size > 0) {
-                            read = in.read(buf);
-                        }
-                    }
-                    postLine = postLine.trim();                                        
-                    parms.setProperty("content", decodePercent(postLine));
+        final Runnable resumeReading = new Runnable() {
+            @Override
+            public void run() {
+                if (!closed) {
+                    interest(SelectionKey.OP_READ, true);
                 }
+            }
+        };
 
-                // Ok, now do the serve()
-                Response r = serve(uri, method, header, parms);
-                if (r == null) {
-                    sendError(HTTP_INTERNALERROR, "SERVER INTERNAL ERROR: Serve() returned a null response.");
-                } else {
-                    sendResponse(r.status, r.mimeType, r.header, r.data);
-                }
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
 
-                in.close();
-            } catch (IOException ioe) {
-                try {
-                    sendError(HTTP_INTERNALERROR, "SERVER INTERNAL ERROR: IOException: " + ioe.getMessage());
-                } catch (Throwable t) {
+        void read() throws IOException {
+            if (!in.hasRemaining()) {
+                if (in.capacity() > MAX_REQUEST) {
+                    close();
+                    return;
                 }
-            } catch (InterruptedException ie) {
-                // Thrown by sendError, ignore and exit the thread.
+                in.flip();
+                in = ByteBuffer.allocate(in.capacity() * 2).put(in);
+            }
+            if (channel.read(in) < 0) {
+                close();
+                return;
             }
+            in.flip();
+            if (webSocket != null) {
+                interest(SelectionKey.OP_READ, webSocket.receive(in));
+            } else if (!requested) {
+                request();
+            }
+            in.compact();
         }
 
         /**
-         * Decodes the percent encoding scheme. <br/> For example:
-         * "an+example%20string" -> "an example string"
+         * Once the head and body of the request are complete, passes them to a
+         * worker, or answers 503 when too many requests wait for one.
          */
-        private String decodePercent(String str) throws InterruptedException {
-            try {
-                StringBuilder sb = new StringBuilder();
-                for (int i = 0; i < str.length(); i++) {
-                    char c = str.charAt(i);
-                    switch (c) {
-                        case '+':
-                            sb.append(' ');
-                            break;
-                        case '%':
-                            sb.append((char) Integer.parseInt(str.substring(i + 1, i + 3), 16));
-                            i += 2;
-                            break;
-                        default:
-                            sb.append(c);
-                            break;
+        void request() {
+            int end = -1;
+            for (int i = 3; i < in.limit(); i++) {
+                if ((in.get(i) == '\n') && (in.get(i - 1) == '\r') && (in.get(i - 2) == '\n') && (in.get(i - 3) == '\r')) {
+                    end = i + 1;
+                    break;
+                }
+            }
+            if (end < 0) {
+                return;
+            }
+            final String head = new String(in.array(), 0, end, StandardCharsets.ISO_8859_1);
+
+            int contentLength = 0;
+            if (head.regionMatches(true, 0, "POST", 0, 4)) {
+                int p = head.toLowerCase().indexOf("\ncontent-length:");
+                if (p >= 0) {
+                    try {
+                        contentLength = Integer.parseInt(head.substring(p + 16, head.indexOf('\n', p + 1)).trim());
+                    } catch (NumberFormatException ex) {
                     }
                 }
-                return new String(sb.toString().getBytes());
-            } catch (Exception e) {
-                sendError(HTTP_BADREQUEST, "BAD REQUEST: Bad percent-encoding.");
-                return null;
+                if ((contentLength < 0) || (end + contentLength > MAX_REQUEST)) {
+                    requested = true;
+                    respond(new Response(HTTP_BADREQUEST, MIME_PLAINTEXT, "BAD REQUEST: Content too long."));
+                    return;
+                }
+                if (in.limit() < end + contentLength) {
+                    return;
+                }
+            }
+            final String content = new String(in.array(), end, contentLength, StandardCharsets.UTF_8);
+            in.position(end + contentLength);
+            requested = true;
+            interest(SelectionKey.OP_READ, false);
+
+            if (requests.incrementAndGet() > workers.getMaximumPoolSize() + MAX_QUEUED_REQUESTS) {
+                requests.decrementAndGet();
+                respond(new Response(HTTP_UNAVAILABLE, MIME_PLAINTEXT, "SERVICE UNAVAILABLE: Too many requests."));
+                return;
+            }
+            try {
+                workers.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            serveRequest(Connection.this, head, content);
+                        } finally {
+                            requests.decrementAndGet();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                requests.decrementAndGet();
+                close();
             }
         }
 
         /**
-         * Decodes parameters in percent-encoded URI-format ( e.g.
-         * "name=Jack%20Daniels&pass=Single%20Malt" ) and adds them to given
-         * Properties.
+         * Writes what can be written without blocking, and waits to be
+         * writable again for the rest.
          */
-        private void decodeParms(String parms, Properties p) throws InterruptedException {
-            if (parms == null) {
+        void write() throws IOException {
+            while (true) {
+                ByteBuffer b = out.peek();
+                if (b == null) {
+                    b = nextOutput();
+                    if (b == null) {
+                        break;
+                    }
+                    out.add(b);
+                }
+                channel.write(b);
+                if (webSocket != null) {
+                    webSocket.writing(b.remaining());
+                }
+                if (b.hasRemaining()) {
+                    interest(SelectionKey.OP_WRITE, true);
+                    return;
+                }
+                out.poll();
+            }
+            if (closeWhenWritten) {
+                close();
                 return;
             }
+            interest(SelectionKey.OP_WRITE, false);
+        }
 
-            StringTokenizer st = new StringTokenizer(parms, "&");
-            while (st.hasMoreTokens()) {
-                String e = st.nextToken();
-                int sep = e.indexOf('=');
-                if (sep >= 0) {
-                    p.put(decodePercent(e.substring(0, sep)).trim(), decodePercent(e.substring(sep + 1)));
+        /**
+         * The next piece of the response body, or the next WebSocket frame.
+         */
+        ByteBuffer nextOutput() throws IOException {
+            if (body != null) {
+                byte[] buff = new byte[16384];
+                int read = body.read(buff, 0, buff.length);
+                if (read > 0) {
+                    return ByteBuffer.wrap(buff, 0, read);
+                }
+                body.close();
+                body = null;
+            }
+            if (webSocket != null) {
+                ByteBuffer frame = webSocket.nextFrame();
+                if ((frame != null) && WebSocket.isClose(frame)) {
+                    closeWhenWritten = true;
                 }
+                return frame;
             }
+            return null;
         }
 
         /**
-         * Returns an error message as a HTTP response and throws
-         * InterruptedException to stop furhter request processing.
+         * Sends given response, closing the connection afterwards.
          */
-        private void sendError(String status, String msg) throws InterruptedException {
-            sendResponse(status, MIME_PLAINTEXT, null, new ByteArrayInputStream(msg.getBytes()));
-            throw new InterruptedException();
+        void respond(Response r) {
+            out.add(responseHead(r.status, r.mimeType, r.header));
+            body = r.data;
+            closeWhenWritten = true;
+            interest(SelectionKey.OP_READ, false);
+            flush.run();
         }
 
+        void respondLater(final Response r) {
+            onSelector(new Runnable() {
+                @Override
+                public void run() {
+                    if (closed) {
+                        if (r.data != null) {
+                            try {
+                                r.data.close();
+                            } catch (IOException e) {
+                            }
+                        }
+                        return;
+                    }
+                    respond(r);
+                }
+            });
+        }
 
         /**
-         * Sends given response to the socket.
+         * Switches to the WebSocket protocol after sending the handshake.
          */
-        private void sendResponse(String status, String mime, Properties header, InputStream data) {
-            try {
-                if (status == null) {
-                    throw new Error("sendResponse(): Status can't be null.");
-                }
+        void upgradeLater(final String accept, final WebSocket.Handler handler) {
+            onSelector(new Runnable() {
+                @Override
+                public void run() {
+                    if (closed) {
+                        return;
+                    }
+                    out.add(ByteBuffer.wrap(("HTTP/1.1 101 Switching Protocols\r\n"
+                            + "Upgrade: websocket\r\n"
+                            + "Connection: Upgrade\r\n"
+                            + "Sec-WebSocket-Accept: " + accept + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1)));
+                    webSocket = new WebSocket(handler, channel.socket().getRemoteSocketAddress()) {
+                        @Override
+                        void flushLater() {
+                            onSelector(flush);
+                        }
 
-                OutputStream out = mySocket.getOutputStream();
-                PrintWriter pw = new PrintWriter(out);
-                pw.print("HTTP/1.0 " + status + " \r\n");
+                        @Override
+                        void execute(Runnable task) {
+                            try {
+                                workers.execute(task);
+                            } catch (RejectedExecutionException e) {
+                                //the server is closed
+                            }
+                        }
 
-                if (mime != null) {
-                    pw.print("Content-Type: " + mime + "\r\n");
+                        @Override
+                        void resumeReadingLater() {
+                            onSelector(resumeReading);
+                        }
+                    };
+                    webSocket.opened();
+
+                    //frames sent right after the handshake
+                    in.flip();
+                    interest(SelectionKey.OP_READ, webSocket.receive(in));
+                    in.compact();
+                    flush.run();
                 }
+            });
+        }
 
-                if (header == null || header.getProperty("Date") == null) {
-                    pw.print("Date: " + gmtFrmt.format(new Date()) + "\r\n");
-                }
+        void interest(int op, boolean on) {
+            if (key.isValid()) {
+                key.interestOps(on ? (key.interestOps() | op) : (key.interestOps() & ~op));
+            }
+        }
 
-                if (header != null) {
-                    Enumeration e = header.keys();
-                    while (e.hasMoreElements()) {
-                        String key = (String) e.nextElement();
-                        String value = header.getProperty(key);
-                        pw.print(key + ": " + value + "\r\n");
-                    }
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            key.cancel();
+            try {
+                channel.close();
+            } catch (IOException e) {
+            }
+            if (body != null) {
+                try {
+                    body.close();
+                } catch (IOException e) {
                 }
+                body = null;
+            }
+            if (webSocket != null) {
+                webSocket.closed();
+            }
+        }
+    }
 
-                pw.print("\r\n");
-                pw.flush();
+    /**
+     * Parses the request and serves it, on a worker thread.
+     */
+    private void serveRequest(Connection c, String head, String content) {
+        Response r;
+        try {
+            r = handleRequest(c, head, content);
+        } catch (IllegalArgumentException e) {
+            r = new Response(HTTP_BADREQUEST, MIME_PLAINTEXT, "BAD REQUEST: " + e.getMessage());
+        } catch (RuntimeException e) {
+            r = new Response(HTTP_INTERNALERROR, MIME_PLAINTEXT, "SERVER INTERNAL ERROR: " + e);
+        }
+        if (r != null) {
+            c.respondLater(r);
+        }
+    }
 
-                if (data != null) {
-                    byte[] buff = new byte[2048];
-                    while (true) {
-                        int read = data.read(buff, 0, 2048);
-                        if (read <= 0) {
-                            break;
-                        }
-                        out.write(buff, 0, read);
-                    }
-                }
-                out.flush();
-                out.close();
-                if (data != null) {
-                    data.close();
+    /**
+     * @return the response, or null if the connection was upgraded to WebSocket
+     */
+    private Response handleRequest(Connection c, String head, String content) {
+        String[] lines = head.split("\r\n");
+
+        // Read the request line
+        StringTokenizer st = new StringTokenizer(lines[0]);
+        if (!st.hasMoreTokens()) {
+            throw new IllegalArgumentException("Syntax error. Usage: GET /example/file.html");
+        }
+
+        String method = st.nextToken();
+
+        if (!st.hasMoreTokens()) {
+            throw new IllegalArgumentException("Missing URI. Usage: GET /example/file.html");
+        }
+
+        String uri = decodePercent(st.nextToken());
+
+        // Decode parameters from the URI
+        Properties parms = new Properties();
+        int qmi = uri.indexOf('?');
+        if (qmi >= 0) {
+            decodeParms(uri.substring(qmi + 1), parms);
+            uri = decodePercent(uri.substring(0, qmi));
+        }
+
+        // If there's another token, it's protocol version,
+        // followed by HTTP headers. Ignore version but parse headers.
+        // NOTE: this now forces header names lowercase since they are
+        // case insensitive and vary by client.
+        Properties header = new Properties();
+        if (st.hasMoreTokens()) {
+            for (int i = 1; i < lines.length; i++) {
+                int p = lines[i].indexOf(':');
+                if (p > 0) {
+                    header.put(lines[i].substring(0, p).trim().toLowerCase(), lines[i].substring(p + 1).trim());
                 }
-            } catch (IOException ioe) {
-                // Couldn't write? No can do.
-                try {
-                    mySocket.close();
-                } catch (Throwable t) {
+            }
+        }
+
+        // If the method is POST, there may be parameters
+        // in data section, too
+        if (method.equalsIgnoreCase("POST")) {
+            parms.setProperty("content", decodePercent(content.trim()));
+        }
+
+        String key = header.getProperty("sec-websocket-key");
+        if ("websocket".equalsIgnoreCase(header.getProperty("upgrade")) && (key != null)) {
+            WebSocket.Handler handler = openWebSocket(uri, header);
+            if (handler == null) {
+                return new Response(HTTP_NOTFOUND, MIME_PLAINTEXT, "Error 404, no WebSocket here.");
+            }
+            c.upgradeLater(webSocketAccept(key), handler);
+            return null;
+        }
+
+        // Ok, now do the serve()
+        Response r = serve(uri, method, header, parms);
+        if (r == null) {
+            return new Response(HTTP_INTERNALERROR, MIME_PLAINTEXT, "SERVER INTERNAL ERROR: Serve() returned a null response.");
+        }
+        return r;
+    }
+
+    /**
+     * Decodes the percent encoding scheme. <br/> For example:
+     * "an+example%20string" -> "an example string"
+     */
+    private static String decodePercent(String str) {
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < str.length(); i++) {
+                char c = str.charAt(i);
+                switch (c) {
+                    case '+':
+                        sb.append(' ');
+                        break;
+                    case '%':
+                        sb.append((char) Integer.parseInt(str.substring(i + 1, i + 3), 16));
+                        i += 2;
+                        break;
+                    default:
+                        sb.append(c);
+                        break;
                 }
             }
+            return new String(sb.toString().getBytes());
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Bad percent-encoding.");
+        }
+    }
+
+    /**
+     * Decodes parameters in percent-encoded URI-format ( e.g.
+     * "name=Jack%20Daniels&pass=Single%20Malt" ) and adds them to given
+     * Properties.
+     */
+    private static void decodeParms(String parms, Properties p) {
+        if (parms == null) {
+            return;
+        }
+
+        StringTokenizer st = new StringTokenizer(parms, "&");
+        while (st.hasMoreTokens()) {
+            String e = st.nextToken();
+            int sep = e.indexOf('=');
+            if (sep >= 0) {
+                p.put(decodePercent(e.substring(0, sep)).trim(), decodePercent(e.substring(sep + 1)));
+            }
+        }
+    }
+
+    /**
+     * Status line and headers of a response.
+     */
+    private static ByteBuffer responseHead(String status, String mime, Properties header) {
+        if (status == null) {
+            throw new Error("sendResponse(): Status can't be null.");
+        }
+
+        StringBuilder pw = new StringBuilder();
+        pw.append("HTTP/1.0 ").append(status).append(" \r\n");
+
+        if (mime != null) {
+            pw.append("Content-Type: ").append(mime).append("\r\n");
+        }
+
+        if (header == null || header.getProperty("Date") == null) {
+            synchronized (gmtFrmt) {
+                pw.append("Date: ").append(gmtFrmt.format(new Date())).append("\r\n");
+            }
         }
 
-        private final Socket mySocket;
-    };
+        if (header != null) {
+            Enumeration e = header.keys();
+            while (e.hasMoreElements()) {
+                String key = (String) e.nextElement();
+                String value = header.getProperty(key);
+                pw.append(key).append(": ").append(value).append("\r\n");
+            }
+        }
+
+        pw.append("\r\n");
+        return ByteBuffer.wrap(pw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sec-WebSocket-Accept answer to the key of a handshake
+     */
+    static String webSocketAccept(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            byte[] digest = sha1.digest((key + "258EAFA5-E914-47DA-95CA-C5AB0DC85B11").getBytes(StandardCharsets.ISO_8859_1));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
     /**
      * URL-encodes everything between "/"-characters. Encodes spaces as '%20'
@@ -525,6 +922,27 @@ abstract public class HTTPServer {
 
     private int myTcpPort;
 
+    /**
+     * Default number of worker threads
+     */
+    public static int DEFAULT_WORKERS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Requests waiting for a worker above which the server answers 503
+     */
+    public static int MAX_QUEUED_REQUESTS = 64;
+
+    /**
+     * Largest request accepted, head and body
+     */
+    static final int MAX_REQUEST = 1 << 20;
+
+    private final Selector selector;
+    private final ThreadPoolExecutor workers;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed = false;
+
 
 
     /**
@@ -9,48 +9,57 @@ package nars.web;
 import nars.NAR;
 import nars.io.TextOutput;
 import nars.io.TextOutput.LineOutput;
+import nars.util.NARHost;
 
 /**
- * An instance of a web socket session to a NAR
+ * An instance of a web socket session to a NAR, which runs as a session
+ * of a NARHost.
+ * Its methods may be called from the worker threads of several sessions
+ * when the NAR is shared.
  * @author me
  */
 abstract public class NARConnection implements LineOutput {
     public final NAR nar;
+    public final NARHost.Session session;
     protected final TextOutput writer;
-    int cycleIntervalMS;
     //private final TextReaction extraParser;
         
     
-    public NARConnection(NAR nar, int cycleIntervalMS) {
+    public NARConnection(NARHost host, NAR nar) {
         this.nar = nar;
-        this.cycleIntervalMS = cycleIntervalMS;
+        this.session = host.open(nar);
              
         this.writer = new TextOutput(nar, this);
     }
 
+    /** queues the input, the session runs until it has been idle for a while */
     public void read(final String message) {
-        nar.addInput(message);
-                
-        if (!running)
-            resume();
+        session.input(message);
     }
     
     @Override
     abstract public void println(String output);
     
     
-    boolean running = false;
-    
     public void resume() {
-        if (!running) {        
-            running = true;
-            nar.start(cycleIntervalMS);
-        }
+        session.resume();
     }
     public void stop() {
-        running = false;
-        nar.stop();
+        session.close();
+    }
+
+    /**
+     * Pauses the NAR while the client can not keep up with its output
+     * and resumes it afterwards, see WebSocket.Handler.onBackpressure
+     */
+    public void throttle(boolean congested) {
+        if (congested) {
+            session.pause();
+        }
+        else {
+            session.resume();
+        }
     }
     
     
-}
+}
\ No newline at end of file
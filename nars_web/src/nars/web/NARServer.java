@@ -2,87 +2,108 @@ package nars.web;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.InetSocketAddress;
-import java.net.UnknownHostException;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import nars.NAR;
-import nars.config.Plugins;
-import org.java_websocket.WebSocket;
-import org.java_websocket.WebSocketImpl;
-import org.java_websocket.handshake.ClientHandshake;
-import org.java_websocket.server.WebSocketServer;
-
+import nars.util.NARHost;
+
+/**
+ * Serves the web client and its WebSocket sessions from one HTTPServer.
+ * In shared mode all sessions talk to the same NAR and receive all of its
+ * output; a client which reads too slowly only loses lines of that output.
+ * Otherwise each session has its own NAR, which is paused while its client
+ * can not keep up with the output.  All NARs run on one NARHost with a
+ * worker thread per processor.
+ */
 public class NARServer  {
 
     private static final int DEFAULT_WEBSOCKET_PORT = 10000;
     static final boolean WEBSOCKET_DEBUG = false;
     
     private static int cycleIntervalMS = 50;
+
+    /** cycles without input after which a session stops reasoning until the next input */
+    static final int PARK_AFTER_IDLE_CYCLES = 10000;
     
-    class NARSWebSocketServer extends WebSocketServer  {
+    final WebSocket.Handler sessions = new WebSocket.Handler() {
 
-        public NARSWebSocketServer(InetSocketAddress addr) throws UnknownHostException {
-            super(addr);
-        }
-     
         @Override
-        public void onOpen(final WebSocket conn, ClientHandshake handshake) {
-            //this.sendToAll("new connection: " + handshake.getResourceDescriptor());
-
-            WebSocketImpl.DEBUG = WebSocket.DEBUG = WEBSOCKET_DEBUG;
+        public void onOpen(final WebSocket conn) {
+            if (WEBSOCKET_DEBUG) System.out.println("Connect: " + conn.remoteAddress);
 
-            if (WEBSOCKET_DEBUG) System.out.println("Connect: " + conn.getRemoteSocketAddress().getAddress().getHostAddress());
-
-            final NARConnection n = new NARConnection(new NAR(), cycleIntervalMS) {
+            final NARConnection n = shared ? sharedConnection : new NARConnection(host, new NAR()) {
                 @Override public void println(String output) {
                     conn.send(output);
                 }
             };
             socketSession.put(conn, n);        
-
         }
 
         @Override
-        public void onClose(WebSocket conn, int code, String reason, boolean remote) {
-            if (WEBSOCKET_DEBUG) System.out.println(conn + " disconnected");
+        public void onClose(WebSocket conn) {
+            if (WEBSOCKET_DEBUG) System.out.println(conn.remoteAddress + " disconnected");
 
-            NARConnection n = socketSession.get(conn);
-            if (n!=null) {
+            NARConnection n = socketSession.remove(conn);
+            if ((n!=null) && !shared) {
                 n.stop();
-                socketSession.remove(conn);
             }
         }
 
         @Override
         public void onMessage(WebSocket conn, String message) {
-
             NARConnection n = socketSession.get(conn);
             if (n!=null) {
                 n.read(message);
             }
         }
 
-
         @Override
-        public void onError(WebSocket conn, Exception ex) {
-            ex.printStackTrace();
-            if (conn != null) {
-                // some errors like port binding failed may not be assignable to a specific websocket
+        public void onBackpressure(WebSocket conn, boolean congested) {
+            if (WEBSOCKET_DEBUG) System.out.println(conn.remoteAddress + (congested ? " congested" : " relieved"));
+
+            NARConnection n = socketSession.get(conn);
+            if ((n!=null) && !shared) {
+                n.throttle(congested);
             }
         }
-        
-    }
+    };
     
-    final NARSWebSocketServer websockets;
-    private final Map<WebSocket, NARConnection> socketSession = new HashMap();
+    final boolean shared;
+    final NARHost host;
+    final NARConnection sharedConnection;
+    final HTTPServeFiles http;
+    private final Map<WebSocket, NARConnection> socketSession = new ConcurrentHashMap();
+
+    public NARServer(int httpPort, int webSocketsPort) throws IOException {
+        this(httpPort, webSocketsPort, false);
+    }
 
-    public NARServer(int httpPort, int webSocketsPort) throws UnknownHostException, IOException {
-        websockets = new NARSWebSocketServer(new InetSocketAddress(webSocketsPort));
-        websockets.start();
-        
-        new HTTPServeFiles(httpPort, new File("nars_web/client"));
-        
+    public NARServer(int httpPort, int webSocketsPort, boolean shared) throws IOException {
+        this.shared = shared;
+        host = new NARHost(Runtime.getRuntime().availableProcessors(), 1, cycleIntervalMS, PARK_AFTER_IDLE_CYCLES);
+        if (shared) {
+            sharedConnection = new NARConnection(host, new NAR()) {
+                @Override public void println(String output) {
+                    for (WebSocket conn : socketSession.keySet()) {
+                        conn.send(output);
+                    }
+                }
+            };
+        }
+        else {
+            sharedConnection = null;
+        }
+
+        http = new HTTPServeFiles(httpPort, new File("nars_web/client")) {
+            @Override
+            protected WebSocket.Handler openWebSocket(String uri, Properties header) {
+                return sessions;
+            }
+        };
+        if (webSocketsPort != httpPort) {
+            http.listen(webSocketsPort);
+        }
     }
 
 
@@ -91,12 +112,13 @@ public class NARServer  {
                 
         int httpPort;
         int wsPort = DEFAULT_WEBSOCKET_PORT;
+        boolean shared = false;
         
         String nlpHost = null;
         int nlpPort = 0;
         
         if (args.length < 1) {
-            System.out.println("Usage: NARServer <httpPort> [nlpHost nlpPort] [cycleIntervalMS]");
+            System.out.println("Usage: NARServer <httpPort> [nlpHost nlpPort] [cycleIntervalMS] [shared]");
             
             return;
         }
@@ -113,12 +135,16 @@ public class NARServer  {
             if (args.length >= 4) {
                 cycleIntervalMS = Integer.parseInt(args[3]);
             }
+            if (args.length >= 5) {
+                shared = "shared".equals(args[4]);
+            }
         }
                 
-        NARServer s = new NARServer(httpPort, wsPort);
+        NARServer s = new NARServer(httpPort, wsPort, shared);
         
         System.out.println("NARS Web Server ready. port: " + httpPort + ", websockets port: " + wsPort);
         System.out.println("  Cycle interval (ms): " + cycleIntervalMS);
+        System.out.println("  Reasoner: " + (shared ? "shared by all sessions" : "one per session"));
         /*if (nlp!=null) {
             System.out.println("  NLP enabled, using: " + nlpHost + ":" + nlpPort);            
         }*/
@@ -0,0 +1,376 @@
+package nars.web;
+
+import java.io.ByteArrayOutputStream;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+
+/**
+ * Server side of a WebSocket connection (RFC 6455) accepted by HTTPServer.
+ * <p>
+ * send never blocks: the text is appended to the lines waiting for the next
+ * frame, and all lines sent until the selector gets to write them are
+ * coalesced into one text frame, separated by newlines.  When the client
+ * reads slower than it is sent to, so that more than maxPending characters
+ * wait, further lines are dropped (and counted in a note line of the next
+ * frame) and the handler is told about the congestion, until the backlog is
+ * down to half of it again.
+ * <p>
+ * Handler methods are called on the worker pool of the server, one at a
+ * time and in order for each connection.
+ */
+abstract public class WebSocket {
+
+    public interface Handler {
+        public void onOpen(WebSocket ws);
+        public void onMessage(WebSocket ws, String message);
+        /** called when the backlog of the connection goes over its limit (true) and when it is back under half of it (false) */
+        public void onBackpressure(WebSocket ws, boolean congested);
+        public void onClose(WebSocket ws);
+    }
+
+    /** default limit of characters waiting to be written to a connection */
+    public static int DEFAULT_MAX_PENDING = 1 << 20;
+
+    /** largest message accepted from a client, larger ones close the connection */
+    public static int MAX_MESSAGE = 1 << 20;
+
+    /** number of received messages waiting for the handler above which the connection is not read from */
+    static final int MAX_EVENTS = 64;
+
+    static final int OP_CONTINUATION = 0, OP_TEXT = 1, OP_BINARY = 2, OP_CLOSE = 8, OP_PING = 9, OP_PONG = 10;
+
+    public final Handler handler;
+    public final SocketAddress remoteAddress;
+    public int maxPending = DEFAULT_MAX_PENDING;
+
+    private final StringBuilder pending = new StringBuilder();
+    private final ArrayDeque<ByteBuffer> control = new ArrayDeque<>();
+    private int dropped = 0;
+    private boolean flushScheduled = false;
+    private boolean congested = false;
+    private boolean closing = false, closed = false;
+    /** bytes of the frame being written which are not yet written */
+    private volatile int inFlight = 0;
+
+    private final ArrayDeque<Runnable> events = new ArrayDeque<>();
+    private boolean dispatching = false;
+
+    private final ByteArrayOutputStream fragments = new ByteArrayOutputStream();
+    private int fragmentOp = -1;
+
+    WebSocket(final Handler handler, final SocketAddress remoteAddress) {
+        this.handler = handler;
+        this.remoteAddress = remoteAddress;
+    }
+
+    /** asks the selector to write the pending frames */
+    abstract void flushLater();
+
+    /** runs the task on the worker pool */
+    abstract void execute(Runnable task);
+
+    /** asks the selector to read from the connection again */
+    abstract void resumeReadingLater();
+
+    /**
+     * Queues a line of text for the client.
+     *
+     * @return false if the line was dropped because the connection is closed or congested
+     */
+    public boolean send(final String text) {
+        synchronized (this) {
+            if (closing) {
+                return false;
+            }
+            if (pending.length() + inFlight > maxPending) {
+                dropped++;
+                if (!congested) {
+                    congested = true;
+                    event(new Runnable() {
+                        @Override public void run() {
+                            handler.onBackpressure(WebSocket.this, true);
+                        }
+                    });
+                }
+                return false;
+            }
+            if (pending.length() > 0) {
+                pending.append('\n');
+            }
+            pending.append(text);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                flushLater();
+            }
+        }
+        return true;
+    }
+
+    public synchronized boolean isCongested() {
+        return congested;
+    }
+
+    public synchronized boolean isOpen() {
+        return !closing;
+    }
+
+    /** sends a close frame, the connection is closed once it is written */
+    public void close() {
+        synchronized (this) {
+            if (closing) {
+                return;
+            }
+            closing = true;
+            control.add(closeFrame(1000));
+        }
+        flushLater();
+    }
+
+    /* ---------- called by the selector ---------- */
+
+    void opened() {
+        event(new Runnable() {
+            @Override public void run() {
+                handler.onOpen(WebSocket.this);
+            }
+        });
+    }
+
+    void closed() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = closing = true;
+            pending.setLength(0);
+        }
+        event(new Runnable() {
+            @Override public void run() {
+                handler.onClose(WebSocket.this);
+            }
+        });
+    }
+
+    /** @return the next frame to write, or null if there is none */
+    synchronized ByteBuffer nextFrame() {
+        if (!control.isEmpty()) {
+            return control.poll();
+        }
+        flushScheduled = false;
+        if (closing) {
+            return null;
+        }
+        if (dropped > 0) {
+            if (pending.length() > 0) {
+                pending.append('\n');
+            }
+            pending.append("// ").append(dropped).append(" output lines dropped, the client reads too slowly");
+            dropped = 0;
+        }
+        if (pending.length() == 0) {
+            return null;
+        }
+        final byte[] payload = pending.toString().getBytes(StandardCharsets.UTF_8);
+        pending.setLength(0);
+        final ByteBuffer frame = frame(OP_TEXT, payload, payload.length);
+        inFlight = frame.remaining();
+        return frame;
+    }
+
+    /** @return whether the frame closes the connection */
+    static boolean isClose(final ByteBuffer frame) {
+        return (frame.get(0) & 0x0f) == OP_CLOSE;
+    }
+
+    /** records the bytes of the current frame which are still to be written */
+    void writing(final int remaining) {
+        Runnable relieved = null;
+        synchronized (this) {
+            inFlight = remaining;
+            if (congested && (pending.length() + remaining <= maxPending / 2)) {
+                congested = false;
+                relieved = new Runnable() {
+                    @Override public void run() {
+                        handler.onBackpressure(WebSocket.this, false);
+                    }
+                };
+                if (dropped > 0 && !flushScheduled) {
+                    flushScheduled = true;
+                    flushLater();
+                }
+            }
+        }
+        if (relieved != null) {
+            event(relieved);
+        }
+    }
+
+    /**
+     * Decodes the complete frames at the start of the buffer, leaving the
+     * buffer positioned after them.
+     *
+     * @return false if the connection should be read from no longer, because
+     * too many messages wait for the handler or because it is closing
+     */
+    boolean receive(final ByteBuffer in) {
+        while (in.remaining() >= 2) {
+            final int start = in.position();
+            final int b0 = in.get(start) & 0xff, b1 = in.get(start + 1) & 0xff;
+            final boolean fin = (b0 & 0x80) != 0;
+            final int op = b0 & 0x0f;
+            final boolean masked = (b1 & 0x80) != 0;
+            long len = b1 & 0x7f;
+            int header = 2;
+            if (len == 126) {
+                if (in.remaining() < 4) {
+                    break;
+                }
+                len = in.getShort(start + 2) & 0xffff;
+                header = 4;
+            } else if (len == 127) {
+                if (in.remaining() < 10) {
+                    break;
+                }
+                len = in.getLong(start + 2);
+                header = 10;
+            }
+            if (!masked || (len < 0) || (len + fragments.size() > MAX_MESSAGE)) {
+                //clients have to mask their frames
+                fail(masked ? 1009 : 1002);
+                return false;
+            }
+            if (in.remaining() < header + 4 + len) {
+                if (header + 4 + len > in.capacity()) {
+                    //let the connection grow its buffer
+                    return true;
+                }
+                break;
+            }
+            final byte[] payload = new byte[(int) len];
+            for (int i = 0; i < payload.length; i++) {
+                payload[i] = (byte) (in.get(start + header + 4 + i) ^ in.get(start + header + (i & 3)));
+            }
+            in.position(start + header + 4 + payload.length);
+
+            switch (op) {
+                case OP_TEXT:
+                case OP_BINARY:
+                case OP_CONTINUATION:
+                    if (op != OP_CONTINUATION) {
+                        fragmentOp = op;
+                        fragments.reset();
+                    }
+                    fragments.write(payload, 0, payload.length);
+                    if (fin) {
+                        if (fragmentOp == OP_TEXT) {
+                            message(new String(fragments.toByteArray(), StandardCharsets.UTF_8));
+                        }
+                        fragments.reset();
+                        fragmentOp = -1;
+                    }
+                    break;
+                case OP_PING:
+                    synchronized (this) {
+                        control.add(frame(OP_PONG, payload, payload.length));
+                    }
+                    flushLater();
+                    break;
+                case OP_CLOSE:
+                    close();
+                    return false;
+                default:
+                    break;
+            }
+        }
+        synchronized (events) {
+            if (events.size() >= MAX_EVENTS) {
+                return false;
+            }
+        }
+        synchronized (this) {
+            return !closing;
+        }
+    }
+
+    private void fail(final int status) {
+        synchronized (this) {
+            closing = true;
+            control.add(closeFrame(status));
+        }
+        flushLater();
+    }
+
+    private void message(final String message) {
+        event(new Runnable() {
+            @Override public void run() {
+                handler.onMessage(WebSocket.this, message);
+            }
+        });
+    }
+
+    /* ---------- ordered handler calls on the worker pool ---------- */
+
+    private void event(final Runnable r) {
+        synchronized (events) {
+            events.add(r);
+            if (dispatching) {
+                return;
+            }
+            dispatching = true;
+        }
+        execute(new Runnable() {
+            @Override public void run() {
+                dispatch();
+            }
+        });
+    }
+
+    private void dispatch() {
+        while (true) {
+            final Runnable r;
+            final boolean resume;
+            synchronized (events) {
+                r = events.poll();
+                resume = events.size() == MAX_EVENTS - 1;
+                if (r == null) {
+                    dispatching = false;
+                    return;
+                }
+            }
+            if (resume) {
+                resumeReadingLater();
+            }
+            try {
+                r.run();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /* ---------- frames ---------- */
+
+    static ByteBuffer frame(final int op, final byte[] payload, final int len) {
+        final int header = (len < 126) ? 2 : (len < 65536) ? 4 : 10;
+        final ByteBuffer b = ByteBuffer.allocate(header + len);
+        b.put((byte) (0x80 | op));
+        if (len < 126) {
+            b.put((byte) len);
+        } else if (len < 65536) {
+            b.put((byte) 126);
+            b.putShort((short) len);
+        } else {
+            b.put((byte) 127);
+            b.putLong(len);
+        }
+        b.put(payload, 0, len);
+        b.flip();
+        return b;
+    }
+
+    static ByteBuffer closeFrame(final int status) {
+        return frame(OP_CLOSE, new byte[] { (byte) (status >> 8), (byte) status }, 2);
+    }
+}